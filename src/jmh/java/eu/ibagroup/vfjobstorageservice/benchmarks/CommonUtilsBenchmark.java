@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import eu.ibagroup.vfjobstorageservice.services.CommonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name generation for a copy of an entity, which already has many copies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommonUtilsBenchmark {
+    private static final String NAME = "job";
+
+    @Param({"0", "10", "1000"})
+    public int copies;
+
+    private Set<String> names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        names = new HashSet<>();
+        names.add(NAME);
+        if (copies > 0) {
+            names.add(NAME + "-Copy");
+        }
+        for (int i = 1; i < copies; i++) {
+            names.add(NAME + "-Copy" + i);
+        }
+    }
+
+    @Benchmark
+    public String generateNameForCopy() {
+        return CommonUtils.generateNameForCopy(names, NAME);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.github.fppt.jedismock.datastructures.Slice;
+import com.github.fppt.jedismock.operations.server.MockExecutor;
+import com.github.fppt.jedismock.server.ServiceOptions;
+import com.github.fppt.jedismock.storage.OperationExecutorState;
+import eu.ibagroup.vfjobstorageservice.services.RedisScripts;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis stand-in running inside the benchmark's JVM, so the benchmarks need neither a Redis server nor Docker.
+ * The stand-in has no cjson module, so the pure Lua one is put in front of the scripts using it.
+ * The stand-in compiles every evaluated script, so the scripts are much slower than on Redis.
+ */
+final class InProcessRedis implements AutoCloseable {
+    private static final List<RedisScript<?>> SCRIPTS = List.of(RedisScripts.GET_DOCUMENT, RedisScripts.SAVE_JOB,
+            RedisScripts.UPDATE_JOB_STATUS, RedisScripts.DELETE_JOB, RedisScripts.REBUILD_INDEXES,
+            RedisScripts.SAVE_PIPELINE, RedisScripts.DELETE_PIPELINE, RedisScripts.SCAN_HASH, RedisScripts.SCAN_SET,
+            RedisScripts.REWRITE_VALUE, RedisScripts.MOVE_KEYS, RedisScripts.SPLIT_DOCUMENT);
+
+    private final String prelude;
+    private final Map<String, String> scripts = new HashMap<>();
+    private final RedisServer server;
+    private final LettuceConnectionFactory connectionFactory;
+
+    InProcessRedis() throws IOException {
+        prelude = "local cjson = (function()\n"
+                + new ClassPathResource("cjson.lua").getContentAsString(StandardCharsets.UTF_8) + "\nend)()\n";
+        for (RedisScript<?> script : SCRIPTS) {
+            scripts.put(script.getSha1(), withCjson(script.getScriptAsString()));
+        }
+        server = RedisServer.newRedisServer(0)
+                .setOptions(ServiceOptions.withInterceptor(this::execute))
+                .start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(server.getHost(),
+                server.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    LettuceConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    private String withCjson(String script) {
+        return script.contains("cjson.") ? prelude + script : script;
+    }
+
+    private Slice execute(OperationExecutorState state, String name, List<Slice> params) {
+        String script = null;
+        if ("eval".equalsIgnoreCase(name)) {
+            script = withCjson(new String(params.get(0).data(), StandardCharsets.UTF_8));
+        } else if ("evalsha".equalsIgnoreCase(name)) {
+            script = scripts.get(new String(params.get(0).data(), StandardCharsets.UTF_8));
+        }
+        if (script == null) {
+            return MockExecutor.proceed(state, name, params);
+        }
+        List<Slice> evalParams = new ArrayList<>(params);
+        evalParams.set(0, Slice.create(script.getBytes(StandardCharsets.UTF_8)));
+        return MockExecutor.proceed(state, "eval", evalParams);
+    }
+
+    @Override
+    public void close() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewListDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static eu.ibagroup.vfjobstorageservice.benchmarks.StorageState.PROJECT_ID;
+import static eu.ibagroup.vfjobstorageservice.benchmarks.StorageState.SCRATCH_PROJECT_ID;
+
+/**
+ * Job listing, creation, update and status update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobStorageBenchmark {
+    private static final String[] STATUSES = {"Pending", "Running", "Succeeded"};
+
+    @Benchmark
+    public JobOverviewListDto getAll(StorageState state) {
+        return state.jobService.getAll(PROJECT_ID);
+    }
+
+    @Benchmark
+    public String create(StorageState state, StorageState.Sequence sequence) throws Exception {
+        int index = sequence.next();
+        JobDto job = state.jobs.get(index % state.jobs.size()).toBuilder()
+                .id(null)
+                .name("created-" + index)
+                .build();
+        return state.jobService.create(SCRATCH_PROJECT_ID, job);
+    }
+
+    @Benchmark
+    public long update(StorageState state, StorageState.Sequence sequence) {
+        JobDto job = state.jobs.get(sequence.next(state.jobs.size()));
+        return state.jobService.update(PROJECT_ID, job.getId(), job, null);
+    }
+
+    @Benchmark
+    public void updateStatus(StorageState state, StorageState.Sequence sequence) {
+        int index = sequence.next();
+        JobDto job = state.jobs.get(index % state.jobs.size());
+        state.jobService.updateStatus(PROJECT_ID, job.getId(), STATUSES[index % STATUSES.length],
+                JobDto.builder().startedAt(Instant.now().toString()).build(), null);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of the load test's requests per operation. Latency is recorded in microseconds,
+ * the failed requests are counted apart from the successful ones.
+ */
+final class LatencyReport {
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(10);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String TOTAL = "total";
+
+    private final Map<String, Stats> operations = new ConcurrentSkipListMap<>();
+
+    /**
+     * Records a request.
+     *
+     * @param operation name of the operation.
+     * @param nanos     latency of the request in nanoseconds.
+     * @param failed    whether the request has failed.
+     */
+    void record(String operation, long nanos, boolean failed) {
+        Stats stats = operations.computeIfAbsent(operation, key -> new Stats());
+        if (failed) {
+            stats.errors.increment();
+        } else {
+            stats.histogram.recordValue(Math.min(HIGHEST_LATENCY, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+    }
+
+    /**
+     * Prints the table of the operations' latencies in milliseconds.
+     *
+     * @param out      output.
+     * @param duration duration of the measurement.
+     */
+    void print(PrintStream out, Duration duration) {
+        out.printf("%-20s %10s %8s %10s %10s %10s %10s %10s %10s%n", "operation", "requests", "errors", "req/s",
+                "p50, ms", "p90, ms", "p99, ms", "p99.9, ms", "max, ms");
+        getAll().forEach((String operation, Stats stats) -> {
+            Histogram histogram = stats.histogram;
+            out.printf("%-20s %10d %8d %10.1f", operation, histogram.getTotalCount(), stats.errors.sum(),
+                    getThroughput(histogram, duration));
+            for (double percentile : PERCENTILES) {
+                out.printf(" %10.2f", toMillis(histogram.getValueAtPercentile(percentile)));
+            }
+            out.printf(" %10.2f%n", toMillis(histogram.getMaxValue()));
+        });
+    }
+
+    /**
+     * Writes the operations' latencies in milliseconds as JSON.
+     *
+     * @param file         JSON file.
+     * @param duration     duration of the measurement.
+     * @param objectMapper JSON mapper.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Path file, Duration duration, ObjectMapper objectMapper) throws IOException {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("durationSeconds", duration.toSeconds());
+        ObjectNode results = report.putObject("operations");
+        getAll().forEach((String operation, Stats stats) -> {
+            Histogram histogram = stats.histogram;
+            ObjectNode result = results.putObject(operation);
+            result.put("requests", histogram.getTotalCount());
+            result.put("errors", stats.errors.sum());
+            result.put("throughput", getThroughput(histogram, duration));
+            for (double percentile : PERCENTILES) {
+                result.put("p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString(),
+                        toMillis(histogram.getValueAtPercentile(percentile)));
+            }
+            result.put("max", toMillis(histogram.getMaxValue()));
+        });
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+    }
+
+    /**
+     * Collects the operations followed by all of them together.
+     */
+    private Map<String, Stats> getAll() {
+        Map<String, Stats> all = new LinkedHashMap<>(operations);
+        Stats total = new Stats();
+        operations.values().forEach((Stats stats) -> {
+            total.histogram.add(stats.histogram);
+            total.errors.add(stats.errors.sum());
+        });
+        all.put(TOTAL, total);
+        return all;
+    }
+
+    private static double getThroughput(Histogram histogram, Duration duration) {
+        return histogram.getTotalCount() / Math.max(1.0, duration.toMillis() / 1000.0);
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Stats {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ibagroup.vfjobstorageservice.dto.connections.ConnectionDto;
+import eu.ibagroup.vfjobstorageservice.dto.importing.ImportRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.importing.ImportResponseDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewListDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewListDto;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Load test of a running service. Seeds the projects with synthetic jobs, pipelines and connections
+ * through the REST API, then drives a mixed workload of reads, writes and job status updates
+ * from several threads and reports the latency percentiles per operation:
+ * <pre>
+ * mvn -B -Pbenchmark test-compile exec:exec@load-test \
+ *     -Dload-test.args="--url=http://localhost:8080/vf --projects=5 --jobs=1000 --threads=32"
+ * </pre>
+ * Every thread sends the next request as soon as the previous one is answered.
+ * Seeding imports the entities by names, so repeated runs update the same projects.
+ */
+public final class LoadTest {
+    private static final String PROJECT_PREFIX = "load-test-";
+    private static final int IMPORT_BATCH_SIZE = 100;
+    private static final String[] STATUSES = {"Pending", "Running", "Succeeded"};
+
+    private final Options options;
+    private final ObjectMapper objectMapper;
+    private final StorageClient client;
+    private final List<Project> projects = new ArrayList<>();
+
+    private LoadTest(Options options) {
+        this.options = options;
+        // configured as the application's one
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.client = new StorageClient(options.url(), options.token(), objectMapper);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        LoadTest loadTest = new LoadTest(options);
+        loadTest.prepare();
+        System.out.printf("Warming up for %ds with %d threads%n", options.warmup(), options.threads());
+        loadTest.run(Duration.ofSeconds(options.warmup()));
+        System.out.printf("Measuring for %ds with %d threads%n", options.duration(), options.threads());
+        Duration duration = Duration.ofSeconds(options.duration());
+        LatencyReport report = loadTest.run(duration);
+        report.print(System.out, duration);
+        if (options.report() != null) {
+            report.write(Path.of(options.report()), duration, loadTest.objectMapper);
+        }
+    }
+
+    /**
+     * Seeds the projects unless it's disabled and reads IDs of their entities.
+     *
+     * @throws IOException if the service cannot be called.
+     */
+    private void prepare() throws IOException {
+        for (int i = 0; i < options.projects(); i++) {
+            String projectId = PROJECT_PREFIX + i;
+            List<JobDto> jobs = ProjectGenerator.generateJobs(options.jobs(), options.stages());
+            List<PipelineDto> pipelines = ProjectGenerator.generatePipelines(options.pipelines(), options.stages(),
+                    jobs);
+            List<ConnectionDto> connections = ProjectGenerator.generateConnections(options.connections());
+            if (options.seed()) {
+                long start = System.nanoTime();
+                seed(projectId, jobs, pipelines, connections);
+                System.out.printf("Seeded project '%s' in %d ms%n", projectId,
+                        Duration.ofNanos(System.nanoTime() - start).toMillis());
+            }
+            Map<String, String> jobIds = readIds(projectId, "/job", JobOverviewListDto.class,
+                    list -> toIds(list.getJobs(), JobOverviewDto::getName, JobOverviewDto::getId));
+            Map<String, String> pipelineIds = readIds(projectId, "/pipeline", PipelineOverviewListDto.class,
+                    list -> toIds(list.getPipelines(), PipelineOverviewDto::getName, PipelineOverviewDto::getId));
+            jobs.forEach(job -> job.setId(jobIds.get(job.getName())));
+            pipelines.forEach(pipeline -> pipeline.setId(pipelineIds.get(pipeline.getName())));
+            jobs.removeIf(job -> job.getId() == null);
+            pipelines.removeIf(pipeline -> pipeline.getId() == null);
+            if (jobs.isEmpty() || pipelines.isEmpty()) {
+                throw new IllegalStateException(String.format("Project '%s' has no generated jobs or pipelines, "
+                        + "run the test with --seed=true", projectId));
+            }
+            projects.add(new Project(projectId, jobs, pipelines, connections));
+        }
+    }
+
+    private void seed(String projectId, List<JobDto> jobs, List<PipelineDto> pipelines,
+                      List<ConnectionDto> connections) throws IOException {
+        for (int from = 0; from < jobs.size(); from += IMPORT_BATCH_SIZE) {
+            importResources(projectId, jobs.subList(from, Math.min(jobs.size(), from + IMPORT_BATCH_SIZE)),
+                    List.of());
+        }
+        for (int from = 0; from < pipelines.size(); from += IMPORT_BATCH_SIZE) {
+            importResources(projectId, List.of(),
+                    pipelines.subList(from, Math.min(pipelines.size(), from + IMPORT_BATCH_SIZE)));
+        }
+        for (ConnectionDto connection : connections) {
+            client.call("POST", projectId, "/connection", connection);
+        }
+    }
+
+    private void importResources(String projectId, List<JobDto> jobs, List<PipelineDto> pipelines)
+            throws IOException {
+        String response = client.call("POST", projectId, "/importResources", new ImportRequestDto(pipelines, jobs));
+        ImportResponseDto result = objectMapper.readValue(response, ImportResponseDto.class);
+        if (!result.getNotImportedJobs().isEmpty() || !result.getNotImportedPipelines().isEmpty()) {
+            System.out.printf("Not imported into '%s': %d jobs, %d pipelines%n", projectId,
+                    result.getNotImportedJobs().size(), result.getNotImportedPipelines().size());
+        }
+    }
+
+    private <T> Map<String, String> readIds(String projectId, String path, Class<T> type,
+                                            Function<T, Map<String, String>> ids) throws IOException {
+        return ids.apply(objectMapper.readValue(client.call("GET", projectId, path, null), type));
+    }
+
+    private static <T> Map<String, String> toIds(List<T> overviews, Function<T, String> names,
+                                                 Function<T, String> ids) {
+        Map<String, String> result = new HashMap<>();
+        overviews.forEach(overview -> result.putIfAbsent(names.apply(overview), ids.apply(overview)));
+        return result;
+    }
+
+    /**
+     * Sends the requests from all the threads for the given time.
+     *
+     * @param duration time to send the requests for.
+     * @return latency of the sent requests.
+     * @throws Exception if a thread has failed.
+     */
+    private LatencyReport run(Duration duration) throws Exception {
+        LatencyReport report = new LatencyReport();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads());
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < options.threads(); i++) {
+                workers.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        execute(nextOperation(), report);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return report;
+    }
+
+    private Operation nextOperation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int weight = random.nextInt(options.reads() + options.writes() + options.statuses());
+        Category category;
+        if (weight < options.reads()) {
+            category = Category.READ;
+        } else if (weight < options.reads() + options.writes()) {
+            category = Category.WRITE;
+        } else {
+            category = Category.STATUS;
+        }
+        List<Operation> operations = category.getOperations();
+        return operations.get(random.nextInt(operations.size()));
+    }
+
+    private void execute(Operation operation, LatencyReport report) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Project project = projects.get(random.nextInt(projects.size()));
+        JobDto job = project.jobs().get(random.nextInt(project.jobs().size()));
+        PipelineDto pipeline = project.pipelines().get(random.nextInt(project.pipelines().size()));
+        long start = System.nanoTime();
+        boolean failed;
+        try {
+            HttpResponse<String> response = switch (operation) {
+                case LIST_JOBS -> client.send("GET", project.id(), "/job", null);
+                case GET_JOB -> client.send("GET", project.id(), "/job/" + job.getId(), null);
+                case LIST_PIPELINES -> client.send("GET", project.id(), "/pipeline", null);
+                case GET_PIPELINE -> client.send("GET", project.id(), "/pipeline/" + pipeline.getId(), null);
+                case LIST_CONNECTIONS -> client.send("GET", project.id(), "/connections", null);
+                case UPDATE_JOB -> client.send("POST", project.id(), "/job/" + job.getId(), job);
+                case UPDATE_PIPELINE -> client.send("PUT", project.id(), "/pipeline/" + pipeline.getId(),
+                        pipeline);
+                case UPDATE_CONNECTION -> updateConnection(project, random);
+                case UPDATE_STATUS -> client.send("POST", project.id(), "/job/" + job.getId() + "/status?status="
+                                + STATUSES[random.nextInt(STATUSES.length)],
+                        JobDto.builder().startedAt(Instant.now().toString()).build());
+            };
+            failed = response.statusCode() >= 400;
+        } catch (IOException e) {
+            failed = true;
+        }
+        report.record(operation.name(), System.nanoTime() - start, failed);
+    }
+
+    private HttpResponse<String> updateConnection(Project project, ThreadLocalRandom random) throws IOException {
+        if (project.connections().isEmpty()) {
+            return client.send("GET", project.id(), "/connections", null);
+        }
+        ConnectionDto connection = project.connections().get(random.nextInt(project.connections().size()));
+        return client.send("PUT", project.id(), "/connections/" + connection.getKey(), connection);
+    }
+
+    /**
+     * Kinds of the requests, which are mixed in the configured proportions.
+     */
+    private enum Category {
+        READ, WRITE, STATUS;
+
+        List<Operation> getOperations() {
+            return Arrays.stream(Operation.values())
+                    .filter(operation -> operation.category == this)
+                    .toList();
+        }
+    }
+
+    /**
+     * Requests of the workload, each of them picks a random project and entity.
+     */
+    private enum Operation {
+        LIST_JOBS(Category.READ),
+        GET_JOB(Category.READ),
+        LIST_PIPELINES(Category.READ),
+        GET_PIPELINE(Category.READ),
+        LIST_CONNECTIONS(Category.READ),
+        UPDATE_JOB(Category.WRITE),
+        UPDATE_PIPELINE(Category.WRITE),
+        UPDATE_CONNECTION(Category.WRITE),
+        UPDATE_STATUS(Category.STATUS);
+
+        private final Category category;
+
+        Operation(Category category) {
+            this.category = category;
+        }
+    }
+
+    private record Project(String id, List<JobDto> jobs, List<PipelineDto> pipelines,
+                           List<ConnectionDto> connections) {
+    }
+
+    /**
+     * Options of the load test, passed as {@code --name=value} arguments.
+     *
+     * @param url         URL of the service including its context path.
+     * @param token       bearer token of the requests, none by default.
+     * @param projects    number of the projects.
+     * @param jobs        number of the jobs in every project.
+     * @param pipelines   number of the pipelines in every project.
+     * @param connections number of the connections in every project.
+     * @param stages      number of the stages in every job and pipeline.
+     * @param seed        whether the projects are seeded before the test.
+     * @param threads     number of the threads sending the requests.
+     * @param warmup      warm-up time in seconds, which isn't measured.
+     * @param duration    measurement time in seconds.
+     * @param reads       weight of the reads in the workload.
+     * @param writes      weight of the job, pipeline and connection updates in the workload.
+     * @param statuses    weight of the job status updates in the workload.
+     * @param report      file the JSON report is written into, none by default.
+     */
+    record Options(String url, String token, int projects, int jobs, int pipelines, int connections, int stages,
+                   boolean seed, int threads, int warmup, int duration, int reads, int writes, int statuses,
+                   String report) {
+        private static final Set<String> NAMES = Set.of("url", "token", "projects", "jobs", "pipelines",
+                "connections", "stages", "seed", "threads", "warmup", "duration", "reads", "writes", "statuses",
+                "report");
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Option must look like --name=value: " + arg);
+                }
+                if (!NAMES.contains(arg.substring(2, separator))) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+            Options options = new Options(values.getOrDefault("url", "http://localhost:8080/vf"),
+                    values.get("token"),
+                    getInt(values, "projects", 3),
+                    getInt(values, "jobs", 200),
+                    getInt(values, "pipelines", 20),
+                    getInt(values, "connections", 20),
+                    getInt(values, "stages", 20),
+                    Boolean.parseBoolean(values.getOrDefault("seed", "true")),
+                    getInt(values, "threads", 8),
+                    getInt(values, "warmup", 10),
+                    getInt(values, "duration", 60),
+                    getInt(values, "reads", 70),
+                    getInt(values, "writes", 20),
+                    getInt(values, "statuses", 10),
+                    values.get("report"));
+            if (options.reads() + options.writes() + options.statuses() <= 0) {
+                throw new IllegalArgumentException("Workload must have positive weights");
+            }
+            return options;
+        }
+
+        private static int getInt(Map<String, String> values, String name, int defaultValue) {
+            String value = values.get(name);
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        }
+    }
+}
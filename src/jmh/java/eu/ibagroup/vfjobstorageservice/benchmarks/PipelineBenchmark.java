@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewListDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static eu.ibagroup.vfjobstorageservice.benchmarks.StorageState.PROJECT_ID;
+
+/**
+ * Pipeline listing, update and partial update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Benchmark
+    public PipelineOverviewListDto getAll(StorageState state) {
+        return state.pipelineService.getAll(PROJECT_ID);
+    }
+
+    @Benchmark
+    public long update(StorageState state, StorageState.Sequence sequence) {
+        PipelineDto pipeline = state.pipelines.get(sequence.next(state.pipelines.size()));
+        return state.pipelineService.update(PROJECT_ID, pipeline.getId(), pipeline, null);
+    }
+
+    @Benchmark
+    public long patch(StorageState state, StorageState.Sequence sequence) {
+        int index = sequence.next();
+        PipelineDto pipeline = state.pipelines.get(index % state.pipelines.size());
+        PipelineDto request = new PipelineDto();
+        request.setTags(List.of("tag-" + index % 10));
+        return state.pipelineService.patch(PROJECT_ID, pipeline.getId(), request, null);
+    }
+}
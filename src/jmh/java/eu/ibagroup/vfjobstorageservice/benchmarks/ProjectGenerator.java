@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ibagroup.vfjobstorageservice.dto.connections.ConnectionDto;
+import eu.ibagroup.vfjobstorageservice.dto.graph.DefinitionDto;
+import eu.ibagroup.vfjobstorageservice.dto.graph.StageDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobParams;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Generates synthetic projects. The same arguments always give the same jobs and pipelines.
+ */
+final class ProjectGenerator {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private static final String SAMPLE_SCHEMA = "[{\"column\":\"name\",\"type\":\"String\"},"
+            + "{\"column\":\"amount\",\"type\":\"Integer\"}]";
+    private static final String SAMPLE_DATA = "[[\"first\",\"1\"],[\"second\",\"2\"],[\"third\",\"3\"]]";
+    private static final String[] MIDDLE_OPERATIONS = {"FILTER", "TRANSFORM", "GROUP", "SORT", "CACHE"};
+
+    private ProjectGenerator() {
+    }
+
+    /**
+     * Generates jobs, each of them is a chain of stages.
+     *
+     * @param count  number of jobs.
+     * @param stages number of stages in every job.
+     * @return jobs without IDs.
+     */
+    static List<JobDto> generateJobs(int count, int stages) {
+        List<JobDto> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            jobs.add(JobDto.builder()
+                    .name("job-" + i)
+                    .definition(generateDefinition(stages, (int stage) -> {
+                        Map<String, Object> value = new LinkedHashMap<>();
+                        value.put("operation", getJobOperation(stage, stages));
+                        value.put("name", "Stage_" + stage);
+                        value.put("storage", "dataframe");
+                        value.put("schema", SAMPLE_SCHEMA);
+                        value.put("data", SAMPLE_DATA);
+                        return value;
+                    }))
+                    .params(JobParams.builder().driverCores("1").driverMemory("1G").build())
+                    .build());
+        }
+        return jobs;
+    }
+
+    /**
+     * Generates pipelines, each of them is a chain of job stages referencing the jobs by names.
+     *
+     * @param count  number of pipelines.
+     * @param stages number of stages in every pipeline.
+     * @param jobs   jobs the pipelines run.
+     * @return pipelines without IDs.
+     */
+    static List<PipelineDto> generatePipelines(int count, int stages, List<JobDto> jobs) {
+        List<PipelineDto> pipelines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int first = i;
+            PipelineDto pipeline = new PipelineDto();
+            pipeline.setName("pipeline-" + i);
+            pipeline.setDefinition(generateDefinition(stages, (int stage) -> {
+                Map<String, Object> value = new LinkedHashMap<>();
+                value.put("operation", "JOB");
+                value.put("name", "Job_" + stage);
+                value.put("jobName", jobs.get((first + stage) % jobs.size()).getName());
+                value.put("jobId", "");
+                return value;
+            }));
+            pipelines.add(pipeline);
+        }
+        return pipelines;
+    }
+
+    /**
+     * Generates connections with the parameters of a JDBC storage.
+     *
+     * @param count number of connections.
+     * @return connections with keys.
+     */
+    static List<ConnectionDto> generateConnections(int count) {
+        List<ConnectionDto> connections = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, String> value = new HashMap<>();
+            value.put("connectionName", "connection-" + i);
+            value.put("storage", "postgresql");
+            value.put("jdbcUrl", "jdbc:postgresql://db-" + i + ".example.com:5432/warehouse");
+            value.put("user", "#user#");
+            value.put("password", "#password#");
+            connections.add(ConnectionDto.builder().key("connection-" + i).value(value).build());
+        }
+        return connections;
+    }
+
+    private static String getJobOperation(int stage, int stages) {
+        if (stage == 0) {
+            return "READ";
+        }
+        return stage == stages - 1 ? "WRITE" : MIDDLE_OPERATIONS[stage % MIDDLE_OPERATIONS.length];
+    }
+
+    /**
+     * Generates the graph of a chain of stages as the editor stores it.
+     *
+     * @param stages number of stages.
+     * @param values values of the stages by their positions.
+     * @return definition with the stages and the edges between them.
+     */
+    private static JsonNode generateDefinition(int stages, IntFunction<Map<String, Object>> values) {
+        List<StageDto> graph = new ArrayList<>(stages * 2);
+        for (int stage = 0; stage < stages; stage++) {
+            StageDto vertex = new StageDto();
+            vertex.setValue(values.apply(stage));
+            vertex.setGeometry(Map.of("x", stage * 250, "y", 440, "width", 224, "height", 144));
+            vertex.setStyle("fillColor=#E8F0FF;");
+            vertex.setId(String.valueOf(stage + 2));
+            vertex.setVertex(true);
+            vertex.setConnectable(true);
+            vertex.setParent("1");
+            graph.add(vertex);
+            if (stage > 0) {
+                StageDto edge = new StageDto();
+                edge.setValue(Map.of("operation", "EDGE", "successPath", "true", "text", ""));
+                edge.setId("edge-" + stage);
+                edge.setEdge(true);
+                edge.setParent("1");
+                edge.setSource(String.valueOf(stage + 1));
+                edge.setTarget(String.valueOf(stage + 2));
+                graph.add(edge);
+            }
+        }
+        return MAPPER.valueToTree(new DefinitionDto(graph));
+    }
+}
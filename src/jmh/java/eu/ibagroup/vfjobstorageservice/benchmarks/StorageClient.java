@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Minimal client of the service's REST API, which sends JSON bodies and returns raw responses.
+ */
+final class StorageClient {
+    private static final String API_PATH = "/api/project/";
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String token;
+
+    /**
+     * Creates the client.
+     *
+     * @param baseUrl      URL of the service including its context path, e.g. {@code http://localhost:8080/vf}.
+     * @param token        bearer token, {@code null} to send the requests without authorization.
+     * @param objectMapper mapper of the request bodies.
+     */
+    StorageClient(String baseUrl, String token, ObjectMapper objectMapper) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.token = token;
+    }
+
+    /**
+     * Sends a request to the project's resource.
+     *
+     * @param method    HTTP method.
+     * @param projectId project ID.
+     * @param path      path of the resource in the project, may contain the query.
+     * @param body      request body, {@code null} to send the request without a body.
+     * @return response with its body as a string.
+     * @throws IOException if the request cannot be sent.
+     */
+    HttpResponse<String> send(String method, String projectId, String path, Object body) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + API_PATH + projectId + path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(toJson(body)));
+        }
+        try {
+            return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request has been interrupted", e);
+        }
+    }
+
+    /**
+     * Sends a request, which must succeed.
+     *
+     * @param method    HTTP method.
+     * @param projectId project ID.
+     * @param path      path of the resource in the project.
+     * @param body      request body, {@code null} to send the request without a body.
+     * @return response body.
+     * @throws IOException if the request cannot be sent or fails.
+     */
+    String call(String method, String projectId, String path, Object body) throws IOException {
+        HttpResponse<String> response = send(method, projectId, path, body);
+        if (response.statusCode() >= 300) {
+            throw new IOException(String.format("%s %s failed with %d: %s", method, response.request().uri(),
+                    response.statusCode(), response.body()));
+        }
+        return response.body();
+    }
+
+    private String toJson(Object body) throws JsonProcessingException {
+        return body instanceof String json ? json : objectMapper.writeValueAsString(body);
+    }
+}
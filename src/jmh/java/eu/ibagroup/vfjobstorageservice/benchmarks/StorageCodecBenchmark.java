@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ibagroup.vfjobstorageservice.mappers.JobDtoMapper;
+import eu.ibagroup.vfjobstorageservice.model.Job;
+import eu.ibagroup.vfjobstorageservice.services.StorageCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading a job in every format and compression of the stored documents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StorageCodecBenchmark {
+    @Param({"JSON", "SMILE"})
+    public StorageCodec.Format format;
+
+    @Param({"NONE", "DEFLATE"})
+    public StorageCodec.Compression compression;
+
+    @Param({"5", "50"})
+    public int definitionSize;
+
+    private StorageCodec codec;
+    private Job job;
+    private String value;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        codec = new StorageCodec(new ObjectMapper(), format, compression, 0);
+        job = JobDtoMapper.INSTANCE.dtoToEntity(ProjectGenerator.generateJobs(1, definitionSize).get(0));
+        value = codec.write(job);
+    }
+
+    @Benchmark
+    public String write() throws JsonProcessingException {
+        return codec.write(job);
+    }
+
+    @Benchmark
+    public Job read() throws JsonProcessingException {
+        return codec.read(value, Job.class);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ibagroup.vfjobstorageservice.dto.importing.ImportResponseDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import eu.ibagroup.vfjobstorageservice.services.DocumentCache;
+import eu.ibagroup.vfjobstorageservice.services.JobStorageService;
+import eu.ibagroup.vfjobstorageservice.services.PipelineService;
+import eu.ibagroup.vfjobstorageservice.services.StorageCodec;
+import eu.ibagroup.vfjobstorageservice.services.StorageSerializer;
+import eu.ibagroup.vfjobstorageservice.services.StorageKeys;
+import eu.ibagroup.vfjobstorageservice.services.StorageMetrics;
+import eu.ibagroup.vfjobstorageservice.services.TransferService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_KEY_PREFIX;
+
+/**
+ * Storage services with a synthetic project. The project is imported once per trial,
+ * the entities written into the scratch project are removed after every iteration.
+ * Redis runs in-process unless {@value #REDIS_URL_VARIABLE} environment variable points to a dedicated Redis,
+ * e.g. {@code redis://localhost:6379/15}, the benchmark projects are overwritten there.
+ */
+@State(Scope.Benchmark)
+public class StorageState {
+    static final String PROJECT_ID = "benchmark";
+    static final String SCRATCH_PROJECT_ID = "benchmark-scratch";
+    static final String REDIS_URL_VARIABLE = "BENCHMARK_REDIS_URL";
+
+    @Param({"100", "1000"})
+    public int projectSize;
+
+    @Param({"10", "100"})
+    public int definitionSize;
+
+    JobStorageService jobService;
+    PipelineService pipelineService;
+    TransferService transferService;
+    List<JobDto> jobs;
+    List<PipelineDto> pipelines;
+
+    private InProcessRedis redis;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String redisUrl = System.getenv(REDIS_URL_VARIABLE);
+        if (redisUrl == null) {
+            redis = new InProcessRedis();
+            redisTemplate = createTemplate(redis.getConnectionFactory());
+        } else {
+            connectionFactory = new LettuceConnectionFactory(
+                    LettuceConnectionFactory.createRedisConfiguration(redisUrl));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            redisTemplate = createTemplate(connectionFactory);
+            deleteKeys(PROJECT_KEY_PREFIX + PROJECT_ID + "*");
+        }
+        // configured as the application's one
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        StorageCodec storageCodec = new StorageCodec(objectMapper);
+        DocumentCache documentCache = new DocumentCache(storageCodec);
+        StorageKeys storageKeys = new StorageKeys(StorageKeys.Layout.PLAIN);
+        jobService = new JobStorageService(redisTemplate, redisTemplate, objectMapper, storageCodec, documentCache,
+                storageKeys, StorageMetrics.disabled());
+        pipelineService = new PipelineService(redisTemplate, redisTemplate, objectMapper, storageCodec,
+                documentCache, storageKeys, jobService, StorageMetrics.disabled());
+        transferService = new TransferService(jobService, pipelineService, storageKeys, objectMapper);
+
+        jobs = ProjectGenerator.generateJobs(projectSize, definitionSize);
+        pipelines = ProjectGenerator.generatePipelines(getPipelineCount(), definitionSize, jobs);
+        checkImported(transferService.importing(PROJECT_ID, jobs, pipelines));
+        Map<String, String> jobIds = jobService.getIdsByNames(PROJECT_ID);
+        jobs.forEach(job -> job.setId(jobIds.get(job.getName())));
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearScratchProject() {
+        deleteKeys(PROJECT_KEY_PREFIX + SCRATCH_PROJECT_ID + "*");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (redis != null) {
+            redis.close();
+        } else {
+            connectionFactory.destroy();
+        }
+    }
+
+    private void deleteKeys(String pattern) {
+        Set<String> keys = redisTemplate.keys(pattern);
+        if (keys != null && !keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+    }
+
+    private static RedisTemplate<String, String> createTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, String> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setHashValueSerializer(new StorageSerializer());
+        redisTemplate.setHashKeySerializer(new StorageSerializer());
+        redisTemplate.setValueSerializer(new StorageSerializer());
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+
+    /**
+     * Number of pipelines in the project, every tenth entity of the project is a pipeline.
+     *
+     * @return number of pipelines.
+     */
+    int getPipelineCount() {
+        return Math.max(1, projectSize / 10);
+    }
+
+    static void checkImported(ImportResponseDto result) {
+        if (!result.getNotImportedJobs().isEmpty() || !result.getNotImportedPipelines().isEmpty()) {
+            throw new IllegalStateException("Synthetic project has not been imported: " + result);
+        }
+    }
+
+    /**
+     * Counter of the benchmark's invocations, used to pick the next entity.
+     */
+    @State(Scope.Thread)
+    public static class Sequence {
+        private int value;
+
+        int next() {
+            return value++;
+        }
+
+        int next(int bound) {
+            return Math.floorMod(next(), bound);
+        }
+    }
+}
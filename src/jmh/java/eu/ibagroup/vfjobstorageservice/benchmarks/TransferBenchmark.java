@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.benchmarks;
+
+import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportResponseDto;
+import eu.ibagroup.vfjobstorageservice.dto.importing.ImportResponseDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static eu.ibagroup.vfjobstorageservice.benchmarks.StorageState.PROJECT_ID;
+import static eu.ibagroup.vfjobstorageservice.benchmarks.StorageState.SCRATCH_PROJECT_ID;
+
+/**
+ * Export of the whole project and import of the same project into an empty one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferBenchmark {
+
+    @Benchmark
+    public ExportResponseDto exporting(StorageState state, ExportInput input) {
+        return state.transferService.exporting(PROJECT_ID, input.jobIds, input.pipelineRequests);
+    }
+
+    @Benchmark
+    public ImportResponseDto importing(StorageState state, ImportInput input) {
+        return state.transferService.importing(SCRATCH_PROJECT_ID, input.jobs, input.pipelines);
+    }
+
+    /**
+     * All the jobs and all the pipelines of the project with their jobs.
+     */
+    @State(Scope.Benchmark)
+    public static class ExportInput {
+        Set<String> jobIds;
+        List<ExportRequestDto.PipelineRequest> pipelineRequests;
+
+        @Setup(Level.Trial)
+        public void setUp(StorageState state) {
+            jobIds = state.jobs.stream().map(JobDto::getId).collect(Collectors.toSet());
+            pipelineRequests = state.pipelines.stream()
+                    .map(pipeline -> new ExportRequestDto.PipelineRequest(pipeline.getId(), true))
+                    .toList();
+        }
+    }
+
+    /**
+     * Fresh copy of the project for every import, since the import changes the imported entities.
+     * The scratch project is emptied before every import, so all the entities are created.
+     */
+    @State(Scope.Thread)
+    public static class ImportInput {
+        List<JobDto> jobs;
+        List<PipelineDto> pipelines;
+
+        @Setup(Level.Invocation)
+        public void setUp(StorageState state) {
+            state.clearScratchProject();
+            jobs = ProjectGenerator.generateJobs(state.projectSize, state.definitionSize);
+            pipelines = ProjectGenerator.generatePipelines(state.getPipelineCount(), state.definitionSize, jobs);
+        }
+    }
+}
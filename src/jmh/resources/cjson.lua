@@ -0,0 +1,192 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Pure Lua stand-in for the cjson module of Redis, which the in-process Redis of the benchmarks lacks.
+-- Only what the storage scripts use is implemented: decode, encode and null.
+local cjson = { null = setmetatable({}, { __tostring = function() return 'null' end }) }
+
+local escapes = { ['"'] = '\\"', ['\\'] = '\\\\', ['\b'] = '\\b', ['\f'] = '\\f', ['\n'] = '\\n',
+    ['\r'] = '\\r', ['\t'] = '\\t' }
+local unescapes = { ['"'] = '"', ['\\'] = '\\', ['/'] = '/', b = '\b', f = '\f', n = '\n', r = '\r', t = '\t' }
+
+local function encode_string(value)
+    return '"' .. value:gsub('[%c"\\]', function(c)
+        return escapes[c] or string.format('\\u%04x', c:byte())
+    end) .. '"'
+end
+
+local function is_array(value)
+    local count = 0
+    for key in pairs(value) do
+        if type(key) ~= 'number' or key < 1 or math.floor(key) ~= key then
+            return false
+        end
+        count = count + 1
+    end
+    return count > 0 and count == #value
+end
+
+local function encode_value(value)
+    local kind = type(value)
+    if value == nil or value == cjson.null then
+        return 'null'
+    elseif kind == 'boolean' then
+        return tostring(value)
+    elseif kind == 'number' then
+        if math.floor(value) == value and math.abs(value) < 1e15 then
+            return string.format('%d', value)
+        end
+        return string.format('%.14g', value)
+    elseif kind == 'string' then
+        return encode_string(value)
+    elseif kind ~= 'table' then
+        error('Cannot encode ' .. kind .. ' to JSON')
+    end
+    local parts = {}
+    if is_array(value) then
+        for i = 1, #value do
+            parts[i] = encode_value(value[i])
+        end
+        return '[' .. table.concat(parts, ',') .. ']'
+    end
+    for key, item in pairs(value) do
+        parts[#parts + 1] = encode_string(tostring(key)) .. ':' .. encode_value(item)
+    end
+    return '{' .. table.concat(parts, ',') .. '}'
+end
+
+local function utf8_char(code)
+    if code < 0x80 then
+        return string.char(code)
+    elseif code < 0x800 then
+        return string.char(0xC0 + math.floor(code / 0x40), 0x80 + code % 0x40)
+    elseif code < 0x10000 then
+        return string.char(0xE0 + math.floor(code / 0x1000), 0x80 + math.floor(code / 0x40) % 0x40,
+            0x80 + code % 0x40)
+    end
+    return string.char(0xF0 + math.floor(code / 0x40000), 0x80 + math.floor(code / 0x1000) % 0x40,
+        0x80 + math.floor(code / 0x40) % 0x40, 0x80 + code % 0x40)
+end
+
+local function skip(text, position)
+    return text:find('[^ \t\r\n]', position) or #text + 1
+end
+
+local function decode_string(text, position)
+    if text:sub(position, position) ~= '"' then
+        error('Expected string at position ' .. position)
+    end
+    local parts = {}
+    local index = position + 1
+    while true do
+        local stop = text:find('["\\]', index)
+        if not stop then
+            error('Unterminated string at position ' .. position)
+        end
+        parts[#parts + 1] = text:sub(index, stop - 1)
+        if text:sub(stop, stop) == '"' then
+            return table.concat(parts), stop + 1
+        end
+        local escape = text:sub(stop + 1, stop + 1)
+        if escape == 'u' then
+            local code = tonumber(text:sub(stop + 2, stop + 5), 16)
+            index = stop + 6
+            if code >= 0xD800 and code < 0xDC00 and text:sub(index, index + 1) == '\\u' then
+                local low = tonumber(text:sub(index + 2, index + 5), 16)
+                code = 0x10000 + (code - 0xD800) * 0x400 + (low - 0xDC00)
+                index = index + 6
+            end
+            parts[#parts + 1] = utf8_char(code)
+        else
+            parts[#parts + 1] = unescapes[escape] or error('Invalid escape at position ' .. stop)
+            index = stop + 2
+        end
+    end
+end
+
+local decode_value
+
+local function decode_container(text, position, closing, read_item)
+    local result = {}
+    position = skip(text, position + 1)
+    if text:sub(position, position) == closing then
+        return result, position + 1
+    end
+    while true do
+        position = skip(text, read_item(result, position))
+        local c = text:sub(position, position)
+        if c == closing then
+            return result, position + 1
+        elseif c ~= ',' then
+            error('Expected , or ' .. closing .. ' at position ' .. position)
+        end
+        position = skip(text, position + 1)
+    end
+end
+
+decode_value = function(text, position)
+    position = skip(text, position)
+    local c = text:sub(position, position)
+    if c == '{' then
+        return decode_container(text, position, '}', function(result, index)
+            local key
+            key, index = decode_string(text, index)
+            index = skip(text, index)
+            if text:sub(index, index) ~= ':' then
+                error('Expected : at position ' .. index)
+            end
+            result[key], index = decode_value(text, index + 1)
+            return index
+        end)
+    elseif c == '[' then
+        return decode_container(text, position, ']', function(result, index)
+            result[#result + 1], index = decode_value(text, index)
+            return index
+        end)
+    elseif c == '"' then
+        return decode_string(text, position)
+    end
+    local start, stop = text:find('^[%w%.%+%-]+', position)
+    if not start then
+        error('Unexpected character at position ' .. position)
+    end
+    local literal = text:sub(start, stop)
+    if literal == 'true' then
+        return true, stop + 1
+    elseif literal == 'false' then
+        return false, stop + 1
+    elseif literal == 'null' then
+        return cjson.null, stop + 1
+    end
+    return tonumber(literal) or error('Invalid literal at position ' .. position), stop + 1
+end
+
+function cjson.decode(text)
+    local value, position = decode_value(text, 1)
+    if skip(text, position) <= #text then
+        error('Unexpected trailing characters at position ' .. position)
+    end
+    return value
+end
+
+function cjson.encode(value)
+    return encode_value(value)
+end
+
+return cjson
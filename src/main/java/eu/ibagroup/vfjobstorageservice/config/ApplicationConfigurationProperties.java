@@ -18,6 +18,8 @@
  */
 package eu.ibagroup.vfjobstorageservice.config;
 
+import eu.ibagroup.vfjobstorageservice.services.StorageCodec;
+import eu.ibagroup.vfjobstorageservice.services.StorageKeys;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -26,6 +28,10 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Application Configuration (from yaml) class.
  * Represents properties from this configuration.
@@ -35,13 +41,23 @@ import org.springframework.validation.annotation.Validated;
 @ConfigurationProperties
 @Validated
 public class ApplicationConfigurationProperties {
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 512;
+    private static final long DEFAULT_CACHE_SIZE = 10_000;
+    private static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(1);
+    private static final String DEFAULT_READ_FROM = "replicaPreferred";
+    private static final int DEFAULT_MAX_CONNECTIONS = 100;
+    private static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofMillis(500);
+    private static final int DEFAULT_SLOW_LOGS_PER_MINUTE = 10;
+    private static final long DEFAULT_TRACKED_KEYS = 10_000;
 
     @Valid
-    private OauthSettings oauth;
+    private OauthSettings oauth = new OauthSettings();
     @Valid
     private ServerSettings server;
     @Valid
     private RedisSettings redis;
+    @Valid
+    private StorageSettings storage = new StorageSettings();
 
     /**
      * Represents oauth and user management settings.
@@ -50,6 +66,7 @@ public class ApplicationConfigurationProperties {
     public static class OauthSettings {
         private OauthUrlSettings url;
         private String provider;
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
     }
 
     /**
@@ -78,4 +95,50 @@ public class ApplicationConfigurationProperties {
         private String host;
         private Integer port;
     }
+
+    /**
+     * Represents settings of the stored documents.
+     */
+    @Data
+    public static class StorageSettings {
+        private StorageKeys.Layout keyLayout = StorageKeys.Layout.PLAIN;
+        private StorageKeys.DocumentLayout documentLayout = StorageKeys.DocumentLayout.HASH;
+        private StorageCodec.Format format = StorageCodec.Format.JSON;
+        private StorageCodec.Compression compression = StorageCodec.Compression.NONE;
+        private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+        private CacheSettings cache = new CacheSettings();
+        private ReplicaSettings replicas = new ReplicaSettings();
+        private DiagnosticsSettings diagnostics = new DiagnosticsSettings();
+    }
+
+    /**
+     * Represents settings of the in-process cache of the stored documents.
+     */
+    @Data
+    public static class CacheSettings {
+        private boolean enabled;
+        private long maxSize = DEFAULT_CACHE_SIZE;
+        private Duration ttl = DEFAULT_CACHE_TTL;
+        private boolean tracking;
+    }
+
+    /**
+     * Represents settings of reading the listings and the exported entities from Redis replicas.
+     */
+    @Data
+    public static class ReplicaSettings {
+        private boolean enabled;
+        private String readFrom = DEFAULT_READ_FROM;
+        private List<String> nodes = new ArrayList<>();
+    }
+
+    /**
+     * Represents settings of the slow Redis calls' log and of the hot keys' counting.
+     */
+    @Data
+    public static class DiagnosticsSettings {
+        private Duration slowThreshold = DEFAULT_SLOW_THRESHOLD;
+        private int slowLogsPerMinute = DEFAULT_SLOW_LOGS_PER_MINUTE;
+        private long trackedKeys = DEFAULT_TRACKED_KEYS;
+    }
 }
@@ -22,14 +22,25 @@ import java.security.cert.X509Certificate;
 @Configuration
 public class AuthTemplateConfig {
 
+    /**
+     * Template for the OAuth server. All the requests go to the same host, so the whole pool is available
+     * to a single route. The pool, not the number of threads, limits the concurrent requests on virtual threads.
+     *
+     * @param properties application properties.
+     * @return rest template.
+     */
     @Bean("authRestTemplate")
-    public RestTemplate getAuthRestTemplate() {
+    public RestTemplate getAuthRestTemplate(ApplicationConfigurationProperties properties) {
+        int maxConnections = properties.getOauth().getMaxConnections();
         try {
             TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
             SSLContext sslContext = SSLContexts.custom().loadTrustMaterial(null, acceptingTrustStrategy).build();
             SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext);
-            HttpClientConnectionManager connectionManager =
-                    PoolingHttpClientConnectionManagerBuilder.create().setSSLSocketFactory(csf).build();
+            HttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                    .setSSLSocketFactory(csf)
+                    .setMaxConnTotal(maxConnections)
+                    .setMaxConnPerRoute(maxConnections)
+                    .build();
             CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
 
 
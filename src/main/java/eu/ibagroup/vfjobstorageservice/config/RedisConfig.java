@@ -1,9 +1,22 @@
 package eu.ibagroup.vfjobstorageservice.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ibagroup.vfjobstorageservice.services.DocumentCache;
+import eu.ibagroup.vfjobstorageservice.services.DocumentInvalidationListener;
+import eu.ibagroup.vfjobstorageservice.services.DocumentTracking;
+import eu.ibagroup.vfjobstorageservice.services.StorageCodec;
+import eu.ibagroup.vfjobstorageservice.services.StorageDiagnostics;
+import eu.ibagroup.vfjobstorageservice.services.StorageKeys;
+import eu.ibagroup.vfjobstorageservice.services.StorageMetrics;
+import eu.ibagroup.vfjobstorageservice.services.StorageSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -11,14 +24,82 @@ public class RedisConfig {
 
     @Bean("redisTemplate")
     public RedisTemplate<String, String> redisTemplate(RedisConnectionFactory connectionFactory) {
+        return createTemplate(connectionFactory);
+    }
+
+    static RedisTemplate<String, String> createTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, String> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(connectionFactory);
-        redisTemplate.setHashValueSerializer(new StringRedisSerializer());
-        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
-        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(new StorageSerializer());
+        redisTemplate.setHashKeySerializer(new StorageSerializer());
+        redisTemplate.setValueSerializer(new StorageSerializer());
         redisTemplate.setKeySerializer(new StringRedisSerializer());
         return redisTemplate;
     }
 
+    /**
+     * Keys of the projects in the configured layout. Unless Redis is already a cluster, keys of a project are
+     * moved to the configured layout on its first use.
+     */
+    @Bean
+    public StorageKeys storageKeys(RedisConnectionFactory connectionFactory,
+                                   @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                                   ApplicationConfigurationProperties properties) {
+        StorageKeys.Layout layout = properties.getStorage().getKeyLayout();
+        StorageKeys.DocumentLayout documentLayout = properties.getStorage().getDocumentLayout();
+        if (connectionFactory instanceof LettuceConnectionFactory lettuce && lettuce.isClusterAware()) {
+            return new StorageKeys(layout, documentLayout, null);
+        }
+        return new StorageKeys(layout, documentLayout, redisTemplate);
+    }
+
+    @Bean
+    public StorageCodec storageCodec(ObjectMapper objectMapper, ApplicationConfigurationProperties properties,
+                                     StorageMetrics storageMetrics) {
+        ApplicationConfigurationProperties.StorageSettings storage = properties.getStorage();
+        return new StorageCodec(objectMapper, storage.getFormat(), storage.getCompression(),
+                storage.getCompressionThreshold(), storageMetrics);
+    }
+
+    @Bean
+    public DocumentCache documentCache(StorageCodec storageCodec, ApplicationConfigurationProperties properties) {
+        ApplicationConfigurationProperties.CacheSettings cache = properties.getStorage().getCache();
+        if (!cache.isEnabled()) {
+            return new DocumentCache(storageCodec);
+        }
+        return new DocumentCache(storageCodec, cache.getMaxSize(), cache.getTtl());
+    }
+
+    @Bean
+    public StorageDiagnostics storageDiagnostics(ApplicationConfigurationProperties properties) {
+        ApplicationConfigurationProperties.DiagnosticsSettings diagnostics = properties.getStorage().getDiagnostics();
+        return new StorageDiagnostics(diagnostics.getSlowThreshold(), diagnostics.getSlowLogsPerMinute(),
+                diagnostics.getTrackedKeys());
+    }
 
+    /**
+     * Listens to the changes of the documents made by all the replicas, if the documents are cached.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       DocumentCache documentCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (documentCache.isEnabled()) {
+            container.addMessageListener(new DocumentInvalidationListener(documentCache),
+                    new ChannelTopic(DocumentCache.INVALIDATION_CHANNEL));
+        }
+        return container;
+    }
+
+    /**
+     * Subscribes to the changes of the document hashes tracked by Redis, if the documents are cached
+     * and the tracking is requested.
+     */
+    @Bean
+    public DocumentTracking documentTracking(LettuceConnectionFactory connectionFactory, DocumentCache documentCache,
+                                             ApplicationConfigurationProperties properties) {
+        ApplicationConfigurationProperties.CacheSettings cache = properties.getStorage().getCache();
+        return new DocumentTracking(connectionFactory, documentCache, cache.isEnabled() && cache.isTracking());
+    }
 }
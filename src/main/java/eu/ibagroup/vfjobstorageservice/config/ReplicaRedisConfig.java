@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.config;
+
+import eu.ibagroup.vfjobstorageservice.services.StorageSerializer;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisURI;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.Objects;
+
+/**
+ * Templates for the listings and the exports, which tolerate replication lag, so they can be read from
+ * the replicas and leave the primary to the writes. They use the primary connection unless the replicas
+ * are enabled. Replicas are discovered from the primary or Sentinel, or set explicitly.
+ * <p>
+ * It is registered as an auto-configuration ordered after the Redis one, so the replica connection factory doesn't
+ * stop Spring Boot from creating the primary one. The replica factory is not an autowire candidate, so it is never
+ * injected instead of the primary one and the templates get it through the proxied bean method.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Configuration
+@AutoConfigureAfter(RedisAutoConfiguration.class)
+public class ReplicaRedisConfig {
+    private static final String REPLICAS_PREFIX = "storage.replicas";
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final ApplicationConfigurationProperties properties;
+
+    /**
+     * Connection factory, which reads from the replicas with the configured policy.
+     */
+    @Bean(name = "replicaRedisConnectionFactory", autowireCandidate = false)
+    @ConditionalOnProperty(prefix = REPLICAS_PREFIX, name = "enabled", havingValue = "true")
+    public LettuceConnectionFactory replicaRedisConnectionFactory() {
+        ApplicationConfigurationProperties.ReplicaSettings replicas = properties.getStorage().getReplicas();
+        LOGGER.info("Listings and exports are read with '{}' policy", replicas.getReadFrom());
+        return new LettuceConnectionFactory(getReplicaConfiguration(connectionFactory, replicas),
+                getReplicaClientConfiguration(connectionFactory.getClientConfiguration(),
+                        ReadFrom.valueOf(replicas.getReadFrom())));
+    }
+
+    @Bean("replicaRedisTemplate")
+    public RedisTemplate<String, String> replicaRedisTemplate() {
+        return RedisConfig.createTemplate(getReplicaConnectionFactory());
+    }
+
+    /**
+     * Non-blocking template for the reactive listings and exports, which reads from the same nodes
+     * as {@link #replicaRedisTemplate}.
+     */
+    @Bean("replicaReactiveRedisTemplate")
+    public ReactiveRedisTemplate<String, String> replicaReactiveRedisTemplate() {
+        StorageSerializer serializer = new StorageSerializer();
+        return new ReactiveRedisTemplate<>(getReplicaConnectionFactory(), RedisSerializationContext
+                .<String, String>newSerializationContext(StringRedisSerializer.UTF_8)
+                .value(serializer)
+                .hashKey(serializer)
+                .hashValue(serializer)
+                .build());
+    }
+
+    private LettuceConnectionFactory getReplicaConnectionFactory() {
+        // the bean method call returns the factory managed by the context
+        return properties.getStorage().getReplicas().isEnabled() ? replicaRedisConnectionFactory() : connectionFactory;
+    }
+
+    private static RedisConfiguration getReplicaConfiguration(LettuceConnectionFactory primary,
+                                                              ApplicationConfigurationProperties.ReplicaSettings
+                                                                      replicas) {
+        if (primary.isClusterAware()) {
+            return primary.getClusterConfiguration();
+        }
+        if (primary.isRedisSentinelAware()) {
+            return primary.getSentinelConfiguration();
+        }
+        RedisStandaloneConfiguration standalone = primary.getStandaloneConfiguration();
+        if (replicas.getNodes().isEmpty()) {
+            // Lettuce discovers the replicas of the standalone node itself
+            return standalone;
+        }
+        RedisStaticMasterReplicaConfiguration configuration =
+                new RedisStaticMasterReplicaConfiguration(standalone.getHostName(), standalone.getPort());
+        for (String node : replicas.getNodes()) {
+            RedisNode replica = RedisNode.fromString(node);
+            configuration.addNode(replica.getHost(), Objects.requireNonNullElse(replica.getPort(),
+                    RedisURI.DEFAULT_REDIS_PORT));
+        }
+        configuration.setUsername(standalone.getUsername());
+        configuration.setPassword(standalone.getPassword());
+        configuration.setDatabase(standalone.getDatabase());
+        return configuration;
+    }
+
+    private static LettuceClientConfiguration getReplicaClientConfiguration(LettuceClientConfiguration primary,
+                                                                            ReadFrom readFrom) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
+                .readFrom(readFrom)
+                .commandTimeout(primary.getCommandTimeout())
+                .shutdownTimeout(primary.getShutdownTimeout());
+        primary.getClientResources().ifPresent(builder::clientResources);
+        primary.getClientOptions().ifPresent(builder::clientOptions);
+        primary.getClientName().ifPresent(builder::clientName);
+        primary.getRedisCredentialsProviderFactory().ifPresent(builder::redisCredentialsProviderFactory);
+        if (primary.isUseSsl()) {
+            LettuceClientConfiguration.LettuceSslClientConfigurationBuilder ssl = builder.useSsl();
+            if (!primary.isVerifyPeer()) {
+                ssl.disablePeerVerification();
+            }
+            if (primary.isStartTls()) {
+                ssl.startTls();
+            }
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.observability.MicrometerTracingAdapter;
+
+/**
+ * Tracing of the requests. Spans of the requests, which continue the callers' traces, are created by Spring MVC.
+ * This configuration adds spans of the services' methods annotated with
+ * {@link io.micrometer.observation.annotation.Observed} and spans of the Redis commands.
+ */
+@Configuration
+@ConditionalOnProperty(value = "management.tracing.enabled", matchIfMissing = true)
+public class TracingConfig {
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    /**
+     * Lets Lettuce observe every Redis command as a child of the current observation.
+     * The replicas' connections share the client resources, so their commands are traced too.
+     *
+     * @param observationRegistry observation registry.
+     * @param serviceName         name of the service in the spans of the commands.
+     * @return customizer of the Lettuce client resources.
+     */
+    @Bean
+    public ClientResourcesBuilderCustomizer redisTracingCustomizer(
+            ObservationRegistry observationRegistry,
+            @Value("${spring.application.name:vf-job-storage-service}") String serviceName) {
+        return builder -> builder.tracing(new MicrometerTracingAdapter(observationRegistry, serviceName));
+    }
+}
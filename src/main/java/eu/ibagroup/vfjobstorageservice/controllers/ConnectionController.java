@@ -28,6 +28,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -37,6 +38,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -84,6 +86,26 @@ public class ConnectionController {
         return connectionService.getAll(projectId);
     }
 
+    /**
+     * Streaming all connections in a project by project id
+     *
+     * @param projectId project ID
+     * @return connections written to the response one by one
+     */
+    @Operation(summary = "Stream all connections in a project",
+            description = "Get information about all connections in a project, written to the response while " +
+                    "they are read from the storage")
+    @GetMapping(value = "{projectId}/connections", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll(@PathVariable String projectId) {
+        LOGGER.info(
+                "Streaming all connections in project '{}'",
+                projectId
+        );
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> connectionService.streamAll(projectId, outputStream));
+    }
+
     /**
      * Getting connection in a project by id
      *
@@ -19,24 +19,36 @@
 package eu.ibagroup.vfjobstorageservice.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import eu.ibagroup.vfjobstorageservice.dto.OverviewFilterDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobBatchRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobBatchResponseDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewListDto;
+import eu.ibagroup.vfjobstorageservice.services.CommonUtils;
 import eu.ibagroup.vfjobstorageservice.services.JobStorageService;
+import eu.ibagroup.vfjobstorageservice.services.Versioned;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -48,36 +60,85 @@ public class JobStorageController {
 
     /**
      * Get all jobs in project.
+     * If cursor, limit or any filter is passed, only one page of matching jobs is returned.
      *
      * @param projectId project id
+     * @param cursor    cursor of the page
+     * @param limit     page size
+     * @param filter    job filters
      * @return ResponseEntity with jobs graphs
      */
     @Operation(summary = "Get all jobs in a project", description = "Get information about all jobs in a project")
     @GetMapping("{projectId}/job")
-    public JobOverviewListDto getAll(@PathVariable String projectId) {
+    public JobOverviewListDto getAll(
+            @PathVariable String projectId,
+            @Parameter(description = "Cursor returned with the previous page, 0 for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Desired page size, the page may contain slightly more jobs")
+            @RequestParam(required = false) Integer limit,
+            @ParameterObject OverviewFilterDto filter) {
+        if (cursor == null && limit == null && !filter.hasCriteria()) {
+            LOGGER.info(
+                    "Receiving all jobs in project '{}'",
+                    projectId
+            );
+            return jobStorageService.getAll(projectId);
+        }
+        LOGGER.info(
+                "Receiving page of jobs in project '{}' from cursor '{}'",
+                projectId,
+                cursor
+        );
+        return jobStorageService.getPage(projectId, cursor, limit, filter);
+    }
+
+    /**
+     * Stream all jobs in project.
+     *
+     * @param projectId project id
+     * @return jobs written to the response one by one
+     */
+    @Operation(summary = "Stream all jobs in a project", description = "Get information about all jobs in a " +
+            "project, written to the response while they are read from the storage")
+    @GetMapping(value = "{projectId}/job", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll(@PathVariable String projectId) {
         LOGGER.info(
-                "Receiving all jobs in project '{}'",
+                "Streaming all jobs in project '{}'",
                 projectId
         );
-        return jobStorageService.getAll(projectId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> jobStorageService.streamAll(projectId, outputStream));
     }
 
     /**
      * Getting job in project by id.
+     * The job's version is returned as ETag, so the job is not read again while it matches If-None-Match.
      *
      * @param projectId project id
      * @param id        job id
+     * @param request   web request
      * @return ResponseEntity with job graph
      */
-    @Operation(summary = "Get information about the job", description = "Fetch job's structure by id")
+    @Operation(summary = "Get information about the job", description = "Fetch job's structure by id", responses = {
+            @ApiResponse(responseCode = "304", description = "Job has not been modified")})
     @GetMapping("{projectId}/job/{id}")
-    public JobDto get(@PathVariable String projectId, @PathVariable String id) throws JsonProcessingException {
+    public ResponseEntity<JobDto> get(@PathVariable String projectId, @PathVariable String id, WebRequest request)
+            throws JsonProcessingException {
         LOGGER.info(
                 "Receiving job '{}' in project '{}'",
                 id,
                 projectId
         );
-        return jobStorageService.get(projectId, id);
+        Versioned<JobDto> versioned = jobStorageService.getVersioned(projectId, id);
+        if (versioned.version() == 0) {
+            return ResponseEntity.ok(versioned.document());
+        }
+        String eTag = CommonUtils.toETag(versioned.version());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(versioned.document());
     }
 
     /**
@@ -111,39 +172,82 @@ public class JobStorageController {
      * @param projectId project id
      * @param id        job id
      * @param jobDto    object with name and graph
+     * @param ifMatch   ETag of the job's version, which is being updated
      */
-    @Operation(summary = "Update existing job", description = "Update existing job with a new structure")
+    @Operation(summary = "Update existing job", description = "Update existing job with a new structure",
+            responses = {@ApiResponse(responseCode = "412", description = "Job has been modified by someone else")})
     @PostMapping("{projectId}/job/{id}")
     public ResponseEntity<Void> update(
             @PathVariable String projectId,
             @PathVariable String id,
-            @Valid @RequestBody JobDto jobDto) {
+            @Valid @RequestBody JobDto jobDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         LOGGER.info(
                 "Updating job '{}' in project '{}'",
                 id,
                 projectId
         );
-        jobStorageService.update(projectId, id, jobDto);
+        long version = jobStorageService.update(projectId, id, jobDto, CommonUtils.fromETag(ifMatch));
         LOGGER.info(
                 "Job '{}' in project '{}' successfully updated",
                 id,
                 projectId
         );
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.noContent().eTag(CommonUtils.toETag(version)).build();
+    }
+
+    /**
+     * Creating, updating and deleting jobs in project in one batch.
+     *
+     * @param projectId project id
+     * @param request   jobs to create, update and delete
+     * @return ResponseEntity with ids of changed jobs and errors
+     */
+    @Operation(summary = "Change jobs in a batch", description = "Create, update and delete many jobs in the " +
+            "project at once. Jobs, which cannot be changed, are reported in the errors")
+    @PostMapping("{projectId}/job:batch")
+    public JobBatchResponseDto batch(@PathVariable String projectId, @Valid @RequestBody JobBatchRequestDto request) {
+        LOGGER.info(
+                "Changing jobs in project '{}' in a batch",
+                projectId
+        );
+        JobBatchResponseDto response = jobStorageService.batch(projectId, request);
+        LOGGER.info(
+                "Jobs in project '{}' changed in a batch: {} created, {} updated, {} deleted, {} failed",
+                projectId,
+                response.getCreated().size(),
+                response.getUpdated().size(),
+                response.getDeleted().size(),
+                response.getErrors().size()
+        );
+        return response;
     }
 
-    @Operation(summary = "Update the status of an existing job", description = "Update the status of an existing job")
+    /**
+     * Updating job's status in project by id.
+     *
+     * @param projectId     project id
+     * @param id            job id
+     * @param status        new status
+     * @param jobDto        object with start and finish time
+     * @param expectedRunId run id the job must have to be updated
+     */
+    @Operation(summary = "Update the status of an existing job", description = "Update the status of an existing " +
+            "job. If the expected run id is passed, the job is updated only while it has this run id", responses = {
+            @ApiResponse(responseCode = "409", description = "Job has another run id")})
     @PostMapping("{projectId}/job/{id}/status")
     public ResponseEntity<Void> updateStatus(
             @PathVariable String projectId,
             @PathVariable String id,
-            @RequestParam String status, @RequestBody JobDto jobDto) throws JsonProcessingException {
+            @RequestParam String status, @RequestBody JobDto jobDto,
+            @Parameter(description = "Run id the job must have to be updated")
+            @RequestParam(required = false) Long expectedRunId) {
         LOGGER.info(
                 "Updating job '{}' in project '{}'",
                 id,
                 projectId
         );
-        jobStorageService.updateStatus(projectId, id, status, jobDto);
+        jobStorageService.updateStatus(projectId, id, status, jobDto, expectedRunId);
         LOGGER.info(
                 "Job '{}' in project '{}' successfully updated",
                 id,
@@ -20,16 +20,23 @@
 package eu.ibagroup.vfjobstorageservice.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import eu.ibagroup.vfjobstorageservice.dto.OverviewFilterDto;
 import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewListDto;
 import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import eu.ibagroup.vfjobstorageservice.services.CommonUtils;
 import eu.ibagroup.vfjobstorageservice.services.PipelineService;
+import eu.ibagroup.vfjobstorageservice.services.Versioned;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -39,9 +46,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 /**
@@ -80,19 +90,32 @@ public class PipelineController {
 
     /**
      * Get pipeline.
+     * The pipeline's version is returned as ETag, so the pipeline is not read again while it matches
+     * If-None-Match.
      *
      * @param projectId project id
      * @param id        pipeline id
+     * @param request   web request
      * @return pipeline graph
      */
-    @Operation(summary = "Get information about the pipeline", description = "Fetch pipeline's structure by id")
+    @Operation(summary = "Get information about the pipeline", description = "Fetch pipeline's structure by id",
+            responses = {@ApiResponse(responseCode = "304", description = "Pipeline has not been modified")})
     @GetMapping(value = "{projectId}/pipeline/{id}")
-    public PipelineDto get(@PathVariable String projectId, @PathVariable String id) {
+    public ResponseEntity<PipelineDto> get(@PathVariable String projectId, @PathVariable String id,
+                                           WebRequest request) {
         LOGGER.info(
                 "Receiving pipeline '{}' in project '{}'",
                 id,
                 projectId);
-        return pipelineService.getById(projectId, id);
+        Versioned<PipelineDto> versioned = pipelineService.getVersioned(projectId, id);
+        if (versioned.version() == 0) {
+            return ResponseEntity.ok(versioned.document());
+        }
+        String eTag = CommonUtils.toETag(versioned.version());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(versioned.document());
     }
 
     /**
@@ -101,18 +124,24 @@ public class PipelineController {
      * @param projectId          project id
      * @param id                 current pipeline id
      * @param pipelineRequestDto new id and graph for pipeline
+     * @param ifMatch            ETag of the pipeline's version, which is being updated
+     * @return ResponseEntity with ETag of the new version
      */
     @PutMapping(value = "{projectId}/pipeline/{id}")
-    @Operation(summary = "Update existing pipeline", description = "Update existing pipeline with a new structure")
-    public void update(
+    @Operation(summary = "Update existing pipeline", description = "Update existing pipeline with a new structure",
+            responses = {@ApiResponse(responseCode = "412", description = "Pipeline has been modified by someone " +
+                    "else")})
+    public ResponseEntity<Void> update(
             @PathVariable String projectId,
             @PathVariable String id,
-            @Valid @RequestBody PipelineDto pipelineRequestDto) {
+            @Valid @RequestBody PipelineDto pipelineRequestDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         LOGGER.info(
                 "Updating pipeline '{}' in project '{}'",
                 id,
                 projectId);
-        pipelineService.update(projectId, id, pipelineRequestDto);
+        long version = pipelineService.update(projectId, id, pipelineRequestDto, CommonUtils.fromETag(ifMatch));
+        return ResponseEntity.ok().eTag(CommonUtils.toETag(version)).build();
     }
 
     /**
@@ -121,18 +150,24 @@ public class PipelineController {
      * @param projectId          project id
      * @param id                 current pipeline id
      * @param pipelineRequestDto new id and graph for pipeline
+     * @param ifMatch            ETag of the pipeline's version, which is being patched
+     * @return ResponseEntity with ETag of the new version
      */
     @PatchMapping(value = "{projectId}/pipeline/{id}")
-    @Operation(summary = "Update existing pipeline", description = "Patch existing pipeline with a new values")
-    public void patch(
+    @Operation(summary = "Update existing pipeline", description = "Patch existing pipeline with a new values",
+            responses = {@ApiResponse(responseCode = "412", description = "Pipeline has been modified by someone " +
+                    "else")})
+    public ResponseEntity<Void> patch(
             @PathVariable String projectId,
             @PathVariable String id,
-            @Valid @RequestBody PipelineDto pipelineRequestDto) {
+            @Valid @RequestBody PipelineDto pipelineRequestDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         LOGGER.info(
                 "Patching pipeline '{}' in project '{}'",
                 id,
                 projectId);
-        pipelineService.patch(projectId, id, pipelineRequestDto);
+        long version = pipelineService.patch(projectId, id, pipelineRequestDto, CommonUtils.fromETag(ifMatch));
+        return ResponseEntity.ok().eTag(CommonUtils.toETag(version)).build();
     }
 
     /**
@@ -155,23 +190,55 @@ public class PipelineController {
 
     /**
      * Get all pipelines in project.
+     * If cursor, limit or any filter is passed, only one page of matching pipelines is returned.
      *
      * @param projectId project id
      * @param names     pipeline's names to get
+     * @param cursor    cursor of the page
+     * @param limit     page size
+     * @param filter    pipeline filters
      * @return ResponseEntity with jobs graphs
      */
     @Operation(summary = "Get all pipelines in a project", description = "Get information about all pipelines in" +
             " a project")
     @GetMapping("{projectId}/pipeline")
     public PipelineOverviewListDto getAll(@PathVariable String projectId,
-                                          @RequestParam(required = false) List<String> names) {
+                                          @RequestParam(required = false) List<String> names,
+                                          @Parameter(description = "Cursor returned with the previous page, " +
+                                                  "0 for the first page")
+                                          @RequestParam(required = false) String cursor,
+                                          @Parameter(description = "Desired page size, the page may contain " +
+                                                  "slightly more pipelines")
+                                          @RequestParam(required = false) Integer limit,
+                                          @ParameterObject OverviewFilterDto filter) {
         LOGGER.info(
                 "Receiving all pipelines in project '{}'",
                 projectId);
-        if (CollectionUtils.isEmpty(names)) {
+        if (!CollectionUtils.isEmpty(names)) {
+            return pipelineService.getAllByNames(projectId, names);
+        }
+        if (cursor == null && limit == null && !filter.hasCriteria()) {
             return pipelineService.getAll(projectId);
         }
-        return pipelineService.getAllByNames(projectId, names);
+        return pipelineService.getPage(projectId, cursor, limit, filter);
+    }
+
+    /**
+     * Stream all pipelines in project.
+     *
+     * @param projectId project id
+     * @return pipelines written to the response one by one
+     */
+    @Operation(summary = "Stream all pipelines in a project", description = "Get information about all pipelines " +
+            "in a project, written to the response while they are read from the storage")
+    @GetMapping(value = "{projectId}/pipeline", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll(@PathVariable String projectId) {
+        LOGGER.info(
+                "Streaming all pipelines in project '{}'",
+                projectId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> pipelineService.streamAll(projectId, outputStream));
     }
 
     /**
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.controllers;
+
+import eu.ibagroup.vfjobstorageservice.dto.exporting.BundleEntryDto;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewDto;
+import eu.ibagroup.vfjobstorageservice.services.ReactiveStorageService;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking variant of the listings and the export. Entities are written to the response as NDJSON,
+ * one per line, and the next ones are read from the storage only after the previous ones have been written.
+ * The request thread is released while the entities are being read.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/reactive/project")
+public class ReactiveStorageController {
+
+    private final ReactiveStorageService reactiveStorageService;
+
+    /**
+     * Get all jobs in project.
+     *
+     * @param projectId project id
+     * @return job overviews
+     */
+    @Operation(summary = "Get all jobs in a project as NDJSON", description = "Get information about all jobs " +
+            "in a project without blocking a thread while they are read")
+    @GetMapping(value = "{projectId}/job", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<JobOverviewDto> getJobs(@PathVariable String projectId) {
+        LOGGER.info(
+                "Receiving reactively all jobs in project '{}'",
+                projectId
+        );
+        return reactiveStorageService.getJobs(projectId);
+    }
+
+    /**
+     * Get all pipelines in project.
+     *
+     * @param projectId project id
+     * @return pipeline overviews
+     */
+    @Operation(summary = "Get all pipelines in a project as NDJSON", description = "Get information about all " +
+            "pipelines in a project without blocking a thread while they are read")
+    @GetMapping(value = "{projectId}/pipeline", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PipelineOverviewDto> getPipelines(@PathVariable String projectId) {
+        LOGGER.info(
+                "Receiving reactively all pipelines in project '{}'",
+                projectId
+        );
+        return reactiveStorageService.getPipelines(projectId);
+    }
+
+    /**
+     * Export.
+     *
+     * @param projectId        project id
+     * @param exportRequestDto dto with job ids and pipelines for export
+     * @return exported jobs and pipelines in the same NDJSON bundle as the streamed export
+     */
+    @Operation(summary = "Export pipelines/jobs as NDJSON", description = "Export existing pipelines/jobs into " +
+            "NDJSON bundle without blocking a thread while they are read")
+    @PostMapping(value = "{projectId}/exportResources", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BundleEntryDto> export(@PathVariable String projectId,
+                                       @RequestBody @Valid ExportRequestDto exportRequestDto) {
+        LOGGER.info(
+                "Exporting reactively resources of project '{}'",
+                projectId
+        );
+        return reactiveStorageService.export(projectId, exportRequestDto.getJobIds(),
+                exportRequestDto.getPipelines());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.controllers;
+
+import eu.ibagroup.vfjobstorageservice.dto.StorageKeyReportDto;
+import eu.ibagroup.vfjobstorageservice.dto.StorageMigrationDto;
+import eu.ibagroup.vfjobstorageservice.services.StorageMigrationService;
+import eu.ibagroup.vfjobstorageservice.services.StorageReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/storage")
+public class StorageController {
+
+    private final StorageMigrationService migrationService;
+    private final StorageReportService reportService;
+
+    /**
+     * Starting the migration of the stored documents.
+     *
+     * @return status of the started migration
+     */
+    @Operation(summary = "Migrate stored documents", description = "Rewrite all the stored jobs, pipelines and " +
+            "connections in the configured format in the background", responses = {
+            @ApiResponse(responseCode = "409", description = "Migration is already running")})
+    @PostMapping("migration")
+    public ResponseEntity<StorageMigrationDto> migrate() {
+        LOGGER.info("Starting migration of the stored documents");
+        return ResponseEntity.accepted().body(migrationService.start());
+    }
+
+    /**
+     * Getting the status of the last migration.
+     *
+     * @return status of the last migration
+     */
+    @Operation(summary = "Get migration status", description = "Get the progress of the last migration of the " +
+            "stored documents", responses = {
+            @ApiResponse(responseCode = "204", description = "There has been no migration yet")})
+    @GetMapping("migration")
+    public ResponseEntity<StorageMigrationDto> getMigration() {
+        StorageMigrationDto status = migrationService.getStatus();
+        return status == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(status);
+    }
+
+    /**
+     * Getting the largest and the most frequently used project keys.
+     *
+     * @param limit number of the keys in each list
+     * @return report of the keys
+     */
+    @Operation(summary = "Get big and hot keys", description = "Get the project hashes of jobs, pipelines and " +
+            "connections with the most fields and the project keys used by the most Redis calls of this instance")
+    @GetMapping("keys")
+    public StorageKeyReportDto getKeys(
+            @Parameter(description = "Number of the keys in each list")
+            @RequestParam(defaultValue = "20") int limit) {
+        LOGGER.info("Receiving the report of the largest and the most used keys");
+        return reportService.getKeys(limit);
+    }
+}
@@ -27,11 +27,17 @@ import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -55,6 +61,24 @@ public class TransferController {
         return transferService.exporting(projectId, exportRequestDto.getJobIds(), exportRequestDto.getPipelines());
     }
 
+    /**
+     * Streamed export.
+     *
+     * @param projectId        project id
+     * @param exportRequestDto dto with job ids and pipelines for export
+     * @return exported jobs and pipelines written to the response as NDJSON
+     */
+    @Operation(summary = "Stream export of pipelines/jobs", description = "Export existing pipelines/jobs into " +
+            "NDJSON bundle, written to the response while they are read from the storage")
+    @PostMapping(value = "{projectId}/exportResources", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamExport(
+            @PathVariable String projectId, @RequestBody @Valid ExportRequestDto exportRequestDto) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> transferService.streamExport(projectId, exportRequestDto.getJobIds(),
+                        exportRequestDto.getPipelines(), outputStream));
+    }
+
     /**
      * Import.
      *
@@ -69,4 +93,21 @@ public class TransferController {
             @PathVariable String projectId, @RequestBody @Valid ImportRequestDto importRequestDto) {
         return transferService.importing(projectId, importRequestDto.getJobs(), importRequestDto.getPipelines());
     }
+
+    /**
+     * Streamed import.
+     *
+     * @param projectId   project id
+     * @param inputStream NDJSON bundle with jobs and pipelines
+     * @return object witch contains not imported ids of pipelines and jobs
+     * @throws IOException if the bundle cannot be read
+     */
+    @Operation(summary = "Stream import of pipelines/jobs", description = "Import pipelines/jobs into a specific " +
+            "project from NDJSON bundle, applying them while the bundle is read")
+    @PostMapping(value = "{projectId}/importResources", params = "stream=true",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportResponseDto streamImport(@PathVariable String projectId, InputStream inputStream)
+            throws IOException {
+        return transferService.streamImport(projectId, inputStream);
+    }
 }
@@ -23,6 +23,12 @@ public final class Constants {
     public static final String JOB_KEY_PREFIX = ":job:";
     public static final String PIPELINE_KEY_PREFIX = ":pipeline:";
     public static final String PROJECT_CONNECTION_PREFIX = "connection:";
+    public static final String JOB_NAME_INDEX_SUFFIX = ":job-names";
+    public static final String JOB_OVERVIEW_SUFFIX = ":job-overviews";
+    public static final String VERSIONS_SUFFIX = ":versions";
+    public static final String PIPELINE_IDS_SUFFIX = ":pipeline-ids";
+    public static final String KEY_LAYOUT_KEY = "storage:key-layout";
+    public static final int TRANSFER_BATCH_SIZE = 200;
     public static final String GET_ALL_ERROR = "Error while executing getAll method: ";
     public static final String CLUSTER_NAME = "CLUSTER_NAME";
     public static final String POLICY = "POLICY";
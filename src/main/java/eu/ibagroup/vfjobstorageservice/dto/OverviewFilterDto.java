@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+
+/**
+ * Filters for listing jobs and pipelines.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Filters for listing jobs and pipelines")
+public class OverviewFilterDto {
+    @Schema(description = "Only entities with this status", example = "Draft")
+    private String status;
+    @Schema(description = "Only entities whose name starts with this prefix")
+    private String namePrefix;
+    @Schema(description = "Only entities marked with this tag")
+    private String tag;
+    @Schema(description = "Only entities modified at or after this moment (compared as a string, e.g. ISO-8601)")
+    private String modifiedFrom;
+    @Schema(description = "Only entities modified at or before this moment (compared as a string, e.g. ISO-8601)")
+    private String modifiedTo;
+
+    /**
+     * Checks whether any filter is set.
+     *
+     * @return true if at least one filter is set.
+     */
+    public boolean hasCriteria() {
+        return status != null || namePrefix != null || tag != null || modifiedFrom != null || modifiedTo != null;
+    }
+
+    /**
+     * Checks whether an entity satisfies all the filters.
+     *
+     * @param name         entity name.
+     * @param entityStatus entity status.
+     * @param tags         entity tags.
+     * @param lastModified entity last modification time.
+     * @return true if the entity matches.
+     */
+    public boolean matches(String name, String entityStatus, Collection<String> tags, String lastModified) {
+        if (status != null && !status.equals(entityStatus)) {
+            return false;
+        }
+        if (namePrefix != null && (name == null || !name.startsWith(namePrefix))) {
+            return false;
+        }
+        if (tag != null && (tags == null || !tags.contains(tag))) {
+            return false;
+        }
+        if (modifiedFrom != null && (lastModified == null || lastModified.compareTo(modifiedFrom) < 0)) {
+            return false;
+        }
+        return modifiedTo == null || lastModified != null && lastModified.compareTo(modifiedTo) <= 0;
+    }
+}
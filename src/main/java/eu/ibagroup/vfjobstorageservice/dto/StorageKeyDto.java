@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Stored key usage DTO class.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "DTO with the size or the number of the calls of a project key")
+public class StorageKeyDto {
+    @Schema(description = "Redis key")
+    private final String key;
+    @Schema(description = "Project, the key belongs to")
+    private final String projectId;
+    @Schema(description = "Type of the entities, which calls used the key")
+    private final String entity;
+    @Schema(description = "Number of the fields of the hash")
+    private final Long length;
+    @Schema(description = "Memory used by the key and its value in bytes, as reported by Redis")
+    private final Long memory;
+    @Schema(description = "Number of the Redis calls, which used the key")
+    private final Long accesses;
+}
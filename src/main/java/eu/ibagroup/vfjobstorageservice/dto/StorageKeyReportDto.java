@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Big and hot stored keys report DTO class.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+@ToString
+@Schema(description = "DTO with the largest project hashes and the most frequently used project keys")
+public class StorageKeyReportDto {
+    @Schema(description = "Project hashes of jobs, pipelines and connections with the most fields")
+    private final List<StorageKeyDto> largest;
+    @Schema(description = "Project keys used by the most Redis calls of this instance")
+    private final List<StorageKeyDto> hottest;
+    @Schema(description = "Time this instance has started counting the calls from")
+    private final String countedSince;
+}
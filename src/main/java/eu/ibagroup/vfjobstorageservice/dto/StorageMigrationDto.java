@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Storage migration status DTO class.
+ */
+@Getter
+@Builder
+@EqualsAndHashCode
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "DTO with the progress of moving the stored keys and documents to the configured layout "
+        + "and format")
+public class StorageMigrationDto {
+    @Schema(description = "Layout the project keys are moved to")
+    private final String keyLayout;
+    @Schema(description = "Layout the jobs and pipelines are stored in")
+    private final String documentLayout;
+    @Schema(description = "Format the documents are rewritten in")
+    private final String format;
+    @Schema(description = "Compression the documents are rewritten with")
+    private final String compression;
+    @Schema(description = "Whether the migration is still running")
+    private final boolean running;
+    private final String startedAt;
+    private final String finishedAt;
+    @Schema(description = "Number of the projects, whose keys have been moved")
+    private final long projects;
+    @Schema(description = "Number of the migrated hashes")
+    private final long hashes;
+    @Schema(description = "Number of the rewritten documents")
+    private final long rewritten;
+    @Schema(description = "Number of the jobs and pipelines moved from the project hashes to their own keys")
+    private final long split;
+    @Schema(description = "Number of the documents changed by another request while they were being rewritten")
+    private final long changed;
+    @Schema(description = "Number of the documents, which cannot be read")
+    private final long failed;
+    @Schema(description = "Error the migration has been stopped with")
+    private final String error;
+}
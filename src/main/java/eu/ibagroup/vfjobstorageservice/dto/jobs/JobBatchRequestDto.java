@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.dto.jobs;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Job batch request DTO class.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Schema(description = "DTO with jobs to create, update and delete in one request")
+public class JobBatchRequestDto {
+    @Valid
+    @ArraySchema(arraySchema = @Schema(description = "Jobs to create"))
+    private List<JobDto> create = new ArrayList<>();
+    @Valid
+    @ArraySchema(arraySchema = @Schema(description = "Jobs to update, each one with its id"))
+    private List<JobDto> update = new ArrayList<>();
+    @ArraySchema(arraySchema = @Schema(description = "Ids of the jobs to delete"))
+    private List<String> delete = new ArrayList<>();
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.dto.jobs;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Job batch response DTO class.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+@Schema(description = "DTO with results of the job batch")
+public class JobBatchResponseDto {
+    @ArraySchema(arraySchema = @Schema(description = "Ids of the created jobs"))
+    private final List<String> created = new ArrayList<>();
+    @ArraySchema(arraySchema = @Schema(description = "Ids of the updated jobs"))
+    private final List<String> updated = new ArrayList<>();
+    @ArraySchema(arraySchema = @Schema(description = "Ids of the deleted jobs"))
+    private final List<String> deleted = new ArrayList<>();
+    @Schema(description = "Errors by names of the jobs to create and ids of the jobs to update or delete")
+    private final Map<String, String> errors = new LinkedHashMap<>();
+
+    public void addError(String job, String error) {
+        errors.put(job, error);
+    }
+}
@@ -19,6 +19,7 @@
 
 package eu.ibagroup.vfjobstorageservice.dto.jobs;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -36,5 +37,7 @@ import java.util.List;
 public class JobOverviewListDto {
     private final List<JobOverviewDto> jobs;
     private final boolean editable;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String nextCursor;
 }
 
@@ -19,6 +19,7 @@
 
 package eu.ibagroup.vfjobstorageservice.dto.pipelines;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
 import lombok.Data;
@@ -35,4 +36,7 @@ public class PipelineOverviewListDto {
     private final List<PipelineOverviewDto> pipelines;
     @Schema(description = "Whether pipelines can be updated by current user")
     private final boolean editable;
+    @Schema(description = "Cursor for the next page, absent when there are no more pipelines")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String nextCursor;
 }
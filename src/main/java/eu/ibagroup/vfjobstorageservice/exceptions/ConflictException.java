@@ -0,0 +1,14 @@
+package eu.ibagroup.vfjobstorageservice.exceptions;
+
+/**
+ * ConflictException class.
+ */
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Object... params) {
+        super(String.format(message, params));
+    }
+}
@@ -0,0 +1,14 @@
+package eu.ibagroup.vfjobstorageservice.exceptions;
+
+/**
+ * PreconditionFailedException class.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException(String message, Object... params) {
+        super(String.format(message, params));
+    }
+}
@@ -2,7 +2,9 @@ package eu.ibagroup.vfjobstorageservice.mappers;
 
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
 import eu.ibagroup.vfjobstorageservice.model.Job;
+import eu.ibagroup.vfjobstorageservice.model.JobOverview;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
@@ -11,4 +13,6 @@ public interface JobOverviewMapper {
     JobOverviewMapper INSTANCE = Mappers.getMapper(JobOverviewMapper.class);
     Job dtoToEntity(JobOverviewDto jobOverviewDto);
     JobOverviewDto entityToDto(Job job);
+    @Mapping(target = "tags", source = "params.tags")
+    JobOverview entityToOverview(Job job);
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Lightweight job projection, which is stored next to the job
+ * and used for listings instead of the full job definition.
+ * It is also the source of the job's runtime state, which is updated in place by a Lua script,
+ * so the run id is kept as a string and empty tags are omitted to survive Lua's JSON codec.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobOverview {
+    private String id;
+    private String name;
+    private String status;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private long runId;
+    private String startedAt;
+    private String finishedAt;
+    private String lastModified;
+    private boolean runnable;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> tags;
+}
@@ -18,10 +18,13 @@
  */
 package eu.ibagroup.vfjobstorageservice.services;
 
+import eu.ibagroup.vfjobstorageservice.exceptions.BadRequestException;
+import eu.ibagroup.vfjobstorageservice.exceptions.PreconditionFailedException;
 import lombok.experimental.UtilityClass;
 
 import java.util.Collection;
 
+
 /**
  * Common Utility class.
  */
@@ -30,6 +33,8 @@ public class CommonUtils {
 
     private static final String RAW_COPY_PATTERN = "%s-Copy";
     private static final String INDEXED_COPY_PATTERN = "%s-Copy%d";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+    private static final String ANY_ETAG = "*";
 
     /**
      * Method for generating a unique name for the new job's copy.
@@ -51,4 +56,54 @@ public class CommonUtils {
         }
         return resultName;
     }
+
+    /**
+     * Method for validating the requested page size.
+     *
+     * @param limit requested page size, {@code null} if all the entities are requested.
+     * @return page size.
+     */
+    public static int toPageSize(Integer limit) {
+        if (limit == null) {
+            return Integer.MAX_VALUE;
+        }
+        if (limit <= 0) {
+            throw new BadRequestException("Page size must be positive, but was %d", limit);
+        }
+        return limit;
+    }
+
+    /**
+     * Method for converting entity's version to ETag.
+     *
+     * @param version entity's version.
+     * @return ETag header value.
+     */
+    public static String toETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Method for reading the version from If-Match header.
+     *
+     * @param eTag single entity tag from If-Match header.
+     * @return expected version, {@code null} if any version is accepted.
+     */
+    public static Long fromETag(String eTag) {
+        if (eTag == null || ANY_ETAG.equals(eTag.trim())) {
+            return null;
+        }
+        String value = eTag.trim();
+        if (value.startsWith(WEAK_ETAG_PREFIX)) {
+            value = value.substring(WEAK_ETAG_PREFIX.length());
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Entity tag %s does not match the current version", eTag);
+        }
+    }
 }
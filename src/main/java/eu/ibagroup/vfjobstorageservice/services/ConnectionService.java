@@ -19,37 +19,56 @@
 
 package eu.ibagroup.vfjobstorageservice.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import eu.ibagroup.vfjobstorageservice.dto.connections.ConnectionDto;
 import eu.ibagroup.vfjobstorageservice.dto.connections.ConnectionOverviewDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.JsonParseException;
 import eu.ibagroup.vfjobstorageservice.model.Connection;
+import io.micrometer.observation.annotation.Observed;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_CONNECTION_PREFIX;
 
 @Slf4j
 @Service
+@Observed(name = StorageMetrics.SERVICE)
 public class ConnectionService {
 
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
+    private final StorageCodec storageCodec;
+    private final DocumentCache documentCache;
+    private final StorageKeys storageKeys;
+    private final StorageMetrics storageMetrics;
 
     public ConnectionService(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
-                             ObjectMapper objectMapper) {
+                             ObjectMapper objectMapper, StorageCodec storageCodec, DocumentCache documentCache,
+                             StorageKeys storageKeys, StorageMetrics storageMetrics) {
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
+        this.storageCodec = storageCodec;
+        this.documentCache = documentCache;
+        this.storageKeys = storageKeys;
+        this.storageMetrics = storageMetrics;
     }
 
     public String create(String projectId, ConnectionDto connectionDto) throws JsonProcessingException {
-        String folderKey = PROJECT_CONNECTION_PREFIX + projectId;
+        storageKeys.moveProject(projectId);
+        String folderKey = storageKeys.getConnectionsKey(projectId);
         String connectionKey = connectionDto.getKey();
         if (connectionKey == null) {
             connectionKey = java.util.UUID.randomUUID().toString();
@@ -58,8 +77,11 @@ public class ConnectionService {
                 .key(connectionKey)
                 .value(connectionDto.getValue())
                 .build();
-        String connectionJson = objectMapper.writeValueAsString(connection);
-        redisTemplate.opsForHash().put(folderKey, connectionKey, connectionJson);
+        String connectionJson = storageCodec.write(connection);
+        String field = connectionKey;
+        storageMetrics.recordRedis(StorageMetrics.CONNECTION, "save", projectId, connectionJson,
+                () -> redisTemplate.opsForHash().put(folderKey, field, connectionJson));
+        invalidate(projectId, connectionKey);
         return connectionKey;
 
     }
@@ -71,9 +93,13 @@ public class ConnectionService {
 
 
     public ConnectionOverviewDto getAll(String projectId) {
+        storageKeys.moveProject(projectId);
         List<Connection> connections = new ArrayList<>();
-        String folderKey = PROJECT_CONNECTION_PREFIX + projectId;
-        redisTemplate.opsForHash().entries(folderKey).forEach((Object key, Object value) -> {
+        String folderKey = storageKeys.getConnectionsKey(projectId);
+        Map<Object, Object> entries = storageMetrics.recordRedis(StorageMetrics.CONNECTION, "getAll", projectId,
+                () -> redisTemplate.opsForHash().entries(folderKey));
+        storageMetrics.recordEntries(StorageMetrics.CONNECTION, "getAll", entries.size());
+        entries.forEach((Object key, Object value) -> {
             try {
                 connections.add(jsonToConnection((String) value));
             } catch (JsonProcessingException e) {
@@ -92,10 +118,52 @@ public class ConnectionService {
                 .build();
     }
 
+    /**
+     * Writes all connections of the project into the stream in the same format as {@link #getAll(String)},
+     * without reading all of them into memory first. Like the job listing, it fails on a connection,
+     * which cannot be read, instead of leaving it out.
+     *
+     * @param projectId    project ID.
+     * @param outputStream response stream.
+     * @throws IOException if the response cannot be written.
+     */
+    public void streamAll(String projectId, OutputStream outputStream) throws IOException {
+        storageKeys.moveProject(projectId);
+        String folderKey = storageKeys.getConnectionsKey(projectId);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeBooleanField("editable", true);
+            generator.writeArrayFieldStart("connections");
+            int entries = HashScanner.writeValues(redisTemplate, folderKey, generator, writer,
+                    this::toConnectionDto);
+            storageMetrics.recordEntries(StorageMetrics.CONNECTION, "streamAll", entries);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private ConnectionDto toConnectionDto(String json) {
+        try {
+            Connection connection = jsonToConnection(json);
+            return ConnectionDto.builder()
+                    .key(connection.getKey())
+                    .value(connection.getValue())
+                    .build();
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Error while executing streamAll method: " + e.getMessage());
+            throw new JsonParseException(e.getMessage());
+        }
+    }
+
     @SneakyThrows
     public ConnectionDto get(String projectId, String connectionId) {
-        String connectionKey = PROJECT_CONNECTION_PREFIX + projectId;
-        Connection connection = jsonToConnection((String) redisTemplate.opsForHash().get(connectionKey, connectionId));
+        storageKeys.moveProject(projectId);
+        String connectionKey = storageKeys.getConnectionsKey(projectId);
+        Connection connection = documentCache.read(getCacheKey(projectId, connectionId),
+                () -> storageMetrics.recordRedis(StorageMetrics.CONNECTION, "get", projectId,
+                        () -> (String) redisTemplate.opsForHash().get(connectionKey, connectionId)),
+                Connection.class);
         return ConnectionDto.builder()
                 .key(connection.getKey())
                 .value(connection.getValue())
@@ -103,18 +171,41 @@ public class ConnectionService {
     }
 
     public void delete(String projectId, String connectionId) {
-        String folderKey = PROJECT_CONNECTION_PREFIX + projectId;
-        redisTemplate.opsForHash().delete(folderKey, connectionId);
+        storageKeys.moveProject(projectId);
+        String folderKey = storageKeys.getConnectionsKey(projectId);
+        storageMetrics.recordRedis(StorageMetrics.CONNECTION, "delete", projectId,
+                () -> redisTemplate.opsForHash().delete(folderKey, connectionId));
+        invalidate(projectId, connectionId);
     }
 
     public void deleteAll(String projectId) {
-        String folderKey = PROJECT_CONNECTION_PREFIX + projectId;
+        storageKeys.moveProject(projectId);
+        String folderKey = storageKeys.getConnectionsKey(projectId);
         redisTemplate.opsForHash().entries(folderKey).keySet()
-                .forEach(key -> redisTemplate.opsForHash().delete(folderKey, key));
+                .forEach((Object key) -> {
+                    redisTemplate.opsForHash().delete(folderKey, key);
+                    invalidate(projectId, (String) key);
+                });
+    }
+
+    private static String getCacheKey(String projectId, String connectionId) {
+        return PROJECT_CONNECTION_PREFIX + projectId + ":" + connectionId;
+    }
+
+    /**
+     * Drops the cached connection on this replica and notifies the others.
+     * Unlike jobs and pipelines, connections are written without Lua scripts, so the message is sent from here.
+     */
+    private void invalidate(String projectId, String connectionId) {
+        if (documentCache.isEnabled()) {
+            String cacheKey = getCacheKey(projectId, connectionId);
+            documentCache.invalidate(cacheKey);
+            redisTemplate.convertAndSend(DocumentCache.INVALIDATION_CHANNEL, cacheKey);
+        }
     }
 
     private Connection jsonToConnection(String jobJson) throws JsonProcessingException {
-        return objectMapper.readValue(jobJson, Connection.class);
+        return storageCodec.read(jobJson, Connection.class);
     }
 
 }
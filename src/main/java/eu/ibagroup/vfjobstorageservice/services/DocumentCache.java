@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of the job, pipeline and connection documents, keyed by their hash fields.
+ * Documents are kept deserialized together with the version they were stored with, so a cached document
+ * costs no Redis call and is never served with another version. Cached documents are shared by all the callers,
+ * which must not modify them. Entries are dropped on local writes and on the messages,
+ * which the saving and deleting Lua scripts publish to {@link #INVALIDATION_CHANNEL}, so every replica
+ * sees the changes of the others. The TTL bounds staleness if a message is lost.
+ * With {@link DocumentTracking} Redis itself also reports the changed hashes, including the ones made by other clients.
+ */
+public class DocumentCache {
+    public static final String INVALIDATION_CHANNEL = "job-storage:invalidations";
+    private final StorageCodec storageCodec;
+    private final Cache<String, Versioned<?>> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Creates the disabled cache, which reads every document from Redis.
+     *
+     * @param storageCodec storage codec.
+     */
+    public DocumentCache(StorageCodec storageCodec) {
+        this.storageCodec = storageCodec;
+        this.cache = null;
+    }
+
+    /**
+     * Creates the cache.
+     *
+     * @param storageCodec storage codec.
+     * @param maxSize      maximal number of cached documents.
+     * @param ttl          time a document is cached for after it was read from Redis.
+     */
+    public DocumentCache(StorageCodec storageCodec, long maxSize, Duration ttl) {
+        this.storageCodec = storageCodec;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Reads the document, which has no version, from the cache or, if it is missing, from Redis.
+     *
+     * @param key       document hash field.
+     * @param loader    reads the stored value from Redis.
+     * @param valueType document class.
+     * @param <T>       document type.
+     * @return shared document.
+     * @throws JsonProcessingException if the document cannot be deserialized.
+     */
+    public <T> T read(String key, Supplier<String> loader, Class<T> valueType) throws JsonProcessingException {
+        return readVersioned(key, () -> new Versioned<>(loader.get(), 0L), valueType).document();
+    }
+
+    /**
+     * Reads the document with its version from the cache or, if it is missing, from Redis.
+     * A document read from Redis is cached only if nothing has been invalidated while it was being read,
+     * so a concurrent change is never overwritten with the outdated copy.
+     *
+     * @param key       document hash field.
+     * @param loader    reads the stored value and its version from Redis as one snapshot.
+     * @param valueType document class.
+     * @param <T>       document type.
+     * @return shared document with its version.
+     * @throws JsonProcessingException if the document cannot be deserialized.
+     */
+    public <T> Versioned<T> readVersioned(String key, Supplier<Versioned<String>> loader, Class<T> valueType)
+            throws JsonProcessingException {
+        Versioned<?> cached = cache != null ? cache.getIfPresent(key) : null;
+        if (cached != null && valueType.isInstance(cached.document())) {
+            return new Versioned<>(valueType.cast(cached.document()), cached.version());
+        }
+        long generation = invalidations.get();
+        Versioned<String> stored = loader.get();
+        Versioned<T> result = new Versioned<>(storageCodec.read(stored.document(), valueType), stored.version());
+        if (cache != null && invalidations.get() == generation) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the cached document.
+     *
+     * @param key document hash field.
+     */
+    public void invalidate(String key) {
+        invalidations.incrementAndGet();
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops all the cached documents.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Drops all the cached documents of the hash.
+     *
+     * @param hashKey key of the hash with the documents.
+     */
+    public void invalidateHash(String hashKey) {
+        invalidations.incrementAndGet();
+        if (cache != null) {
+            String prefix = hashKey.endsWith(":") ? hashKey : hashKey + ":";
+            cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Drops the cached documents changed by any replica. The whole cache is dropped once the channel is
+ * (re)subscribed, since the messages published while the subscription was down are lost.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DocumentInvalidationListener implements MessageListener, SubscriptionListener {
+    private final DocumentCache documentCache;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        documentCache.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        LOGGER.info("Subscribed to '{}', dropping all the cached documents",
+                new String(channel, StandardCharsets.UTF_8));
+        documentCache.invalidateAll();
+    }
+}
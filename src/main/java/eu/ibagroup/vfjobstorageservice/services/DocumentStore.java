@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reading of jobs and pipelines stored either as fields of the project hashes or under their own keys
+ * in the key document layout of {@link StorageKeys}. Until all the documents are moved to their own keys,
+ * the remaining ones are read from the hashes. Methods take {@code null} document keys in the hash layout.
+ * <p>
+ * The hash and the document keys are not read as one snapshot. A document moved to its own key by
+ * {@code split-document.lua} is never lost, since it is moved atomically and only from the hash to the key:
+ * single documents missing in both places are looked up under their keys again. Listings read the hash first,
+ * so a document moved in the meantime is found under its key. The documents read from the hash are remembered
+ * by their fields, which are the document keys in the plain layout, and skipped under their keys, so a listing
+ * returns every document once. A {@link #scan} cursor carries no fields, so each page is checked on its own.
+ */
+@UtilityClass
+public class DocumentStore {
+
+    private static final String SET_CURSOR_PREFIX = "s";
+    private static final int MIN_SCAN_COUNT = 10;
+    private static final int MAX_SCAN_COUNT = 1000;
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Reads a single document.
+     *
+     * @param redisTemplate redis template.
+     * @param hashKey       project hash.
+     * @param field         document's hash field.
+     * @param documentKey   document's key, {@code null} in the hash layout.
+     * @return document, {@code null} if it doesn't exist.
+     */
+    public static String get(RedisTemplate<String, String> redisTemplate, String hashKey, String field,
+                             String documentKey) {
+        if (documentKey != null) {
+            String value = redisTemplate.opsForValue().get(documentKey);
+            if (value != null) {
+                return value;
+            }
+        }
+        String value = (String) redisTemplate.opsForHash().get(hashKey, field);
+        if (value == null && documentKey != null) {
+            return redisTemplate.opsForValue().get(documentKey);
+        }
+        return value;
+    }
+
+    /**
+     * Reads several documents at once.
+     *
+     * @param redisTemplate redis template.
+     * @param hashKey       project hash.
+     * @param fields        documents' hash fields.
+     * @param documentKeys  documents' keys in the same order as the fields, {@code null} in the hash layout.
+     * @return documents in the order of the fields, {@code null} for the missing ones.
+     */
+    public static List<Object> multiGet(RedisTemplate<String, String> redisTemplate, String hashKey,
+                                        List<Object> fields, List<String> documentKeys) {
+        if (documentKeys == null) {
+            return redisTemplate.opsForHash().multiGet(hashKey, fields);
+        }
+        List<Object> values = new ArrayList<>(Objects.requireNonNullElse(
+                redisTemplate.opsForValue().multiGet(documentKeys), List.of()));
+        List<Integer> missing = new ArrayList<>();
+        List<Object> missingFields = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i >= values.size()) {
+                values.add(null);
+            }
+            if (values.get(i) == null) {
+                missing.add(i);
+                missingFields.add(fields.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<Object> hashValues = redisTemplate.opsForHash().multiGet(hashKey, missingFields);
+            List<String> movedKeys = new ArrayList<>();
+            List<Integer> moved = new ArrayList<>();
+            for (int i = 0; i < missing.size(); i++) {
+                values.set(missing.get(i), hashValues.get(i));
+                if (hashValues.get(i) == null) {
+                    moved.add(missing.get(i));
+                    movedKeys.add(documentKeys.get(missing.get(i)));
+                }
+            }
+            if (!moved.isEmpty()) {
+                List<String> movedValues = Objects.requireNonNullElse(
+                        redisTemplate.opsForValue().multiGet(movedKeys), List.of());
+                for (int i = 0; i < movedValues.size(); i++) {
+                    values.set(moved.get(i), movedValues.get(i));
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads all the documents of the project.
+     *
+     * @param redisTemplate redis template.
+     * @param hashKey       project hash.
+     * @param idsKey        set of the IDs of the documents stored under their own keys,
+     *                      {@code null} in the hash layout.
+     * @param documentKeys  builds document's key by its ID.
+     * @return documents.
+     */
+    public static List<String> values(RedisTemplate<String, String> redisTemplate, String hashKey, String idsKey,
+                                      UnaryOperator<String> documentKeys) {
+        List<String> values = new ArrayList<>();
+        if (idsKey == null) {
+            redisTemplate.opsForHash().values(hashKey).forEach(value -> values.add((String) value));
+        } else {
+            Set<String> fields = new HashSet<>();
+            redisTemplate.opsForHash().entries(hashKey).forEach((field, value) -> {
+                fields.add((String) field);
+                values.add((String) value);
+            });
+            Set<String> ids = Objects.requireNonNullElse(redisTemplate.opsForSet().members(idsKey), Set.of());
+            List<String> keys = toKeys(ids, documentKeys, fields);
+            for (int from = 0; from < keys.size(); from += BATCH_SIZE) {
+                readKeys(redisTemplate, keys.subList(from, Math.min(keys.size(), from + BATCH_SIZE)), values::add);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes all the documents of the project into the generator without reading all of them into memory first.
+     *
+     * @param redisTemplate redis template.
+     * @param hashKey       project hash.
+     * @param idsKey        set of the IDs of the documents stored under their own keys,
+     *                      {@code null} in the hash layout.
+     * @param documentKeys  builds document's key by its ID.
+     * @param generator     JSON generator positioned inside an array.
+     * @param writer        object writer for the entities.
+     * @param reader        converts raw document into an entity, {@code null} values are skipped.
+     * @return number of the read documents.
+     * @throws IOException if the entity cannot be written.
+     */
+    public static <T> int writeValues(RedisTemplate<String, String> redisTemplate, String hashKey, String idsKey,
+                                      UnaryOperator<String> documentKeys, JsonGenerator generator,
+                                      ObjectWriter writer, Function<String, T> reader) throws IOException {
+        if (idsKey == null) {
+            return HashScanner.writeValues(redisTemplate, hashKey, generator, writer, reader);
+        }
+        Set<String> fields = new HashSet<>();
+        int count = HashScanner.writeValues(redisTemplate, hashKey, generator, writer, reader, fields::add);
+        String cursor = HashScanner.INITIAL_CURSOR;
+        do {
+            List<?> reply = redisTemplate.execute(RedisScripts.SCAN_SET, List.of(idsKey), cursor,
+                    String.valueOf(BATCH_SIZE));
+            cursor = reply.get(0).toString();
+            List<String> values = new ArrayList<>();
+            readKeys(redisTemplate, toKeys((List<?>) reply.get(1), documentKeys, fields), values::add);
+            count += values.size();
+            for (String value : values) {
+                T item = reader.apply(value);
+                if (item != null) {
+                    writer.writeValue(generator, item);
+                }
+            }
+        } while (!HashScanner.INITIAL_CURSOR.equals(cursor));
+        return count;
+    }
+
+    /**
+     * Reads one page of the project's documents. The documents left in the hash are read first,
+     * then the ones stored under their own keys, so the cursor tells which of them is being read.
+     *
+     * @param redisTemplate redis template.
+     * @param hashKey       project hash.
+     * @param idsKey        set of the IDs of the documents stored under their own keys,
+     *                      {@code null} in the hash layout.
+     * @param documentKeys  builds document's key by its ID.
+     * @param cursor        cursor returned with the previous page or {@link HashScanner#INITIAL_CURSOR}.
+     * @param limit         desired number of documents on the page.
+     * @param reader        converts raw document into an entity.
+     * @param filter        entities, which should be put on the page.
+     * @return page of entities.
+     */
+    public static <T> HashScanner.Page<T> scan(RedisTemplate<String, String> redisTemplate, String hashKey,
+                                               String idsKey, UnaryOperator<String> documentKeys, String cursor,
+                                               int limit, Function<String, T> reader, Predicate<T> filter) {
+        if (idsKey == null) {
+            return HashScanner.scan(redisTemplate, hashKey, cursor, limit, reader, filter);
+        }
+        List<T> items = new ArrayList<>();
+        Set<String> fields = new HashSet<>();
+        String current = HashScanner.INITIAL_CURSOR;
+        if (cursor.startsWith(SET_CURSOR_PREFIX)) {
+            current = cursor.substring(SET_CURSOR_PREFIX.length());
+            HashScanner.checkCursor(current);
+        } else {
+            HashScanner.Page<T> page = HashScanner.scan(redisTemplate, hashKey, cursor, limit, reader, filter,
+                    fields::add);
+            if (page.getNextCursor() != null) {
+                return page;
+            }
+            items.addAll(page.getItems());
+            if (items.size() >= limit) {
+                return new HashScanner.Page<>(items, SET_CURSOR_PREFIX + HashScanner.INITIAL_CURSOR);
+            }
+        }
+        String count = String.valueOf(Math.min(Math.max(limit, MIN_SCAN_COUNT), MAX_SCAN_COUNT));
+        do {
+            List<?> reply = redisTemplate.execute(RedisScripts.SCAN_SET, List.of(idsKey), current, count);
+            current = reply.get(0).toString();
+            readKeys(redisTemplate, toKeys((List<?>) reply.get(1), documentKeys, fields), (String value) -> {
+                T item = reader.apply(value);
+                if (filter.test(item)) {
+                    items.add(item);
+                }
+            });
+        } while (!HashScanner.INITIAL_CURSOR.equals(current) && items.size() < limit);
+        return new HashScanner.Page<>(items,
+                HashScanner.INITIAL_CURSOR.equals(current) ? null : SET_CURSOR_PREFIX + current);
+    }
+
+    /**
+     * Builds the keys of the documents, which have not been read yet, and remembers them as read.
+     *
+     * @param ids          document IDs.
+     * @param documentKeys builds document's key by its ID.
+     * @param fields       hash fields of the read documents.
+     * @return keys of the documents to read.
+     */
+    private static List<String> toKeys(Collection<?> ids, UnaryOperator<String> documentKeys, Set<String> fields) {
+        return ids.stream()
+                .map(id -> documentKeys.apply(id.toString()))
+                .filter(key -> fields.add(StorageKeys.toPlainKey(key)))
+                .toList();
+    }
+
+    private static void readKeys(RedisTemplate<String, String> redisTemplate, List<String> keys,
+                                 Consumer<String> consumer) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values != null) {
+            values.stream().filter(Objects::nonNull).forEach(consumer);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.net.SocketAddress;
+import java.util.List;
+
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_CONNECTION_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_KEY_PREFIX;
+
+/**
+ * Keeps the {@link DocumentCache} in sync with Redis via RESP3 client-side caching.
+ * A dedicated connection enables broadcasting tracking for the document hashes, so Redis pushes the keys
+ * of the changed hashes, no matter which client has changed them, and all the cached documents of such
+ * hash are dropped. A job or pipeline stored under its own key is dropped alone. The whole cache is dropped
+ * whenever the connection is re-established, since the tracking state is lost with it.
+ * Tracking is available with Redis 6+ and a standalone or master/replica setup only. Otherwise, the cache
+ * keeps relying on the messages of the {@link DocumentCache#INVALIDATION_CHANNEL} channel.
+ */
+@Slf4j
+public class DocumentTracking implements SmartLifecycle, PushListener, RedisConnectionStateListener {
+    private static final String INVALIDATE = "invalidate";
+    private final LettuceConnectionFactory connectionFactory;
+    private final DocumentCache documentCache;
+    private final boolean enabled;
+    private volatile StatefulRedisConnection<String, String> connection;
+
+    /**
+     * Creates the tracking of the document hashes.
+     *
+     * @param connectionFactory connection factory to open the tracking connection with.
+     * @param documentCache     cache of the documents.
+     * @param enabled           whether the tracking is started with the application.
+     */
+    public DocumentTracking(LettuceConnectionFactory connectionFactory, DocumentCache documentCache,
+                            boolean enabled) {
+        this.connectionFactory = connectionFactory;
+        this.documentCache = documentCache;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public void start() {
+        if (!(connectionFactory.getRequiredNativeClient() instanceof RedisClient redisClient)) {
+            LOGGER.warn("Client-side caching is not supported by the Redis setup, falling back to the messages");
+            return;
+        }
+        StatefulRedisConnection<String, String> trackingConnection = redisClient.connect();
+        try {
+            trackingConnection.addListener((PushListener) this);
+            trackingConnection.sync().clientTracking(getTrackingArgs());
+        } catch (RedisException e) {
+            trackingConnection.close();
+            LOGGER.warn("Client-side caching cannot be enabled, falling back to the messages: {}", e.getMessage());
+            return;
+        }
+        trackingConnection.addListener((RedisConnectionStateListener) this);
+        connection = trackingConnection;
+        documentCache.invalidateAll();
+        LOGGER.info("Client-side caching of the documents is enabled");
+    }
+
+    @Override
+    public void stop() {
+        StatefulRedisConnection<String, String> trackingConnection = connection;
+        connection = null;
+        if (trackingConnection != null) {
+            trackingConnection.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return connection != null;
+    }
+
+    @Override
+    public void onPushMessage(PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        if (content.size() < 2 || content.get(1) == null) {
+            // Redis sends null keys once the database is flushed
+            documentCache.invalidateAll();
+            return;
+        }
+        for (Object key : (List<?>) content.get(1)) {
+            String hashKey = (String) key;
+            if (StorageKeys.isDocumentHash(hashKey)) {
+                documentCache.invalidateHash(StorageKeys.toPlainKey(hashKey));
+            } else if (StorageKeys.isDocumentKey(hashKey)) {
+                documentCache.invalidate(StorageKeys.toPlainKey(hashKey));
+            }
+        }
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+        StatefulRedisConnection<String, String> trackingConnection = connection;
+        if (trackingConnection == null) {
+            return;
+        }
+        LOGGER.info("Tracking connection is re-established, dropping all the cached documents");
+        documentCache.invalidateAll();
+        trackingConnection.async().clientTracking(getTrackingArgs())
+                .thenRun(documentCache::invalidateAll)
+                .exceptionally((Throwable e) -> {
+                    LOGGER.error("Client-side caching cannot be re-enabled: {}", e.getMessage());
+                    return null;
+                });
+    }
+
+    private static TrackingArgs getTrackingArgs() {
+        return TrackingArgs.Builder.enabled().bcast().prefixes(PROJECT_KEY_PREFIX, PROJECT_CONNECTION_PREFIX);
+    }
+}
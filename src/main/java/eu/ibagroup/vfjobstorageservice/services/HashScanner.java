@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import eu.ibagroup.vfjobstorageservice.exceptions.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Cursor based reading of Redis hashes.
+ */
+@UtilityClass
+public class HashScanner {
+
+    public static final String INITIAL_CURSOR = "0";
+    private static final int MIN_SCAN_COUNT = 10;
+    private static final int MAX_SCAN_COUNT = 1000;
+    private static final int STREAM_SCAN_COUNT = 100;
+    private static final Pattern CURSOR_PATTERN = Pattern.compile("\\d{1,20}");
+
+    /**
+     * Reads hash values with HSCAN starting from the cursor, until the limit of matching values
+     * is reached or the whole hash has been read. HSCAN batches are never split, so the page may
+     * contain slightly more values than the limit.
+     *
+     * @param redisTemplate redis template.
+     * @param key           hash key.
+     * @param cursor        cursor returned with the previous page or {@link #INITIAL_CURSOR}.
+     * @param limit         desired number of values on the page.
+     * @param reader        converts raw hash value into an entity.
+     * @param filter        entities, which should be put on the page.
+     * @return page of entities.
+     */
+    public static <T> Page<T> scan(RedisTemplate<String, String> redisTemplate, String key, String cursor,
+                                   int limit, Function<String, T> reader, Predicate<T> filter) {
+        return scan(redisTemplate, key, cursor, limit, reader, filter, field -> {
+        });
+    }
+
+    /**
+     * Reads hash values like {@link #scan(RedisTemplate, String, String, int, Function, Predicate)}
+     * and passes the fields of all the read values to the consumer.
+     *
+     * @param redisTemplate redis template.
+     * @param key           hash key.
+     * @param cursor        cursor returned with the previous page or {@link #INITIAL_CURSOR}.
+     * @param limit         desired number of values on the page.
+     * @param reader        converts raw hash value into an entity.
+     * @param filter        entities, which should be put on the page.
+     * @param fields        consumer of the read fields.
+     * @return page of entities.
+     */
+    static <T> Page<T> scan(RedisTemplate<String, String> redisTemplate, String key, String cursor, int limit,
+                            Function<String, T> reader, Predicate<T> filter, Consumer<String> fields) {
+        checkCursor(cursor);
+        List<T> items = new ArrayList<>();
+        String count = String.valueOf(Math.min(Math.max(limit, MIN_SCAN_COUNT), MAX_SCAN_COUNT));
+        String current = cursor;
+        do {
+            List<?> reply = redisTemplate.execute(RedisScripts.SCAN_HASH, List.of(key), current, count);
+            current = reply.get(0).toString();
+            List<?> entries = (List<?>) reply.get(1);
+            for (int i = 1; i < entries.size(); i += 2) {
+                fields.accept(entries.get(i - 1).toString());
+                T item = reader.apply(entries.get(i).toString());
+                if (filter.test(item)) {
+                    items.add(item);
+                }
+            }
+        } while (!INITIAL_CURSOR.equals(current) && items.size() < limit);
+        return new Page<>(items, INITIAL_CURSOR.equals(current) ? null : current);
+    }
+
+    /**
+     * Checks that the cursor is an unsigned 64-bit number, as the cursors returned by HSCAN and SSCAN are,
+     * so a malformed cursor of a request is rejected before Redis fails on it.
+     *
+     * @param cursor cursor of the request.
+     */
+    static void checkCursor(String cursor) {
+        if (!CURSOR_PATTERN.matcher(cursor).matches() || new BigInteger(cursor).bitLength() > Long.SIZE) {
+            throw new BadRequestException("Cursor '%s' is not valid", cursor);
+        }
+    }
+
+    /**
+     * Walks the whole hash with HSCAN and writes every value into the generator as soon as it is read,
+     * so only one value is kept in memory at a time.
+     *
+     * @param redisTemplate redis template.
+     * @param key           hash key.
+     * @param generator     JSON generator positioned inside an array.
+     * @param writer        object writer for the entities.
+     * @param reader        converts raw hash value into an entity, {@code null} values are skipped.
+     * @return number of the read values.
+     * @throws IOException if the entity cannot be written.
+     */
+    public static <T> int writeValues(RedisTemplate<String, String> redisTemplate, String key,
+                                      JsonGenerator generator, ObjectWriter writer,
+                                      Function<String, T> reader) throws IOException {
+        return writeValues(redisTemplate, key, generator, writer, reader, field -> {
+        });
+    }
+
+    /**
+     * Writes all the hash values like {@link #writeValues(RedisTemplate, String, JsonGenerator, ObjectWriter,
+     * Function)} and passes the fields of all the read values to the consumer.
+     *
+     * @param redisTemplate redis template.
+     * @param key           hash key.
+     * @param generator     JSON generator positioned inside an array.
+     * @param writer        object writer for the entities.
+     * @param reader        converts raw hash value into an entity, {@code null} values are skipped.
+     * @param fields        consumer of the read fields.
+     * @return number of the read values.
+     * @throws IOException if the entity cannot be written.
+     */
+    static <T> int writeValues(RedisTemplate<String, String> redisTemplate, String key, JsonGenerator generator,
+                               ObjectWriter writer, Function<String, T> reader, Consumer<String> fields)
+            throws IOException {
+        ScanOptions options = ScanOptions.scanOptions().count(STREAM_SCAN_COUNT).build();
+        int count = 0;
+        try (Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash().scan(key, options)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                fields.accept(entry.getKey().toString());
+                T value = reader.apply(entry.getValue().toString());
+                count++;
+                if (value != null) {
+                    writer.writeValue(generator, value);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Values read from a hash and the cursor to continue reading from.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Page<T> {
+        private final List<T> items;
+        private final String nextCursor;
+    }
+}
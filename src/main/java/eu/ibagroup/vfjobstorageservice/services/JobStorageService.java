@@ -18,32 +18,58 @@
  */
 package eu.ibagroup.vfjobstorageservice.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import eu.ibagroup.vfjobstorageservice.dto.OverviewFilterDto;
 import eu.ibagroup.vfjobstorageservice.dto.exporting.Exportable;
 import eu.ibagroup.vfjobstorageservice.dto.importing.ImportResponseDto;
 import eu.ibagroup.vfjobstorageservice.dto.importing.Importable;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobBatchRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobBatchResponseDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewListDto;
 import eu.ibagroup.vfjobstorageservice.exceptions.BadRequestException;
+import eu.ibagroup.vfjobstorageservice.exceptions.ConflictException;
 import eu.ibagroup.vfjobstorageservice.exceptions.JsonParseException;
+import eu.ibagroup.vfjobstorageservice.exceptions.PreconditionFailedException;
 import eu.ibagroup.vfjobstorageservice.mappers.JobDtoMapper;
 import eu.ibagroup.vfjobstorageservice.mappers.JobOverviewMapper;
 import eu.ibagroup.vfjobstorageservice.model.Job;
+import eu.ibagroup.vfjobstorageservice.model.JobOverview;
+import io.micrometer.observation.annotation.Observed;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static eu.ibagroup.vfjobstorageservice.dto.Constants.*;
@@ -51,215 +77,841 @@ import static eu.ibagroup.vfjobstorageservice.dto.Constants.*;
 
 @Slf4j
 @Service
+@Observed(name = StorageMetrics.SERVICE)
 public class JobStorageService implements Exportable<JobDto>, Importable<JobDto> {
 
+    private static final int MAX_CHECKED_PROJECTS = 10_000;
+
+    private static final int JOB_KEYS_SCAN_COUNT = 1000;
+
+    private static final Pattern PATTERN_SPECIAL_CHARS = Pattern.compile("[*?\\\\\\[\\]^]");
+
     private final RedisTemplate<String, String> redisTemplate;
 
+    private final RedisTemplate<String, String> replicaRedisTemplate;
+
     private final ObjectMapper objectMapper;
 
+    private final StorageCodec storageCodec;
+
+    private final DocumentCache documentCache;
+
+    private final StorageKeys storageKeys;
+
+    private final StorageMetrics storageMetrics;
+
+    private final Set<String> projectsWithoutJobKeys = Collections.newSetFromMap(Caffeine.newBuilder()
+            .maximumSize(MAX_CHECKED_PROJECTS)
+            .<String, Boolean>build()
+            .asMap());
+
     public JobStorageService(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
-                             ObjectMapper objectMapper) {
+                             @Qualifier("replicaRedisTemplate") RedisTemplate<String, String> replicaRedisTemplate,
+                             ObjectMapper objectMapper, StorageCodec storageCodec, DocumentCache documentCache,
+                             StorageKeys storageKeys, StorageMetrics storageMetrics) {
         this.redisTemplate = redisTemplate;
+        this.replicaRedisTemplate = replicaRedisTemplate;
         this.objectMapper = objectMapper;
+        this.storageCodec = storageCodec;
+        this.documentCache = documentCache;
+        this.storageKeys = storageKeys;
+        this.storageMetrics = storageMetrics;
     }
 
     public String create(String projectId, JobDto jobDto) throws JsonProcessingException {
-        String folderKey = PROJECT_KEY_PREFIX + projectId;
-        redisTemplate.opsForHash().entries(folderKey).forEach((Object key, Object value) -> {
-            try {
-                if (jsonToJob((String) value).getName().equals(jobDto.getName())) {
-                    throw new BadRequestException(String.format("Job with name '%s' already exist in project '%s'",
-                            jobDto.getName(), projectId));
-                }
-            } catch (JsonProcessingException e) {
-                LOGGER.error(GET_ALL_ERROR + e.getMessage());
-                throw new JsonParseException(e.getMessage());
-            }
-        });
+        storageKeys.moveProject(projectId);
         Job job = JobDtoMapper.INSTANCE.dtoToEntity(jobDto);
         job.setRunnable(!job.getDefinition().get("graph").isEmpty());
-        String jobId = job.getId();
-        String jobKey = folderKey + JOB_KEY_PREFIX + jobId;
-        String jobJson = objectMapper.writeValueAsString(job);
-        redisTemplate.opsForHash().put(folderKey, jobKey, jobJson);
+        save(projectId, job, null, false, null);
         return job.getId();
 
     }
 
     public JobOverviewListDto getAll(String projectId) {
-        List<JobOverviewDto> jobs = new ArrayList<>();
-        String folderKey = PROJECT_KEY_PREFIX + projectId;
-        redisTemplate.opsForHash().entries(folderKey).forEach((Object key, Object value) -> {
-            try {
-                jobs.add(JobOverviewMapper.INSTANCE.entityToDto(jsonToJob((String) value)));
-            } catch (JsonProcessingException e) {
-                LOGGER.error(GET_ALL_ERROR + e.getMessage());
-                throw new JsonParseException(e.getMessage());
-            }
-        });
-        List<JobOverviewDto> result = new ArrayList<>();
-        jobs.forEach((JobOverviewDto job) -> {
-            String status = job.getStatus();
-            if (job.getStatus() == null) {
-                status = DRAFT_STATUS;
+        storageKeys.moveProject(projectId);
+        return getAll(projectId, replicaRedisTemplate);
+    }
+
+    private JobOverviewListDto getAll(String projectId, RedisTemplate<String, String> template) {
+        List<Object> values = storageMetrics.recordRedis(StorageMetrics.JOB, "getAll", projectId,
+                () -> template.opsForHash().values(getOverviewKey(projectId)));
+        storageMetrics.recordEntries(StorageMetrics.JOB, "getAll", values.size());
+        Collection<JobOverview> overviews;
+        if (values.isEmpty() && isIndexMissing(projectId)) {
+            overviews = rebuildIndexes(projectId).values();
+        } else {
+            overviews = new ArrayList<>(values.size());
+            for (Object value : values) {
+                overviews.add(jsonToOverview((String) value));
             }
-            result.add(JobOverviewDto.builder()
-                    .id(job.getId())
-                    .name(job.getName())
-                    .runId(job.getRunId())
-                    .startedAt(job.getStartedAt())
-                    .finishedAt(job.getFinishedAt())
-                    .status(status)
-                    .lastModified(job.getLastModified())
-                    .usage(job.getUsage())
-                    .pipelineInstances(new ArrayList<>())
-                    .pipelineId(null)
-                    .runnable(job.isRunnable())
-                    .tags(new ArrayList<>())
-                    .dependentPipelineIds(new HashSet<>())
-                    .build());
-        });
+        }
+        List<JobOverviewDto> result = new ArrayList<>(overviews.size());
+        overviews.forEach(overview -> result.add(toOverviewDto(overview)));
         return JobOverviewListDto.builder()
                 .jobs(result)
                 .editable(true)
                 .build();
     }
 
+    /**
+     * Writes all jobs of the project into the stream in the same format as {@link #getAll(String)},
+     * without reading all of them into memory first.
+     *
+     * @param projectId    project ID.
+     * @param outputStream response stream.
+     * @throws IOException if the response cannot be written.
+     */
+    public void streamAll(String projectId, OutputStream outputStream) throws IOException {
+        storageKeys.moveProject(projectId);
+        if (isIndexMissing(projectId)) {
+            rebuildIndexes(projectId);
+        }
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("jobs");
+            int entries = HashScanner.writeValues(replicaRedisTemplate, getOverviewKey(projectId), generator, writer,
+                    json -> toOverviewDto(jsonToOverview(json)));
+            storageMetrics.recordEntries(StorageMetrics.JOB, "streamAll", entries);
+            generator.writeEndArray();
+            generator.writeBooleanField("editable", true);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads one page of jobs from the project.
+     *
+     * @param projectId project ID.
+     * @param cursor    cursor returned with the previous page, {@code null} for the first page.
+     * @param limit     desired page size, {@code null} to read all the matching jobs.
+     * @param filter    job filters.
+     * @return page of jobs with the cursor for the next page.
+     */
+    public JobOverviewListDto getPage(String projectId, String cursor, Integer limit, OverviewFilterDto filter) {
+        storageKeys.moveProject(projectId);
+        String startCursor = Objects.requireNonNullElse(cursor, HashScanner.INITIAL_CURSOR);
+        int pageSize = CommonUtils.toPageSize(limit);
+        HashScanner.Page<JobOverview> page = HashScanner.scan(redisTemplate, getOverviewKey(projectId), startCursor,
+                pageSize, this::jsonToOverview, overview -> filter.matches(overview.getName(),
+                        Objects.requireNonNullElse(overview.getStatus(), DRAFT_STATUS),
+                        overview.getTags(), overview.getLastModified()));
+        storageMetrics.recordEntries(StorageMetrics.JOB, "getPage", page.getItems().size());
+        if (HashScanner.INITIAL_CURSOR.equals(startCursor) && page.getNextCursor() == null
+                && page.getItems().isEmpty() && isIndexMissing(projectId)) {
+            rebuildIndexes(projectId);
+            return getPage(projectId, cursor, limit, filter);
+        }
+        return JobOverviewListDto.builder()
+                .jobs(page.getItems().stream().map(JobStorageService::toOverviewDto).collect(Collectors.toList()))
+                .editable(true)
+                .nextCursor(page.getNextCursor())
+                .build();
+    }
+
     public JobDto get(String projectId, String jobId) throws JsonProcessingException {
-        String folderKey = PROJECT_KEY_PREFIX + projectId;
-        String jobKey = folderKey + JOB_KEY_PREFIX + jobId;
-        Job job = jsonToJob((String) redisTemplate.opsForHash().get(folderKey, jobKey));
+        return getVersioned(projectId, jobId).document();
+    }
+
+    /**
+     * Reads the job with its version, which is incremented on every change of the job. A cached job costs only
+     * the read of its runtime state, a job missing in the cache is read with its version and overview at once.
+     *
+     * @param projectId project ID.
+     * @param jobId     job ID.
+     * @return job with its version, 0 if the job hasn't been changed since the versions were introduced.
+     * @throws JsonProcessingException if the job cannot be read.
+     */
+    public Versioned<JobDto> getVersioned(String projectId, String jobId) throws JsonProcessingException {
+        storageKeys.moveProject(projectId);
+        String jobKey = StorageKeys.getJobField(projectId, jobId);
+        AtomicReference<String> loadedOverview = new AtomicReference<>();
+        Versioned<Job> cached = documentCache.readVersioned(jobKey, () -> {
+            List<?> result = storageMetrics.recordRedis(StorageMetrics.JOB, "get", projectId,
+                    () -> redisTemplate.execute(RedisScripts.GET_DOCUMENT, getReadKeys(projectId, jobId), jobKey,
+                            jobId));
+            loadedOverview.set((String) result.get(2));
+            Object version = result.get(1);
+            return new Versioned<>((String) result.get(0), version != null ? Long.parseLong(version.toString()) : 0L);
+        }, Job.class);
+        Optional<JobOverview> overview = loadedOverview.get() != null
+                ? Optional.of(jsonToOverview(loadedOverview.get())) : findOverview(projectId, jobId);
+        // the cached job is shared, so the runtime state is applied to a copy
+        Job job = cached.document().toBuilder().build();
+        overview.ifPresent(value -> applyRuntimeState(job, value));
         if (job.getStatus() == null) {
             job.setStatus(DRAFT_STATUS);
         }
         JobDto jobDto = JobDtoMapper.INSTANCE.entityToDto(job);
+        if (jobDto.getDefinition() != null) {
+            jobDto.setDefinition(jobDto.getDefinition().deepCopy());
+        }
         jobDto.setEditable(true);
-        return jobDto;
+        return new Versioned<>(jobDto, cached.version());
     }
 
     @Override
     public List<JobDto> getByIds(String projectId, Set<String> jobIds) {
+        storageKeys.moveProject(projectId);
         if (CollectionUtils.isEmpty(jobIds)) {
             return List.of();
         }
-        String folderKey = PROJECT_KEY_PREFIX + projectId;
-        List<Object> jobKeys = jobIds.stream().map(jobId -> folderKey + JOB_KEY_PREFIX + jobId)
+        String folderKey = storageKeys.getJobsKey(projectId);
+        List<Object> ids = new ArrayList<>(jobIds);
+        List<Object> jobKeys = ids.stream().map(jobId -> StorageKeys.getJobField(projectId, (String) jobId))
                 .collect(Collectors.toList());
-        return redisTemplate.opsForHash().multiGet(folderKey, jobKeys)
-                .stream()
-                .filter(Objects::nonNull)
-                .map((Object json) -> {
-                    try {
-                        Job job = jsonToJob(json.toString());
-                        if (job.getStatus() == null) {
-                            job.setStatus(DRAFT_STATUS);
-                        }
-                        JobDto jobDto = JobDtoMapper.INSTANCE.entityToDto(job);
-                        jobDto.setEditable(true);
-                        return jobDto;
-                    } catch (JsonProcessingException e) {
-                        LOGGER.error("Error has been occurred during getting all jobs by ID: {}", e.getMessage());
-                        return null;
-                    }
-                }).collect(Collectors.toList());
-    }
-
-    public Optional<JobOverviewDto> findByName(String projectId, String name) {
-        String folderKey = PROJECT_KEY_PREFIX + projectId;
-        for (Object value: redisTemplate.opsForHash().entries(folderKey).values()) {
+        List<String> documentKeys = storageKeys.isKeyPerDocument() ? ids.stream()
+                .map(jobId -> storageKeys.getJobKey(projectId, (String) jobId)).toList() : null;
+        List<Object> jobs = storageMetrics.recordRedis(StorageMetrics.JOB, "getByIds", projectId,
+                () -> DocumentStore.multiGet(replicaRedisTemplate, folderKey, jobKeys, documentKeys));
+        List<Object> overviews = storageMetrics.recordRedis(StorageMetrics.JOB, "getOverviews", projectId,
+                () -> replicaRedisTemplate.opsForHash().multiGet(getOverviewKey(projectId), ids));
+        List<JobDto> result = new ArrayList<>(jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            if (jobs.get(i) == null) {
+                continue;
+            }
             try {
-                var job = JobOverviewMapper.INSTANCE.entityToDto(jsonToJob((String) value));
-                if (job.getName().equals(name)) {
-                    return Optional.of(job);
-                }
+                result.add(toJobDto(jobs.get(i).toString(), (String) overviews.get(i)));
             } catch (JsonProcessingException e) {
-                LOGGER.error("Error while executing findByName method: {}", e.getLocalizedMessage());
-                throw new JsonParseException(e.getMessage());
+                LOGGER.error("Error has been occurred during getting all jobs by ID: {}", e.getMessage());
+                result.add(null);
             }
         }
-        return Optional.empty();
+        return result;
+    }
+
+    /**
+     * Converts the stored job and its overview into the DTO with the job's runtime state.
+     *
+     * @param jobJson      stored job.
+     * @param overviewJson stored overview, {@code null} if the job has no overview.
+     * @return job DTO.
+     * @throws JsonProcessingException if the job cannot be read.
+     */
+    JobDto toJobDto(String jobJson, String overviewJson) throws JsonProcessingException {
+        Job job = jsonToJob(jobJson);
+        if (overviewJson != null) {
+            applyRuntimeState(job, jsonToOverview(overviewJson));
+        }
+        if (job.getStatus() == null) {
+            job.setStatus(DRAFT_STATUS);
+        }
+        JobDto jobDto = JobDtoMapper.INSTANCE.entityToDto(job);
+        jobDto.setEditable(true);
+        return jobDto;
+    }
+
+    public Optional<JobOverviewDto> findByName(String projectId, String name) {
+        storageKeys.moveProject(projectId);
+        return findIdByName(projectId, name)
+                .flatMap(jobId -> findOverview(projectId, jobId, replicaRedisTemplate))
+                .map(JobStorageService::toOverviewDto);
     }
 
     public void delete(String projectId, String jobId) {
-        String folderKey = PROJECT_KEY_PREFIX + projectId;
-        String jobKey = folderKey + JOB_KEY_PREFIX + jobId;
-        redisTemplate.opsForHash().delete(folderKey, jobKey);
+        storageKeys.moveProject(projectId);
+        String jobKey = StorageKeys.getJobField(projectId, jobId);
+        String name = findOverview(projectId, jobId).map(JobOverview::getName).orElse("");
+        storageMetrics.recordRedis(StorageMetrics.JOB, "delete", projectId,
+                () -> redisTemplate.execute(RedisScripts.DELETE_JOB, getScriptKeys(projectId, jobId), jobKey, jobId,
+                        name));
+        documentCache.invalidate(jobKey);
     }
 
+    /**
+     * Replaces the job's definition. Everything, which is not a part of the request,
+     * is taken from the job's overview, so the stored definition is not read.
+     *
+     * @param projectId       project ID.
+     * @param jobId           job ID.
+     * @param jobDto          new job.
+     * @param expectedVersion version the job must have to be updated, {@code null} to update it in any case.
+     * @return new version of the job.
+     */
     @SneakyThrows
-    public void update(String projectId, String jobId, JobDto jobDto) {
-        String folderKey = PROJECT_KEY_PREFIX + projectId;
-        redisTemplate.opsForHash().entries(folderKey).forEach((Object key, Object value) -> {
-            try {
-                Job job = jsonToJob((String) value);
-                if (job.getName().equals(jobDto.getName()) && !Objects.equals(job.getId(), jobId)) {
-                    throw new BadRequestException(String.format("Job with name '%s' already exist in project '%s'",
-                            jobDto.getName(), projectId));
-                }
-            } catch (JsonProcessingException e) {
-                LOGGER.error(GET_ALL_ERROR + e.getMessage());
-                throw new JsonParseException(e.getMessage());
+    public long update(String projectId, String jobId, JobDto jobDto, Long expectedVersion) {
+        storageKeys.moveProject(projectId);
+        JobOverview overview = findOverview(projectId, jobId).orElseThrow(() -> new BadRequestException(
+                "Job '%s' doesn't exist in project '%s'", jobId, projectId));
+        return save(projectId, toUpdatedJob(jobId, overview, jobDto), overview.getName(), isRuntimeKept(jobDto),
+                expectedVersion);
+    }
+
+    /**
+     * Creates, updates and deletes jobs in one batch. Job names are checked once for the whole batch
+     * and all the changes are sent to Redis in one pipeline.
+     *
+     * @param projectId project ID.
+     * @param request   jobs to create, update and delete.
+     * @return IDs of the changed jobs and errors of the jobs, which were not changed.
+     */
+    public JobBatchResponseDto batch(String projectId, JobBatchRequestDto request) {
+        storageKeys.moveProject(projectId);
+        List<JobDto> creates = Objects.requireNonNullElse(request.getCreate(), List.of());
+        List<JobDto> updates = Objects.requireNonNullElse(request.getUpdate(), List.of());
+        List<String> deletes = Objects.requireNonNullElse(request.getDelete(), List.of());
+        JobBatchResponseDto response = new JobBatchResponseDto();
+        if (isIndexMissing(projectId)) {
+            rebuildIndexes(projectId);
+        }
+        List<Object> ids = new ArrayList<>(deletes);
+        updates.stream().map(JobDto::getId).filter(Objects::nonNull).forEach(ids::add);
+        Map<String, JobOverview> overviews = new HashMap<>();
+        List<Object> overviewValues = ids.isEmpty() ? List.of()
+                : redisTemplate.opsForHash().multiGet(getOverviewKey(projectId), ids);
+        for (int i = 0; i < overviewValues.size(); i++) {
+            if (overviewValues.get(i) != null) {
+                overviews.put((String) ids.get(i), jsonToOverview((String) overviewValues.get(i)));
             }
-        });
-        String jobKey = folderKey + JOB_KEY_PREFIX + jobId;
-        Job jobFromDB = jsonToJob((String) redisTemplate.opsForHash().get(folderKey, jobKey));
-        jobFromDB.setDefinition(jobDto.getDefinition());
-        jobFromDB.setParams(jobDto.getParams());
-        jobFromDB.setRunnable(!jobDto.getDefinition().get("graph").isEmpty());
-        jobFromDB.setName(jobDto.getName());
+        }
+        List<Object> names = new ArrayList<>();
+        creates.forEach(jobDto -> names.add(jobDto.getName()));
+        updates.forEach(jobDto -> names.add(jobDto.getName()));
+        names.removeIf(Objects::isNull);
+        Map<String, String> nameOwners = new HashMap<>();
+        List<Object> owners = names.isEmpty() ? List.of()
+                : redisTemplate.opsForHash().multiGet(getNameIndexKey(projectId), names);
+        for (int i = 0; i < owners.size(); i++) {
+            if (owners.get(i) != null) {
+                nameOwners.put((String) names.get(i), (String) owners.get(i));
+            }
+        }
+
+        Set<String> deletedIds = new LinkedHashSet<>();
+        List<Object[]> deleteArgs = new ArrayList<>();
+        for (String jobId : deletes) {
+            JobOverview overview = overviews.get(jobId);
+            if (overview == null) {
+                response.addError(jobId, String.format("Job '%s' doesn't exist in project '%s'", jobId, projectId));
+            } else {
+                deletedIds.add(jobId);
+                deleteArgs.add(new Object[]{StorageKeys.getJobField(projectId, jobId), jobId,
+                        Objects.toString(overview.getName(), "")});
+            }
+        }
+        Set<String> claimedNames = new HashSet<>();
+        List<Job> savedJobs = new ArrayList<>();
+        List<Object[]> saveArgs = new ArrayList<>();
+        for (JobDto jobDto : updates) {
+            String jobId = jobDto.getId();
+            JobOverview overview = overviews.get(jobId);
+            String error;
+            if (overview == null) {
+                error = String.format("Job '%s' doesn't exist in project '%s'", jobId, projectId);
+            } else {
+                error = checkBatchItem(projectId, jobId, jobDto, nameOwners, deletedIds, claimedNames);
+            }
+            if (error != null) {
+                response.addError(Objects.toString(jobId, jobDto.getName()), error);
+                continue;
+            }
+            Job job = toUpdatedJob(jobId, overview, jobDto);
+            addSaveArgs(projectId, job, overview.getName(), isRuntimeKept(jobDto), savedJobs, saveArgs, response);
+        }
+        int updatesCount = savedJobs.size();
+        for (JobDto jobDto : creates) {
+            Job job = JobDtoMapper.INSTANCE.dtoToEntity(jobDto);
+            String error = checkBatchItem(projectId, job.getId(), jobDto, nameOwners, deletedIds, claimedNames);
+            if (error != null) {
+                response.addError(jobDto.getName(), error);
+                continue;
+            }
+            job.setRunnable(!job.getDefinition().get("graph").isEmpty());
+            addSaveArgs(projectId, job, null, false, savedJobs, saveArgs, response);
+        }
+        if (deleteArgs.isEmpty() && saveArgs.isEmpty()) {
+            return response;
+        }
+
+        List<Object> results = storageMetrics.recordRedis(StorageMetrics.JOB, "batch", projectId, saveArgs,
+                () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    deleteArgs.forEach(args -> RedisScripts.evalInPipeline(connection, RedisScripts.DELETE_JOB,
+                            getScriptKeys(projectId, args[1].toString()), args));
+                    saveArgs.forEach(args -> RedisScripts.evalInPipeline(connection, RedisScripts.SAVE_JOB,
+                            getScriptKeys(projectId, args[1].toString()), args));
+                    return null;
+                }));
+        deleteArgs.forEach(args -> documentCache.invalidate(args[0].toString()));
+        saveArgs.forEach(args -> documentCache.invalidate(args[0].toString()));
+        response.getDeleted().addAll(deletedIds);
+        for (int i = 0; i < savedJobs.size(); i++) {
+            Job job = savedJobs.get(i);
+            Object result = results.get(deleteArgs.size() + i);
+            if (result instanceof Long version && version > 0) {
+                (i < updatesCount ? response.getUpdated() : response.getCreated()).add(job.getId());
+            } else {
+                response.addError(i < updatesCount ? job.getId() : job.getName(), Objects.equals(result,
+                        RedisScripts.SCRIPT_NAME_TAKEN) ? String.format(
+                        "Job with name '%s' already exist in project '%s'", job.getName(), projectId)
+                        : String.format("Job '%s' cannot be saved: %s", job.getId(), result));
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Checks a job of the batch against the names, which are already taken.
+     *
+     * @param projectId    project ID.
+     * @param jobId        job ID.
+     * @param jobDto       job to create or update.
+     * @param nameOwners   IDs of the jobs by the names used in the batch.
+     * @param deletedIds   IDs of the jobs deleted in the batch.
+     * @param claimedNames names of the jobs saved in the batch so far.
+     * @return error message, {@code null} if the job can be saved.
+     */
+    private static String checkBatchItem(String projectId, String jobId, JobDto jobDto,
+                                         Map<String, String> nameOwners, Collection<String> deletedIds,
+                                         Set<String> claimedNames) {
+        if (jobDto.getDefinition() == null) {
+            return "Job definition is missing";
+        }
+        String name = jobDto.getName();
+        if (name == null) {
+            return null;
+        }
+        String owner = nameOwners.get(name);
+        if (!claimedNames.add(name) || owner != null && !owner.equals(jobId) && !deletedIds.contains(owner)) {
+            return String.format("Job with name '%s' already exist in project '%s'", name, projectId);
+        }
+        return null;
+    }
+
+    private void addSaveArgs(String projectId, Job job, String previousName, boolean keepRuntime,
+                             List<Job> savedJobs, List<Object[]> saveArgs, JobBatchResponseDto response) {
+        try {
+            saveArgs.add(toSaveArgs(projectId, job, previousName, keepRuntime, null, true));
+            savedJobs.add(job);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Error occurred during saving jobs: {}", e.getMessage());
+            response.addError(Objects.toString(job.getName(), job.getId()), e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Updates job's status together with its start and finish time in one step,
+     * without reading or rewriting the job's definition.
+     *
+     * @param projectId     project ID.
+     * @param jobId         job ID.
+     * @param status        new status.
+     * @param jobDto        job with the start and finish time.
+     * @param expectedRunId run ID the job must have to be updated, {@code null} to update it in any case.
+     */
+    public void updateStatus(String projectId, String jobId, String status, JobDto jobDto, Long expectedRunId) {
+        storageKeys.moveProject(projectId);
+        List<String> keys = getIndexKeys(projectId);
+        String startedAt = Objects.toString(jobDto.getStartedAt(), "");
+        String finishedAt = Objects.toString(jobDto.getFinishedAt(), "");
+        String runId = Objects.toString(expectedRunId, "");
+        String jobKey = StorageKeys.getJobField(projectId, jobId);
+        Supplier<Long> update = () -> storageMetrics.recordRedis(StorageMetrics.JOB, "updateStatus", projectId,
+                () -> redisTemplate.execute(RedisScripts.UPDATE_JOB_STATUS, keys, jobId, status, startedAt,
+                        finishedAt, runId, jobKey));
+        Long result = update.get();
+        if (Objects.equals(result, RedisScripts.SCRIPT_INDEX_MISSING)) {
+            rebuildIndexes(projectId);
+            result = update.get();
+        }
+        if (Objects.equals(result, RedisScripts.SCRIPT_NOT_FOUND)) {
+            throw new BadRequestException("Job '%s' doesn't exist in project '%s'", jobId, projectId);
+        }
+        if (Objects.equals(result, RedisScripts.SCRIPT_RUN_CHANGED)) {
+            throw new ConflictException("Job '%s' in project '%s' is not in the run '%d' anymore",
+                    jobId, projectId, expectedRunId);
+        }
+    }
+
+    private Job jsonToJob(String jobJson) throws JsonProcessingException {
+        return storageCodec.read(jobJson, Job.class);
+    }
+
+    JobOverview jsonToOverview(String overviewJson) {
+        try {
+            long start = System.nanoTime();
+            JobOverview overview = objectMapper.readValue(overviewJson, JobOverview.class);
+            storageMetrics.recordRead(JobOverview.class, overviewJson.length(), System.nanoTime() - start);
+            return overview;
+        } catch (JsonProcessingException e) {
+            LOGGER.error(GET_ALL_ERROR + e.getMessage());
+            throw new JsonParseException(e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the runtime state from the job's overview, where it is kept up to date by the status updates.
+     *
+     * @param job      job.
+     * @param overview job's overview.
+     */
+    private static void applyRuntimeState(Job job, JobOverview overview) {
+        job.setStatus(overview.getStatus());
+        job.setRunId(overview.getRunId());
+        job.setStartedAt(overview.getStartedAt());
+        job.setFinishedAt(overview.getFinishedAt());
+    }
+
+    /**
+     * Builds the job to store on update from the job's overview and the request.
+     *
+     * @param jobId    job ID.
+     * @param overview current job's overview.
+     * @param jobDto   new job.
+     * @return job to store.
+     */
+    private static Job toUpdatedJob(String jobId, JobOverview overview, JobDto jobDto) {
+        Job job = new Job();
+        job.setId(jobId);
+        applyRuntimeState(job, overview);
+        job.setDefinition(jobDto.getDefinition());
+        job.setParams(jobDto.getParams());
+        job.setRunnable(!jobDto.getDefinition().get("graph").isEmpty());
+        job.setName(jobDto.getName());
         if (jobDto.getStatus() != null) {
-            jobFromDB.setStatus(jobDto.getStatus());
+            job.setStatus(jobDto.getStatus());
         }
         if (jobDto.getRunId() != 0) {
-            jobFromDB.setRunId(jobDto.getRunId());
+            job.setRunId(jobDto.getRunId());
         }
-        jobFromDB.setLastModified(jobDto.getLastModified());
-        String jobJson = objectMapper.writeValueAsString(jobFromDB);
-        redisTemplate.opsForHash().put(folderKey, jobKey, jobJson);
+        job.setLastModified(jobDto.getLastModified());
+        return job;
+    }
+
+    private static boolean isRuntimeKept(JobDto jobDto) {
+        return jobDto.getStatus() == null && jobDto.getRunId() == 0;
     }
 
-    public void updateStatus(String projectId, String jobId, String status, JobDto jobDto)
+    static JobOverviewDto toOverviewDto(JobOverview overview) {
+        String status = overview.getStatus();
+        if (status == null) {
+            status = DRAFT_STATUS;
+        }
+        return JobOverviewDto.builder()
+                .id(overview.getId())
+                .name(overview.getName())
+                .runId(overview.getRunId())
+                .startedAt(overview.getStartedAt())
+                .finishedAt(overview.getFinishedAt())
+                .status(status)
+                .lastModified(overview.getLastModified())
+                .usage(null)
+                .pipelineInstances(new ArrayList<>())
+                .pipelineId(null)
+                .runnable(overview.isRunnable())
+                .tags(overview.getTags() != null ? new ArrayList<>(overview.getTags()) : new ArrayList<>())
+                .dependentPipelineIds(new HashSet<>())
+                .build();
+    }
+
+    /**
+     * Stores the job with its overview and updates the project's name index and the job's version
+     * in one atomic step. A name that already belongs to another job is rejected.
+     *
+     * @param projectId       project ID.
+     * @param job             job to store.
+     * @param previousName    name the job had before, {@code null} for a new job.
+     * @param keepRuntime     whether the stored runtime state must be kept instead of the one of the job.
+     * @param expectedVersion version the job must have to be stored, {@code null} to store it in any case.
+     * @return new version of the job.
+     */
+    private long save(String projectId, Job job, String previousName, boolean keepRuntime, Long expectedVersion)
             throws JsonProcessingException {
-        String folderKey = PROJECT_KEY_PREFIX + projectId;
-        String jobKey = folderKey + JOB_KEY_PREFIX + jobId;
-        Job job = jsonToJob((String) redisTemplate.opsForHash().get(folderKey, jobKey));
-        job.setStatus(status);
-        job.setStartedAt(jobDto.getStartedAt());
-        job.setFinishedAt(jobDto.getFinishedAt());
-        String jobJson = objectMapper.writeValueAsString(job);
-        redisTemplate.opsForHash().put(folderKey, jobKey, jobJson);
+        List<String> keys = getScriptKeys(projectId, job.getId());
+        Object[] args = toSaveArgs(projectId, job, previousName, keepRuntime, expectedVersion, false);
+        Long result = storageMetrics.recordRedis(StorageMetrics.JOB, "save", projectId, args,
+                () -> redisTemplate.execute(RedisScripts.SAVE_JOB, keys, args));
+        if (Objects.equals(result, RedisScripts.SCRIPT_INDEX_MISSING)) {
+            rebuildIndexes(projectId);
+            Object[] rebuiltArgs = toSaveArgs(projectId, job, previousName, keepRuntime, expectedVersion, true);
+            result = storageMetrics.recordRedis(StorageMetrics.JOB, "save", projectId, rebuiltArgs,
+                    () -> redisTemplate.execute(RedisScripts.SAVE_JOB, keys, rebuiltArgs));
+        }
+        documentCache.invalidate(StorageKeys.getJobField(projectId, job.getId()));
+        if (Objects.equals(result, RedisScripts.SCRIPT_NAME_TAKEN)) {
+            throw new BadRequestException(String.format("Job with name '%s' already exist in project '%s'",
+                    job.getName(), projectId));
+        }
+        if (Objects.equals(result, RedisScripts.SCRIPT_VERSION_MISMATCH)) {
+            throw new PreconditionFailedException("Job '%s' in project '%s' doesn't have version %d",
+                    job.getId(), projectId, expectedVersion);
+        }
+        return Objects.requireNonNull(result);
     }
 
-    private Job jsonToJob(String jobJson) throws JsonProcessingException {
-        return objectMapper.readValue(jobJson, Job.class);
+    /**
+     * Builds the arguments of the job saving script.
+     *
+     * @param projectId       project ID.
+     * @param job             job to store.
+     * @param previousName    name the job had before, {@code null} for a new job.
+     * @param keepRuntime     whether the stored runtime state must be kept instead of the one of the job.
+     * @param expectedVersion version the job must have to be stored, {@code null} to store it in any case.
+     * @param rebuilt         whether the indexes have just been rebuilt.
+     * @return script arguments.
+     */
+    private Object[] toSaveArgs(String projectId, Job job, String previousName, boolean keepRuntime,
+                                Long expectedVersion, boolean rebuilt) throws JsonProcessingException {
+        String jobKey = StorageKeys.getJobField(projectId, job.getId());
+        String jobJson = storageCodec.write(job);
+        long start = System.nanoTime();
+        String overviewJson = objectMapper.writeValueAsString(JobOverviewMapper.INSTANCE.entityToOverview(job));
+        storageMetrics.recordWrite(JobOverview.class, overviewJson.length(), System.nanoTime() - start);
+        return new Object[]{jobKey, job.getId(), Objects.toString(job.getName(), ""), jobJson, overviewJson,
+                Objects.toString(previousName, ""), rebuilt ? "1" : "0", keepRuntime ? "1" : "0",
+                Objects.toString(expectedVersion, "")};
+    }
+
+    private String getNameIndexKey(String projectId) {
+        return storageKeys.getJobNamesKey(projectId);
+    }
+
+    private String getOverviewKey(String projectId) {
+        return storageKeys.getJobOverviewsKey(projectId);
+    }
+
+    private List<String> getIndexKeys(String projectId) {
+        return List.of(storageKeys.getJobsKey(projectId), getNameIndexKey(projectId), getOverviewKey(projectId),
+                storageKeys.getVersionsKey(projectId));
+    }
+
+    /**
+     * Builds the keys of the scripts, which save or delete the job.
+     *
+     * @param projectId project ID.
+     * @param jobId     job ID.
+     * @return index keys followed by the job's key in the key document layout.
+     */
+    private List<String> getScriptKeys(String projectId, String jobId) {
+        if (!storageKeys.isKeyPerDocument()) {
+            return getIndexKeys(projectId);
+        }
+        List<String> keys = new ArrayList<>(getIndexKeys(projectId));
+        keys.add(storageKeys.getJobKey(projectId, jobId));
+        return keys;
+    }
+
+    /**
+     * Builds the keys of the script, which reads the job with its version and overview.
+     *
+     * @param projectId project ID.
+     * @param jobId     job ID.
+     * @return job keys in the order of {@code get-document.lua}.
+     */
+    private List<String> getReadKeys(String projectId, String jobId) {
+        List<String> keys = new ArrayList<>(List.of(storageKeys.getJobsKey(projectId),
+                storageKeys.getVersionsKey(projectId), getOverviewKey(projectId)));
+        if (storageKeys.isKeyPerDocument()) {
+            keys.add(storageKeys.getJobKey(projectId, jobId));
+        }
+        return keys;
+    }
+
+    /**
+     * Looks up job's ID by its name using the project's name index.
+     *
+     * @param projectId project ID.
+     * @param name      job name.
+     * @return job ID if there is a job with such a name.
+     */
+    private Optional<String> findIdByName(String projectId, String name) {
+        Object jobId = replicaRedisTemplate.opsForHash().get(getNameIndexKey(projectId), name);
+        if (jobId == null && isIndexMissing(projectId)) {
+            return rebuildIndexes(projectId).values().stream()
+                    .filter(overview -> Objects.equals(overview.getName(), name))
+                    .findFirst()
+                    .map(JobOverview::getId);
+        }
+        return Optional.ofNullable(jobId).map(Object::toString);
+    }
+
+    private Optional<JobOverview> findOverview(String projectId, String jobId) {
+        return findOverview(projectId, jobId, redisTemplate);
+    }
+
+    private Optional<JobOverview> findOverview(String projectId, String jobId,
+                                               RedisTemplate<String, String> template) {
+        Object value = storageMetrics.recordRedis(StorageMetrics.JOB, "getOverview", projectId,
+                () -> template.opsForHash().get(getOverviewKey(projectId), jobId));
+        if (value == null && isIndexMissing(projectId)) {
+            return Optional.ofNullable(rebuildIndexes(projectId).get(jobId));
+        }
+        return Optional.ofNullable(value).map(json -> jsonToOverview((String) json));
+    }
+
+    /**
+     * Checks whether the project has jobs, which were stored before the overviews and the name index
+     * were introduced.
+     *
+     * @param projectId project ID.
+     * @return true if the indexes have to be rebuilt.
+     */
+    private boolean isIndexMissing(String projectId) {
+        Long jobsCount = redisTemplate.opsForHash().size(storageKeys.getJobsKey(projectId));
+        if (jobsCount != null && jobsCount > 0) {
+            return !Boolean.TRUE.equals(redisTemplate.hasKey(getOverviewKey(projectId)));
+        }
+        if (!storageKeys.isKeyPerDocument() || projectsWithoutJobKeys.contains(projectId)
+                || Boolean.TRUE.equals(redisTemplate.hasKey(getOverviewKey(projectId)))) {
+            return false;
+        }
+        if (!scanJobKeys(projectId, 1).isEmpty()) {
+            return true;
+        }
+        projectsWithoutJobKeys.add(projectId);
+        return false;
+    }
+
+    /**
+     * Builds job overviews and the name index, unless the project already has them. Must be called before
+     * moving the jobs of the project out of its hash, since the jobs without overviews are not listed.
+     *
+     * @param projectId project ID.
+     */
+    public void ensureIndexes(String projectId) {
+        if (isIndexMissing(projectId)) {
+            rebuildIndexes(projectId);
+        }
     }
 
+    /**
+     * Finds the keys of the jobs stored under their own keys in the key document layout. In Redis Cluster
+     * only the node holding the project is scanned, since all the keys of the project are in one hash slot.
+     *
+     * @param projectId project ID.
+     * @param limit     maximum number of the keys to find.
+     * @return job keys.
+     */
+    private List<String> scanJobKeys(String projectId, int limit) {
+        String prefix = storageKeys.getJobKey(projectId, "");
+        ScanOptions options = ScanOptions.scanOptions().match(PATTERN_SPECIAL_CHARS.matcher(prefix)
+                .replaceAll("\\\\$0") + "*").count(JOB_KEYS_SCAN_COUNT).build();
+        return redisTemplate.execute((RedisCallback<List<String>>) connection -> {
+            List<String> keys = new ArrayList<>();
+            try (Cursor<byte[]> cursor = connection instanceof RedisClusterConnection cluster
+                    ? cluster.scan(cluster.clusterGetNodeForKey(prefix.getBytes(StandardCharsets.UTF_8)), options)
+                    : connection.keyCommands().scan(options)) {
+                while (keys.size() < limit && cursor.hasNext()) {
+                    keys.add(new String(cursor.next(), StandardCharsets.UTF_8));
+                }
+            }
+            return keys;
+        });
+    }
+
+    /**
+     * Builds job overviews and the name index for a project, which was created before they were introduced.
+     * In the key document layout the jobs already moved to their own keys are read as well.
+     * The indexes are added by a script, which keeps the entries written meanwhile by a concurrent save
+     * and skips the jobs deleted meanwhile.
+     *
+     * @param projectId project ID.
+     * @return job overviews by job IDs.
+     */
+    private Map<String, JobOverview> rebuildIndexes(String projectId) {
+        Map<String, JobOverview> overviews = new HashMap<>();
+        List<String> keys = new ArrayList<>(List.of(storageKeys.getJobsKey(projectId), getNameIndexKey(projectId),
+                getOverviewKey(projectId)));
+        List<Object> args = new ArrayList<>();
+        List<Object> values = new ArrayList<>(redisTemplate.opsForHash().values(storageKeys.getJobsKey(projectId)));
+        if (storageKeys.isKeyPerDocument()) {
+            List<String> jobKeys = scanJobKeys(projectId, Integer.MAX_VALUE);
+            for (int from = 0; from < jobKeys.size(); from += TRANSFER_BATCH_SIZE) {
+                List<String> jobs = redisTemplate.opsForValue()
+                        .multiGet(jobKeys.subList(from, Math.min(jobKeys.size(), from + TRANSFER_BATCH_SIZE)));
+                if (jobs != null) {
+                    jobs.stream().filter(Objects::nonNull).forEach(values::add);
+                }
+            }
+        }
+        for (Object value : values) {
+            try {
+                Job job = jsonToJob((String) value);
+                if (overviews.containsKey(job.getId())) {
+                    continue;
+                }
+                JobOverview overview = JobOverviewMapper.INSTANCE.entityToOverview(job);
+                overviews.put(job.getId(), overview);
+                args.addAll(List.of(StorageKeys.getJobField(projectId, job.getId()), job.getId(),
+                        Objects.toString(job.getName(), ""), objectMapper.writeValueAsString(overview)));
+                if (storageKeys.isKeyPerDocument()) {
+                    keys.add(storageKeys.getJobKey(projectId, job.getId()));
+                }
+            } catch (JsonProcessingException e) {
+                LOGGER.error(GET_ALL_ERROR + e.getMessage());
+                throw new JsonParseException(e.getMessage());
+            }
+        }
+        if (!args.isEmpty()) {
+            Long added = redisTemplate.execute(RedisScripts.REBUILD_INDEXES, keys, args.toArray());
+            LOGGER.info("{} job overviews and their names have been rebuilt for project '{}'", added, projectId);
+        }
+        return overviews;
+    }
+
+    /**
+     * Imports jobs in batches. Jobs with names, which already exist in the project, replace the existing ones.
+     *
+     * @param projectId  project ID.
+     * @param jobs       jobs to import.
+     * @param importData importing result.
+     */
     @Override
     public void importAll(String projectId, List<JobDto> jobs, ImportResponseDto importData) {
-        jobs.forEach((JobDto job) -> {
-            try {
+        storageKeys.moveProject(projectId);
+        if (isIndexMissing(projectId)) {
+            rebuildIndexes(projectId);
+        }
+        for (int from = 0; from < jobs.size(); from += TRANSFER_BATCH_SIZE) {
+            List<JobDto> chunk = jobs.subList(from, Math.min(jobs.size(), from + TRANSFER_BATCH_SIZE));
+            List<Object> names = chunk.stream().map(JobDto::getName).filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            List<Object> owners = names.isEmpty() ? List.of()
+                    : redisTemplate.opsForHash().multiGet(getNameIndexKey(projectId), names);
+            Map<String, String> existingIds = new HashMap<>();
+            for (int i = 0; i < owners.size(); i++) {
+                if (owners.get(i) != null) {
+                    existingIds.put((String) names.get(i), (String) owners.get(i));
+                }
+            }
+            JobBatchRequestDto request = new JobBatchRequestDto();
+            Map<String, String> namesByIds = new HashMap<>();
+            for (JobDto job : chunk) {
                 job.setStatus(DRAFT_STATUS);
-                create(projectId, job);
-            } catch (JsonProcessingException e) {
-                LOGGER.error("Error occurred during importing jobs: {}", e.getMessage());
-                importData.addToNotImportedJobs(job.getName());
-                importData.addToErrorsInJobs(job.getName(), e.getLocalizedMessage());
-            } catch (BadRequestException e) {
-                LOGGER.info("Job '{}' exists. Updating it: {}", job.getName(), e.getLocalizedMessage());
-                update(projectId, getIdByName(projectId, job.getName()), job);
+                String existingId = existingIds.get(job.getName());
+                if (existingId != null) {
+                    LOGGER.info("Job '{}' exists. Updating it", job.getName());
+                    job.setId(existingId);
+                    namesByIds.put(existingId, job.getName());
+                    request.getUpdate().add(job);
+                } else {
+                    request.getCreate().add(job);
+                }
             }
-        });
+            batch(projectId, request).getErrors().forEach((String job, String error) -> {
+                String name = namesByIds.getOrDefault(job, job);
+                LOGGER.error("Error occurred during importing jobs: {}", error);
+                importData.addToNotImportedJobs(name);
+                importData.addToErrorsInJobs(name, error);
+            });
+        }
     }
 
-    private String getIdByName(String projectId, String name) {
-        return getAll(projectId).getJobs().stream()
-                .filter(pip -> pip.getName().equals(name))
-                .findFirst()
-                .map(JobOverviewDto::getId)
-                .orElseThrow(() -> new BadRequestException(
-                        "Job with such a name '%s' doesn't exists in project '%s'",
-                        name, projectId
-                ));
+    /**
+     * Reads IDs of all the jobs in the project by their names.
+     *
+     * @param projectId project ID.
+     * @return job IDs by job names.
+     */
+    public Map<String, String> getIdsByNames(String projectId) {
+        storageKeys.moveProject(projectId);
+        if (isIndexMissing(projectId)) {
+            rebuildIndexes(projectId);
+        }
+        Map<String, String> ids = new HashMap<>();
+        redisTemplate.opsForHash().entries(getNameIndexKey(projectId))
+                .forEach((Object name, Object id) -> ids.put((String) name, (String) id));
+        return ids;
     }
 
     /**
@@ -269,9 +921,10 @@ public class JobStorageService implements Exportable<JobDto>, Importable<JobDto>
      * @param jobId     is a job ID.
      */
     public void copy(String projectId, String jobId) throws JsonProcessingException {
+        storageKeys.moveProject(projectId);
         JobDto job = get(projectId, jobId);
         String currentName = job.getName();
-        Set<String> availableNames = getAll(projectId).getJobs().stream()
+        Set<String> availableNames = getAll(projectId, redisTemplate).getJobs().stream()
                 .map(JobOverviewDto::getName)
                 .filter(name -> name.startsWith(currentName))
                 .collect(Collectors.toSet());
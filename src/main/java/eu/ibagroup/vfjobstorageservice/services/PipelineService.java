@@ -19,9 +19,13 @@
 
 package eu.ibagroup.vfjobstorageservice.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.ibagroup.vfjobstorageservice.dto.OverviewFilterDto;
 import eu.ibagroup.vfjobstorageservice.dto.exporting.Exportable;
 import eu.ibagroup.vfjobstorageservice.dto.graph.DefinitionDto;
 import eu.ibagroup.vfjobstorageservice.dto.graph.StageDto;
@@ -31,6 +35,8 @@ import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
 import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewDto;
 import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewListDto;
 import eu.ibagroup.vfjobstorageservice.exceptions.BadRequestException;
+import eu.ibagroup.vfjobstorageservice.exceptions.PreconditionFailedException;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -38,17 +44,22 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import java.beans.FeatureDescriptor;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -58,6 +69,7 @@ import static eu.ibagroup.vfjobstorageservice.dto.Constants.*;
 
 @Slf4j
 @Service
+@Observed(name = StorageMetrics.SERVICE)
 @RequiredArgsConstructor
 public class PipelineService implements Exportable<PipelineDto>, Importable<PipelineDto> {
     private static final String JOB_NAME_LABEL = "jobName";
@@ -65,8 +77,13 @@ public class PipelineService implements Exportable<PipelineDto>, Importable<Pipe
     private static final String PIPELINE_NAME_LABEL = "pipelineName";
     private static final String PIPELINE_ID_LABEL = "pipelineId";
     private final RedisTemplate<String, String> redisTemplate;
+    private final RedisTemplate<String, String> replicaRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final StorageCodec storageCodec;
+    private final DocumentCache documentCache;
+    private final StorageKeys storageKeys;
     private final JobStorageService jobService;
+    private final StorageMetrics storageMetrics;
 
     public static String[] findFieldsWithNullValues(Object source) {
         final BeanWrapper wrappedSource = PropertyAccessorFactory.forBeanPropertyAccess(source);
@@ -76,11 +93,12 @@ public class PipelineService implements Exportable<PipelineDto>, Importable<Pipe
                 .toArray(String[]::new);
     }
 
-    private static String getFolderKey(String projectId) {
-        return PROJECT_KEY_PREFIX + projectId + PIPELINE_KEY_PREFIX;
+    private String getFolderKey(String projectId) {
+        return storageKeys.getPipelinesKey(projectId);
     }
 
     public String create(String projectId, PipelineDto pipelineRequestDto) throws JsonProcessingException {
+        storageKeys.moveProject(projectId);
         if (getNamesInProject(projectId).contains(pipelineRequestDto.getName())) {
             throw new BadRequestException(String.format("Pipeline with name '%s' already exist in project '%s'",
                     pipelineRequestDto.getName(), projectId));
@@ -91,29 +109,59 @@ public class PipelineService implements Exportable<PipelineDto>, Importable<Pipe
         if (pipelineRequestDto.getStatus() == null) {
             pipelineRequestDto.setStatus("Draft");
         }
-        String folderKey = getFolderKey(projectId);
-        String pipelineKey = folderKey + pipelineRequestDto.getId();
-        String json = objectMapper.writeValueAsString(pipelineRequestDto);
-        Boolean created = redisTemplate.opsForHash().putIfAbsent(folderKey, pipelineKey, json);
-        if (Boolean.FALSE.equals(created)) {
+        String pipelineKey = StorageKeys.getPipelineField(projectId, pipelineRequestDto.getId());
+        String json = storageCodec.write(pipelineRequestDto);
+        Long created = storageMetrics.recordRedis(StorageMetrics.PIPELINE, "save", projectId, json,
+                () -> redisTemplate.execute(RedisScripts.SAVE_PIPELINE,
+                        getScriptKeys(projectId, pipelineRequestDto.getId()), pipelineKey, json, "", "1",
+                        pipelineRequestDto.getId()));
+        if (Objects.equals(created, RedisScripts.SCRIPT_ALREADY_EXISTS)) {
             throw new DuplicateKeyException("Pipeline with id " + pipelineKey + " already exists");
         }
         return pipelineRequestDto.getId();
     }
 
+    /**
+     * Builds the keys of the scripts, which save or delete the pipeline.
+     *
+     * @param projectId project ID.
+     * @param id        pipeline ID.
+     * @return pipelines and versions hashes followed by the pipeline's key and the pipeline IDs
+     * in the key document layout.
+     */
+    private List<String> getScriptKeys(String projectId, String id) {
+        if (!storageKeys.isKeyPerDocument()) {
+            return List.of(getFolderKey(projectId), storageKeys.getVersionsKey(projectId));
+        }
+        return List.of(getFolderKey(projectId), storageKeys.getVersionsKey(projectId),
+                storageKeys.getPipelineKey(projectId, id), storageKeys.getPipelineIdsKey(projectId));
+    }
+
+    private String getIdsKey(String projectId) {
+        return storageKeys.isKeyPerDocument() ? storageKeys.getPipelineIdsKey(projectId) : null;
+    }
+
+    /**
+     * Builds the keys of the script, which reads the pipeline with its version.
+     *
+     * @param projectId project ID.
+     * @param id        pipeline ID.
+     * @return pipeline keys in the order of {@code get-document.lua}.
+     */
+    private List<String> getReadKeys(String projectId, String id) {
+        String versionsKey = storageKeys.getVersionsKey(projectId);
+        if (!storageKeys.isKeyPerDocument()) {
+            return List.of(getFolderKey(projectId), versionsKey, versionsKey);
+        }
+        return List.of(getFolderKey(projectId), versionsKey, versionsKey, storageKeys.getPipelineKey(projectId, id));
+    }
+
     private Set<String> getNamesInProject(String projectId) {
-        return getAll(projectId).getPipelines().stream()
+        return getAll(projectId, redisTemplate).getPipelines().stream()
                 .map(PipelineOverviewDto::getName)
                 .collect(Collectors.toSet());
     }
 
-    private Optional<String> getIdByName(String projectId, String name) {
-        return getAll(projectId).getPipelines().stream()
-                .filter(pip -> pip.getName().equals(name))
-                .findFirst()
-                .map(PipelineOverviewDto::getId);
-    }
-
     public PipelineOverviewListDto getAllByNames(String projectId, Collection<String> names) {
         return PipelineOverviewListDto.builder()
                 .pipelines(getAll(projectId).getPipelines().stream()
@@ -123,24 +171,62 @@ public class PipelineService implements Exportable<PipelineDto>, Importable<Pipe
                 .build();
     }
 
+    /**
+     * Reads the pipeline with its version, which is incremented on every change of the pipeline.
+     * A cached pipeline costs no Redis call.
+     *
+     * @param projectId project ID.
+     * @param id        pipeline ID.
+     * @return shared pipeline, which must not be modified, with its version, 0 if the pipeline hasn't been changed
+     * since the versions were introduced.
+     */
+    @SneakyThrows
+    public Versioned<PipelineDto> getVersioned(String projectId, String id) {
+        storageKeys.moveProject(projectId);
+        String pipelineKey = StorageKeys.getPipelineField(projectId, id);
+        return documentCache.readVersioned(pipelineKey, () -> {
+            List<?> result = storageMetrics.recordRedis(StorageMetrics.PIPELINE, "get", projectId,
+                    () -> redisTemplate.execute(RedisScripts.GET_DOCUMENT, getReadKeys(projectId, id), pipelineKey,
+                            ""));
+            Object version = result.get(1);
+            return new Versioned<>((String) result.get(0), version != null ? Long.parseLong(version.toString()) : 0L);
+        }, PipelineDto.class);
+    }
+
+    /**
+     * Reads the pipeline bypassing the cache, so it can be modified.
+     *
+     * @param projectId project ID.
+     * @param id        pipeline ID.
+     * @return pipeline.
+     */
     public PipelineDto getById(String projectId, String id) {
+        storageKeys.moveProject(projectId);
         String folderKey = getFolderKey(projectId);
-        String pipelineKey = folderKey + id;
-        String value = (String) redisTemplate.opsForHash().get(folderKey, pipelineKey);
-        return readJson(value, PipelineDto.class);
+        String pipelineKey = StorageKeys.getPipelineField(projectId, id);
+        String documentKey = storageKeys.isKeyPerDocument() ? storageKeys.getPipelineKey(projectId, id) : null;
+        return readJson(storageMetrics.recordRedis(StorageMetrics.PIPELINE, "get", projectId,
+                () -> DocumentStore.get(redisTemplate, folderKey, pipelineKey, documentKey)), PipelineDto.class);
     }
 
     @SneakyThrows
     private <T> T readJson(String value, Class<T> valueType) {
-        return objectMapper.readValue(value, valueType);
+        return storageCodec.read(value, valueType);
     }
 
+    /**
+     * Replaces the pipeline.
+     *
+     * @param projectId          project ID.
+     * @param id                 pipeline ID.
+     * @param pipelineRequestDto new pipeline.
+     * @param expectedVersion    version the pipeline must have to be updated, {@code null} to update it in any case.
+     * @return new version of the pipeline.
+     */
     @SneakyThrows
-    public void update(String projectId, String id, PipelineDto pipelineRequestDto) {
-        String folderKey = getFolderKey(projectId);
-
-        redisTemplate.opsForHash().entries(folderKey).forEach((Object key, Object value) -> {
-            PipelineDto pipelineDto = readJson((String) value, PipelineDto.class);
+    public long update(String projectId, String id, PipelineDto pipelineRequestDto, Long expectedVersion) {
+        storageKeys.moveProject(projectId);
+        getAll(projectId, redisTemplate).getPipelines().forEach((PipelineOverviewDto pipelineDto) -> {
             if (Objects.equals(pipelineDto.getName(), pipelineRequestDto.getName())
                     && !Objects.equals(pipelineDto.getId(), id)) {
                 throw new BadRequestException(String.format("Pipeline with name '%s' already exist in project '%s'",
@@ -148,33 +234,51 @@ public class PipelineService implements Exportable<PipelineDto>, Importable<Pipe
             }
         });
 
-        String jobKey = folderKey + id;
+        String jobKey = StorageKeys.getPipelineField(projectId, id);
         pipelineRequestDto.setId(id);
         pipelineRequestDto.setLastModified(Instant.now().toString());
         if (pipelineRequestDto.getStatus() == null) {
             pipelineRequestDto.setStatus("Draft");
         }
-        String json = objectMapper.writeValueAsString(pipelineRequestDto);
-        redisTemplate.opsForHash().put(folderKey, jobKey, json);
+        String json = storageCodec.write(pipelineRequestDto);
+        Long version = storageMetrics.recordRedis(StorageMetrics.PIPELINE, "save", projectId, json,
+                () -> redisTemplate.execute(RedisScripts.SAVE_PIPELINE, getScriptKeys(projectId, id), jobKey, json,
+                        Objects.toString(expectedVersion, ""), "0", id));
+        documentCache.invalidate(jobKey);
+        if (Objects.equals(version, RedisScripts.SCRIPT_VERSION_MISMATCH)) {
+            throw new PreconditionFailedException("Pipeline '%s' in project '%s' doesn't have version %d",
+                    id, projectId, expectedVersion);
+        }
+        return Objects.requireNonNull(version);
     }
 
-    public void patch(String projectId, String id, PipelineDto request) {
+    public long patch(String projectId, String id, PipelineDto request, Long expectedVersion) {
+        storageKeys.moveProject(projectId);
         PipelineDto response = getById(projectId, id);
         BeanUtils.copyProperties(request, response, findFieldsWithNullValues(request));
-        update(projectId, id, response);
+        return update(projectId, id, response, expectedVersion);
     }
 
     public void delete(String projectId, String id) {
-        String folderKey = getFolderKey(projectId);
-        String pipelineKey = folderKey + id;
-        redisTemplate.opsForHash().delete(folderKey, pipelineKey);
+        storageKeys.moveProject(projectId);
+        String pipelineKey = StorageKeys.getPipelineField(projectId, id);
+        storageMetrics.recordRedis(StorageMetrics.PIPELINE, "delete", projectId, () -> redisTemplate.execute(
+                RedisScripts.DELETE_PIPELINE, getScriptKeys(projectId, id), pipelineKey, id));
+        documentCache.invalidate(pipelineKey);
     }
 
     public PipelineOverviewListDto getAll(String projectId) {
-        String folderKey = getFolderKey(projectId);
-        List<PipelineOverviewDto> pipelines = redisTemplate.opsForHash().values(folderKey)
-                .stream()
-                .map(json -> readJson((String) json, PipelineOverviewDto.class))
+        storageKeys.moveProject(projectId);
+        return getAll(projectId, replicaRedisTemplate);
+    }
+
+    private PipelineOverviewListDto getAll(String projectId, RedisTemplate<String, String> template) {
+        List<String> values = storageMetrics.recordRedis(StorageMetrics.PIPELINE, "getAll", projectId,
+                () -> DocumentStore.values(template, getFolderKey(projectId), getIdsKey(projectId),
+                        id -> storageKeys.getPipelineKey(projectId, id)));
+        storageMetrics.recordEntries(StorageMetrics.PIPELINE, "getAll", values.size());
+        List<PipelineOverviewDto> pipelines = values.stream()
+                .map(json -> readJson(json, PipelineOverviewDto.class))
                 .toList();
         return PipelineOverviewListDto.builder()
                 .pipelines(pipelines)
@@ -182,88 +286,263 @@ public class PipelineService implements Exportable<PipelineDto>, Importable<Pipe
                 .build();
     }
 
+    /**
+     * Writes all pipelines of the project into the stream in the same format as {@link #getAll(String)},
+     * without reading all of them into memory first.
+     *
+     * @param projectId    project ID.
+     * @param outputStream response stream.
+     * @throws IOException if the response cannot be written.
+     */
+    public void streamAll(String projectId, OutputStream outputStream) throws IOException {
+        storageKeys.moveProject(projectId);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("pipelines");
+            int entries = DocumentStore.writeValues(replicaRedisTemplate, getFolderKey(projectId),
+                    getIdsKey(projectId), id -> storageKeys.getPipelineKey(projectId, id), generator, writer,
+                    json -> readJson(json, PipelineOverviewDto.class));
+            storageMetrics.recordEntries(StorageMetrics.PIPELINE, "streamAll", entries);
+            generator.writeEndArray();
+            generator.writeBooleanField("editable", true);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads one page of pipelines from the project.
+     *
+     * @param projectId project ID.
+     * @param cursor    cursor returned with the previous page, {@code null} for the first page.
+     * @param limit     desired page size, {@code null} to read all the matching pipelines.
+     * @param filter    pipeline filters.
+     * @return page of pipelines with the cursor for the next page.
+     */
+    public PipelineOverviewListDto getPage(String projectId, String cursor, Integer limit,
+                                           OverviewFilterDto filter) {
+        storageKeys.moveProject(projectId);
+        HashScanner.Page<PipelineOverviewDto> page = DocumentStore.scan(redisTemplate, getFolderKey(projectId),
+                getIdsKey(projectId), id -> storageKeys.getPipelineKey(projectId, id),
+                Objects.requireNonNullElse(cursor, HashScanner.INITIAL_CURSOR), CommonUtils.toPageSize(limit),
+                json -> readJson(json, PipelineOverviewDto.class),
+                pipeline -> filter.matches(pipeline.getName(), pipeline.getStatus(), pipeline.getTags(),
+                        pipeline.getLastModified()));
+        storageMetrics.recordEntries(StorageMetrics.PIPELINE, "getPage", page.getItems().size());
+        return PipelineOverviewListDto.builder()
+                .pipelines(page.getItems())
+                .editable(true)
+                .nextCursor(page.getNextCursor())
+                .build();
+    }
+
     @Override
     public List<PipelineDto> getByIds(String projectId, Set<String> pipelineIds) {
+        storageKeys.moveProject(projectId);
         if (CollectionUtils.isEmpty(pipelineIds)) {
             return List.of();
         }
         String folderKey = getFolderKey(projectId);
-        List<Object> pipKeys = pipelineIds.stream().map(pipId -> folderKey + pipId)
+        List<Object> pipKeys = pipelineIds.stream().map(pipId -> StorageKeys.getPipelineField(projectId, pipId))
                 .collect(Collectors.toList());
-        return redisTemplate.opsForHash().multiGet(folderKey, pipKeys)
+        List<String> documentKeys = storageKeys.isKeyPerDocument() ? pipelineIds.stream()
+                .map(pipId -> storageKeys.getPipelineKey(projectId, pipId)).toList() : null;
+        return storageMetrics.recordRedis(StorageMetrics.PIPELINE, "getByIds", projectId,
+                        () -> DocumentStore.multiGet(replicaRedisTemplate, folderKey, pipKeys, documentKeys))
                 .stream()
                 .filter(Objects::nonNull)
                 .map(json -> readJson(json.toString(), PipelineDto.class))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Imports pipelines in batches. Pipelines with names, which already exist in the project,
+     * replace the existing ones. Names of jobs and pipelines are read once for the whole import.
+     *
+     * @param projectId  project ID.
+     * @param pipelines  pipelines to import.
+     * @param importData importing result.
+     */
     @Override
     public void importAll(String projectId, List<PipelineDto> pipelines, ImportResponseDto importData) {
-        pipelines.forEach((PipelineDto pipeline) -> {
+        storageKeys.moveProject(projectId);
+        importAll(projectId, pipelines, importData, jobService.getIdsByNames(projectId), getIdsByNames(projectId));
+    }
+
+    /**
+     * Imports pipelines in batches using the already read names of jobs and pipelines.
+     * The imported pipelines are added to the pipeline names once they are saved.
+     *
+     * @param projectId   project ID.
+     * @param pipelines   pipelines to import.
+     * @param importData  importing result.
+     * @param jobIds      IDs of the project's jobs by names.
+     * @param pipelineIds IDs of the project's pipelines by names.
+     */
+    public void importAll(String projectId, List<PipelineDto> pipelines, ImportResponseDto importData,
+                          Map<String, String> jobIds, Map<String, String> pipelineIds) {
+        storageKeys.moveProject(projectId);
+        for (int from = 0; from < pipelines.size(); from += TRANSFER_BATCH_SIZE) {
+            List<PipelineDto> batch = pipelines.subList(from, Math.min(pipelines.size(), from + TRANSFER_BATCH_SIZE));
+            while (!batch.isEmpty()) {
+                batch = importBatch(projectId, batch, importData, jobIds, pipelineIds);
+            }
+        }
+    }
+
+    /**
+     * Saves the imported pipelines in one Redis pipeline. A pipeline, which has the name of a pipeline created
+     * in the same batch or contains it, is deferred to the next batch, since the created pipeline may fail
+     * to be saved.
+     *
+     * @param projectId   project ID.
+     * @param batch       pipelines to import.
+     * @param importData  importing result.
+     * @param jobIds      IDs of the project's jobs by names.
+     * @param pipelineIds IDs of the project's pipelines by names.
+     * @return deferred pipelines.
+     */
+    private List<PipelineDto> importBatch(String projectId, List<PipelineDto> batch, ImportResponseDto importData,
+                                          Map<String, String> jobIds, Map<String, String> pipelineIds) {
+        List<PipelineDto> deferred = new ArrayList<>();
+        Set<String> createdNames = new HashSet<>();
+        List<String> names = new ArrayList<>();
+        List<Object[]> saveArgs = new ArrayList<>();
+        for (PipelineDto pipeline : batch) {
+            if (createdNames.contains(pipeline.getName()) || containsAny(pipeline.getDefinition(), createdNames)) {
+                deferred.add(pipeline);
+                continue;
+            }
             try {
                 pipeline.setJobsStatuses(new HashMap<>());
                 pipeline.setStatus(DRAFT_STATUS);
-                pipeline.setDefinition(replaceJobsIdsInPipeline(projectId, pipeline.getDefinition()));
-                create(projectId, pipeline);
-            } catch (DuplicateKeyException | JsonProcessingException | IllegalArgumentException e) {
+                pipeline.setDefinition(replaceJobsIdsInPipeline(pipeline.getDefinition(), jobIds, pipelineIds));
+                String id = pipelineIds.get(pipeline.getName());
+                boolean created = id == null;
+                if (created) {
+                    id = UUID.randomUUID().toString();
+                    createdNames.add(pipeline.getName());
+                } else {
+                    LOGGER.info("Pipeline '{}' exists. Updating it", pipeline.getName());
+                }
+                pipeline.setId(id);
+                pipeline.setLastModified(Instant.now().toString());
+                saveArgs.add(new Object[]{StorageKeys.getPipelineField(projectId, id), storageCodec.write(pipeline),
+                        "", created ? "1" : "0", id});
+                names.add(pipeline.getName());
+            } catch (JsonProcessingException | IllegalArgumentException e) {
                 LOGGER.error("Error occurred during importing pipelines: {}", e.getMessage());
                 importData.addToNotImportedPipelines(pipeline.getName());
                 importData.addToErrorsInPipelines(pipeline.getName(), e.getLocalizedMessage());
-            } catch (BadRequestException e) {
-                LOGGER.info("Pipeline '{}' exists. Updating it: {}", pipeline.getName(), e.getLocalizedMessage());
-                update(projectId, getIdByName(projectId, pipeline.getName()).orElseThrow(() -> new BadRequestException(
-                        "Pipeline with such a name '%s' doesn't exists in project '%s'",
-                        pipeline.getName(), projectId
-                )), pipeline);
             }
-        });
+        }
+        if (saveArgs.isEmpty()) {
+            return deferred;
+        }
+        List<Object> results = storageMetrics.recordRedis(StorageMetrics.PIPELINE, "import", projectId, saveArgs,
+                () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    saveArgs.forEach(args -> RedisScripts.evalInPipeline(connection, RedisScripts.SAVE_PIPELINE,
+                            getScriptKeys(projectId, args[4].toString()), args));
+                    return null;
+                }));
+        saveArgs.forEach(args -> documentCache.invalidate(args[0].toString()));
+        for (int i = 0; i < results.size(); i++) {
+            String id = saveArgs.get(i)[4].toString();
+            if (results.get(i) instanceof Long version && version > 0) {
+                pipelineIds.put(names.get(i), id);
+            } else {
+                String error = String.format("Pipeline with id %s already exists", id);
+                LOGGER.error("Error occurred during importing pipelines: {}", error);
+                importData.addToNotImportedPipelines(names.get(i));
+                importData.addToErrorsInPipelines(names.get(i), error);
+            }
+        }
+        return deferred;
+    }
+
+    /**
+     * Checks whether the pipeline's definition contains any of the pipelines.
+     *
+     * @param definitionJson pipeline's definition.
+     * @param pipelineNames  names of the pipelines.
+     * @return true if a stage of the pipeline runs one of the pipelines.
+     */
+    private static boolean containsAny(JsonNode definitionJson, Set<String> pipelineNames) {
+        if (definitionJson == null || pipelineNames.isEmpty()) {
+            return false;
+        }
+        for (JsonNode stage : definitionJson.path("graph")) {
+            JsonNode value = stage.path("value");
+            if (stage.path("vertex").asBoolean() && value.path(JOB_NAME_LABEL).asText().isEmpty()
+                    && pipelineNames.contains(value.path(PIPELINE_NAME_LABEL).asText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads IDs of all the pipelines in the project by their names.
+     *
+     * @param projectId project ID.
+     * @return pipeline IDs by pipeline names.
+     */
+    public Map<String, String> getIdsByNames(String projectId) {
+        storageKeys.moveProject(projectId);
+        Map<String, String> pipelineIds = new HashMap<>();
+        getAll(projectId, redisTemplate).getPipelines().forEach(pipeline -> pipelineIds.putIfAbsent(pipeline.getName(),
+                pipeline.getId()));
+        return pipelineIds;
     }
 
     /**
      * Method replaces old jobs IDs to new in pipelines.
      *
      * @param definitionJson source pipeline's definition.
+     * @param jobIds         IDs of the project's jobs by names.
+     * @param pipelineIds    IDs of the project's pipelines by names.
      * @return processed definition.
      */
-    private JsonNode replaceJobsIdsInPipeline(String projectId, JsonNode definitionJson) {
+    private JsonNode replaceJobsIdsInPipeline(JsonNode definitionJson, Map<String, String> jobIds,
+                                              Map<String, String> pipelineIds) {
         ObjectMapper mapper = new ObjectMapper();
         DefinitionDto definitionDto = mapper.convertValue(definitionJson, DefinitionDto.class);
         definitionDto.getGraph().stream()
                 .filter(StageDto::isVertex)
-                .forEach((StageDto node) -> replaceEntityWithActualInfo(projectId, node));
+                .forEach((StageDto node) -> replaceEntityWithActualInfo(node, jobIds, pipelineIds));
         return mapper.valueToTree(definitionDto);
     }
 
     /**
      * Secondary method for replacing all old job's ID's and pipeline's IDs by actual ones.
      *
-     * @param projectId current project ID.
-     * @param node      current entity node.
+     * @param node        current entity node.
+     * @param jobIds      IDs of the project's jobs by names.
+     * @param pipelineIds IDs of the project's pipelines by names.
      */
-    private void replaceEntityWithActualInfo(String projectId, StageDto node) {
+    private static void replaceEntityWithActualInfo(StageDto node, Map<String, String> jobIds,
+                                                    Map<String, String> pipelineIds) {
         Object jobName = node.getValue().get(JOB_NAME_LABEL);
         if (jobName != null && !jobName.toString().isEmpty()) {
-            jobService.findByName(projectId, jobName.toString())
-                    .ifPresentOrElse(job -> node.getValue().replace(JOB_ID_LABEL, job.getId()),
-                            () -> {
-                                throw new IllegalArgumentException(
-                                        String.format("Cannot find job for [%s] stage.",
-                                                node.getValue().getOrDefault("name", node.getId())));
-                            });
+            node.getValue().replace(JOB_ID_LABEL, findIdByName(jobIds, jobName.toString(), "job", node));
         } else {
             Object pipelineName = node.getValue().get(PIPELINE_NAME_LABEL);
             if (pipelineName != null && !pipelineName.toString().isEmpty()) {
-                getIdByName(projectId, pipelineName.toString())
-                        .ifPresentOrElse(pipId -> node.getValue().replace(PIPELINE_ID_LABEL, pipId),
-                                () -> {
-                                    throw new IllegalArgumentException(
-                                            String.format("Cannot find pipeline for [%s] stage.",
-                                                    node.getValue().getOrDefault("name", node.getId())));
-                                });
+                node.getValue().replace(PIPELINE_ID_LABEL,
+                        findIdByName(pipelineIds, pipelineName.toString(), "pipeline", node));
             }
         }
     }
 
+    private static String findIdByName(Map<String, String> ids, String name, String entityType, StageDto node) {
+        String id = ids.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException(String.format("Cannot find %s for [%s] stage.", entityType,
+                    node.getValue().getOrDefault("name", node.getId())));
+        }
+        return id;
+    }
+
 
     /**
      * Method for copying a job.
@@ -272,9 +551,10 @@ public class PipelineService implements Exportable<PipelineDto>, Importable<Pipe
      * @param pipelineId is a pipeline ID.
      */
     public void copy(String projectId, String pipelineId) throws JsonProcessingException {
+        storageKeys.moveProject(projectId);
         PipelineDto pipeline = getById(projectId, pipelineId);
         String currentName = pipeline.getName();
-        Set<String> availableNames = getAll(projectId).getPipelines().stream()
+        Set<String> availableNames = getAll(projectId, redisTemplate).getPipelines().stream()
                 .map(PipelineOverviewDto::getName)
                 .filter(name -> name.startsWith(currentName))
                 .collect(Collectors.toSet());
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.BundleEntryDto;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.JsonParseException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.TRANSFER_BATCH_SIZE;
+
+/**
+ * Non-blocking reading of the job and pipeline listings and of the exports. Entities are read from Redis
+ * batch by batch as the subscriber requests them, so a slow client holds neither a thread nor the whole listing.
+ */
+@Slf4j
+@Service
+public class ReactiveStorageService {
+    private static final int SCAN_COUNT = 100;
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+
+    private final JobStorageService jobService;
+
+    private final TransferService transferService;
+
+    private final StorageCodec storageCodec;
+
+    private final StorageKeys storageKeys;
+
+    public ReactiveStorageService(@Qualifier("replicaReactiveRedisTemplate")
+                                  ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+                                  JobStorageService jobService, TransferService transferService,
+                                  StorageCodec storageCodec, StorageKeys storageKeys) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.jobService = jobService;
+        this.transferService = transferService;
+        this.storageCodec = storageCodec;
+        this.storageKeys = storageKeys;
+    }
+
+    /**
+     * Reads overviews of all the jobs in the project. The jobs of a project without the overviews
+     * are read by {@link JobStorageService#getAll(String)}, which builds them.
+     *
+     * @param projectId project ID.
+     * @return job overviews.
+     */
+    public Flux<JobOverviewDto> getJobs(String projectId) {
+        return moveProject(projectId).thenMany(hash().scan(storageKeys.getJobOverviewsKey(projectId), scanOptions())
+                .map(entry -> JobStorageService.toOverviewDto(jobService.jsonToOverview(entry.getValue())))
+                .switchIfEmpty(Flux.defer(() -> Flux.fromIterable(jobService.getAll(projectId).getJobs()))
+                        .subscribeOn(Schedulers.boundedElastic())));
+    }
+
+    /**
+     * Reads all the pipelines in the project. In the key document layout a pipeline moved to its own key
+     * after it has been read from the hash is skipped by its field, see {@link DocumentStore}.
+     *
+     * @param projectId project ID.
+     * @return pipeline overviews.
+     */
+    public Flux<PipelineOverviewDto> getPipelines(String projectId) {
+        Flux<Map.Entry<String, String>> entries = hash().scan(storageKeys.getPipelinesKey(projectId), scanOptions());
+        if (storageKeys.isKeyPerDocument()) {
+            entries = entries.concatWith(reactiveRedisTemplate.opsForSet()
+                            .scan(storageKeys.getPipelineIdsKey(projectId), scanOptions())
+                            .map(id -> storageKeys.getPipelineKey(projectId, id))
+                            .buffer(SCAN_COUNT)
+                            .concatMap(this::readDocuments))
+                    .distinct(Map.Entry::getKey);
+        }
+        return moveProject(projectId).thenMany(entries.map(entry -> read(entry.getValue(),
+                PipelineOverviewDto.class)));
+    }
+
+    /**
+     * Reads the documents stored under their own keys.
+     *
+     * @param keys document keys.
+     * @return existing documents by their hash fields.
+     */
+    private Flux<Map.Entry<String, String>> readDocuments(List<String> keys) {
+        return reactiveRedisTemplate.opsForValue().multiGet(keys)
+                .flatMapIterable(documents -> {
+                    List<Map.Entry<String, String>> entries = new ArrayList<>();
+                    for (int i = 0; i < documents.size(); i++) {
+                        if (documents.get(i) != null) {
+                            entries.add(Map.entry(StorageKeys.toPlainKey(keys.get(i)), documents.get(i)));
+                        }
+                    }
+                    return entries;
+                });
+    }
+
+    /**
+     * Exports jobs and pipelines in the order of {@link TransferService#streamExport}. The IDs of the exported
+     * entities are collected first, then the entities are read in batches as they are requested.
+     *
+     * @param projectId        project ID.
+     * @param jobIds           job IDs for export.
+     * @param pipelineRequests pipelines IDs and flag with jobs.
+     * @return bundle entries.
+     */
+    public Flux<BundleEntryDto> export(String projectId, Set<String> jobIds,
+                                       Collection<ExportRequestDto.PipelineRequest> pipelineRequests) {
+        return moveProject(projectId)
+                .then(Mono.fromCallable(() -> transferService.collectExportedIds(projectId, jobIds, pipelineRequests))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMapMany(ids -> Flux.concat(
+                        Flux.fromIterable(ids.getJobIds()).buffer(TRANSFER_BATCH_SIZE)
+                                .concatMap(chunk -> readJobs(projectId, chunk)),
+                        Flux.fromIterable(ids.getPipelineIds()).buffer(TRANSFER_BATCH_SIZE)
+                                .concatMap(chunk -> readPipelines(projectId, chunk))));
+    }
+
+    private Flux<BundleEntryDto> readJobs(String projectId, List<String> ids) {
+        List<String> fields = ids.stream().map(id -> StorageKeys.getJobField(projectId, id)).toList();
+        List<String> documentKeys = storageKeys.isKeyPerDocument()
+                ? ids.stream().map(id -> storageKeys.getJobKey(projectId, id)).toList() : null;
+        return Mono.zip(multiGet(storageKeys.getJobsKey(projectId), fields, documentKeys),
+                        hash().multiGet(storageKeys.getJobOverviewsKey(projectId), ids))
+                .flatMapIterable(reply -> {
+                    List<BundleEntryDto> entries = new ArrayList<>();
+                    for (int i = 0; i < ids.size(); i++) {
+                        String job = reply.getT1().get(i);
+                        if (job != null) {
+                            entries.add(new BundleEntryDto(toJobDto(job, reply.getT2().get(i)), null));
+                        }
+                    }
+                    return entries;
+                });
+    }
+
+    private Flux<BundleEntryDto> readPipelines(String projectId, List<String> ids) {
+        List<String> fields = ids.stream().map(id -> StorageKeys.getPipelineField(projectId, id)).toList();
+        List<String> documentKeys = storageKeys.isKeyPerDocument()
+                ? ids.stream().map(id -> storageKeys.getPipelineKey(projectId, id)).toList() : null;
+        return multiGet(storageKeys.getPipelinesKey(projectId), fields, documentKeys)
+                .flatMapIterable(pipelines -> pipelines.stream()
+                        .filter(Objects::nonNull)
+                        .map(json -> new BundleEntryDto(null, read(json, PipelineDto.class)))
+                        .toList());
+    }
+
+    /**
+     * Reads several documents at once, like {@link DocumentStore#multiGet}, including the ones moved
+     * to their own keys while reading.
+     *
+     * @param hashKey      project hash.
+     * @param fields       documents' hash fields.
+     * @param documentKeys documents' keys in the same order as the fields, {@code null} in the hash layout.
+     * @return documents in the order of the fields, {@code null} for the missing ones.
+     */
+    private Mono<List<String>> multiGet(String hashKey, List<String> fields, List<String> documentKeys) {
+        if (documentKeys == null) {
+            return hash().multiGet(hashKey, fields);
+        }
+        return reactiveRedisTemplate.opsForValue().multiGet(documentKeys).flatMap((List<String> documents) -> {
+            List<String> values = new ArrayList<>(documents);
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) == null) {
+                    missing.add(i);
+                }
+            }
+            if (missing.isEmpty()) {
+                return Mono.just(values);
+            }
+            return hash().multiGet(hashKey, missing.stream().map(fields::get).toList())
+                    .flatMap((List<String> hashValues) -> {
+                        List<Integer> moved = new ArrayList<>();
+                        for (int i = 0; i < missing.size(); i++) {
+                            values.set(missing.get(i), hashValues.get(i));
+                            if (hashValues.get(i) == null) {
+                                moved.add(missing.get(i));
+                            }
+                        }
+                        if (moved.isEmpty()) {
+                            return Mono.just(values);
+                        }
+                        return reactiveRedisTemplate.opsForValue().multiGet(moved.stream().map(documentKeys::get)
+                                .toList()).map((List<String> movedValues) -> {
+                                    for (int i = 0; i < moved.size(); i++) {
+                                        values.set(moved.get(i), movedValues.get(i));
+                                    }
+                                    return values;
+                                });
+                    });
+        });
+    }
+
+    private JobDto toJobDto(String job, String overview) {
+        try {
+            return jobService.toJobDto(job, overview);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Error occurred during exporting jobs: {}", e.getMessage());
+            throw new JsonParseException(e.getMessage());
+        }
+    }
+
+    private <T> T read(String json, Class<T> valueType) {
+        try {
+            return storageCodec.read(json, valueType);
+        } catch (JsonProcessingException e) {
+            throw new JsonParseException(e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the keys of the project to the configured layout before reading them, see
+     * {@link StorageKeys#moveProject(String)}. The keys are moved by the blocking template.
+     *
+     * @param projectId project ID.
+     * @return completion of the move.
+     */
+    private Mono<Void> moveProject(String projectId) {
+        return Mono.fromRunnable(() -> storageKeys.moveProject(projectId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private ReactiveHashOperations<String, String, String> hash() {
+        return reactiveRedisTemplate.opsForHash();
+    }
+
+    private static ScanOptions scanOptions() {
+        return ScanOptions.scanOptions().count(SCAN_COUNT).build();
+    }
+}
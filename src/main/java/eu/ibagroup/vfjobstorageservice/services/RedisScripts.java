@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.services;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lua scripts executed by the storage services.
+ */
+@UtilityClass
+public class RedisScripts {
+
+    public static final long SCRIPT_SUCCESS = 1L;
+    public static final long SCRIPT_NAME_TAKEN = 0L;
+    public static final long SCRIPT_RUN_CHANGED = 0L;
+    public static final long SCRIPT_INDEX_MISSING = -1L;
+    public static final long SCRIPT_ALREADY_EXISTS = 0L;
+    public static final long SCRIPT_NOT_FOUND = -2L;
+    public static final long SCRIPT_VERSION_MISMATCH = -3L;
+
+    public static final RedisScript<List> GET_DOCUMENT = load("get-document.lua", List.class);
+    public static final RedisScript<Long> SAVE_JOB = load("save-job.lua", Long.class);
+    public static final RedisScript<Long> UPDATE_JOB_STATUS = load("update-job-status.lua", Long.class);
+    public static final RedisScript<Long> DELETE_JOB = load("delete-job.lua", Long.class);
+    public static final RedisScript<Long> REBUILD_INDEXES = load("rebuild-indexes.lua", Long.class);
+    public static final RedisScript<Long> SAVE_PIPELINE = load("save-pipeline.lua", Long.class);
+    public static final RedisScript<Long> DELETE_PIPELINE = load("delete-pipeline.lua", Long.class);
+    public static final RedisScript<List> SCAN_HASH = load("scan-hash.lua", List.class);
+    public static final RedisScript<List> SCAN_SET = load("scan-set.lua", List.class);
+    public static final RedisScript<Long> REWRITE_VALUE = load("rewrite-value.lua", Long.class);
+    public static final RedisScript<Long> MOVE_KEYS = load("move-keys.lua", Long.class);
+    public static final RedisScript<Long> SPLIT_DOCUMENT = load("split-document.lua", Long.class);
+
+    private static final Map<String, byte[]> SCRIPT_BODIES = new ConcurrentHashMap<>();
+    private static final StorageSerializer ARG_SERIALIZER = new StorageSerializer();
+
+    private static <T> RedisScript<T> load(String name, Class<T> resultType) {
+        return RedisScript.of(new ClassPathResource("scripts/" + name), resultType);
+    }
+
+    /**
+     * Queues the script on a pipelined connection. The script is sent with its body instead of SHA,
+     * since a script missing on the server cannot be reloaded in the middle of a pipeline.
+     *
+     * @param connection pipelined connection.
+     * @param script     script to execute.
+     * @param keys       script keys.
+     * @param args       script arguments.
+     */
+    public static void evalInPipeline(RedisConnection connection, RedisScript<?> script, List<String> keys,
+                                      Object... args) {
+        byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+        int index = 0;
+        for (String key : keys) {
+            keysAndArgs[index++] = RedisSerializer.string().serialize(key);
+        }
+        for (Object arg : args) {
+            keysAndArgs[index++] = ARG_SERIALIZER.serialize(arg.toString());
+        }
+        byte[] body = SCRIPT_BODIES.computeIfAbsent(script.getSha1(),
+                sha -> script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+        connection.scriptingCommands().eval(body, ReturnType.fromJavaType(script.getResultType()), keys.size(),
+                keysAndArgs);
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import eu.ibagroup.vfjobstorageservice.exceptions.JsonParseException;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec of the job, pipeline and connection documents stored in Redis.
+ * Documents are serialized to JSON or Smile and compressed with DEFLATE and a preset dictionary of the common
+ * definition fragments once they reach the threshold. A compressed document is a header character followed by one
+ * character per byte, which {@link StorageSerializer} stores as raw bytes, so it is told apart from plain JSON.
+ * Smile is recognized by its own header, therefore documents in any format are read regardless of the configured
+ * one. Job overviews are read by the Lua scripts and must never be written through the codec.
+ * <p>
+ * Smile documents below the threshold are stored uncompressed in the same binary way. The documents written in Base64
+ * before are still read.
+ */
+public class StorageCodec {
+    /**
+     * Header of the documents compressed with DEFLATE and the first version of the dictionary, which are stored
+     * in Base64 and only read.
+     */
+    static final char BASE64_DEFLATE_HEADER = '\u0001';
+    /**
+     * Header of the uncompressed binary documents stored in Base64, which are only read.
+     */
+    static final char BASE64_HEADER = '\u0002';
+    /**
+     * Header of the documents compressed with DEFLATE and the first version of the dictionary.
+     * A changed dictionary must get a new header, since the documents compressed before cannot be read without
+     * the old one.
+     */
+    static final char DEFLATE_HEADER = '\u0003';
+    /**
+     * Header of the uncompressed binary documents.
+     */
+    static final char BINARY_HEADER = '\u0004';
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] DICTIONARY = ("\"params\":{\"DRIVER_CORES\":\"1\",\"DRIVER_MEMORY\":\"1G\"," +
+            "\"EXECUTOR_REQUEST_CORES\":\"0.1\",\"SHUFFLE_PARTITIONS\":\"10\",\"TAGS\":[],\"UP_TO\":\"\"," +
+            "\"INTERVALS\":\"\"},\"lastModified\":\"\",\"status\":\"Draft\",\"runnable\":true,\"editable\":true," +
+            "\"connectionName\":\"\",\"storage\":\"\",\"schema\":\"\",\"table\":\"\",\"path\":\"\",\"format\":\"\"," +
+            "\"operation\":\"READ\",\"operation\":\"WRITE\",\"operation\":\"FILTER\",\"operation\":\"JOIN\"," +
+            "\"operation\":\"TRANSFORM\",\"operation\":\"JOB\",\"jobId\":\"\",\"operation\":\"PIPELINE\"," +
+            "\"pipelineId\":\"\",\"operation\":\"EDGE\",\"successPath\":\"true\",\"text\":\"\"},\"geometry\":" +
+            "{\"x\":0,\"y\":0,\"width\":0,\"height\":0,\"relative\":true,\"TRANSLATE_CONTROL_POINTS\":true," +
+            "\"alternateBounds\":null,\"sourcePoint\":null,\"targetPoint\":null,\"points\":null,\"offset\":null}," +
+            "\"style\":\"fillColor=#E8F0FF;\",\"id\":\"\",\"edge\":true,\"vertex\":true,\"connectable\":true," +
+            "\"parent\":\"1\",\"source\":null,\"target\":null,\"mxObjectId\":\"mxCell#\",\"edges\":[{\"value\":{" +
+            "\"name\":\"\",\"definition\":{\"graph\":[{\"value\":{").getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    @Getter
+    private final Format format;
+    @Getter
+    private final Compression compression;
+    private final int threshold;
+    private final StorageMetrics metrics;
+
+    /**
+     * Creates the codec, which writes plain JSON.
+     *
+     * @param objectMapper object mapper.
+     */
+    public StorageCodec(ObjectMapper objectMapper) {
+        this(objectMapper, Format.JSON, Compression.NONE, 0);
+    }
+
+    /**
+     * Creates the codec without metrics.
+     *
+     * @param objectMapper object mapper, its configuration is used for Smile as well.
+     * @param format       format of the written documents.
+     * @param compression  compression of the written documents.
+     * @param threshold    minimal size of the serialized document to compress it.
+     */
+    public StorageCodec(ObjectMapper objectMapper, Format format, Compression compression, int threshold) {
+        this(objectMapper, format, compression, threshold, StorageMetrics.disabled());
+    }
+
+    /**
+     * Creates the codec.
+     *
+     * @param objectMapper object mapper, its configuration is used for Smile as well.
+     * @param format       format of the written documents.
+     * @param compression  compression of the written documents.
+     * @param threshold    minimal size of the serialized document to compress it.
+     * @param metrics      metrics of the serialization time and the documents' size.
+     */
+    public StorageCodec(ObjectMapper objectMapper, Format format, Compression compression, int threshold,
+                        StorageMetrics metrics) {
+        this.objectMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.format = format;
+        this.compression = compression;
+        this.threshold = threshold;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Serializes the document for storing.
+     *
+     * @param value document.
+     * @return stored value.
+     * @throws JsonProcessingException if the document cannot be serialized.
+     */
+    public String write(Object value) throws JsonProcessingException {
+        long start = System.nanoTime();
+        String result = encode((format == Format.SMILE ? smileMapper : objectMapper).writeValueAsBytes(value));
+        metrics.recordWrite(value.getClass(), result.length(), System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Deserializes the stored document in any format.
+     *
+     * @param value     stored value.
+     * @param valueType document class.
+     * @param <T>       document type.
+     * @return document.
+     * @throws JsonProcessingException if the document cannot be deserialized.
+     */
+    public <T> T read(String value, Class<T> valueType) throws JsonProcessingException {
+        if (value == null) {
+            // a missing document fails the same way in any format
+            return objectMapper.readValue(value, valueType);
+        }
+        long start = System.nanoTime();
+        T result = decode(value, valueType);
+        metrics.recordRead(valueType, value.length(), System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Rewrites the stored document in the configured format and compression.
+     *
+     * @param value stored value.
+     * @return the value written in the configured way, equal to the stored one if it is already written so.
+     * @throws JsonProcessingException if the document cannot be read.
+     */
+    public String rewrite(String value) throws JsonProcessingException {
+        return write(read(value, JsonNode.class));
+    }
+
+    /**
+     * Checks whether the stored value is a binary document.
+     *
+     * @param value stored value.
+     * @return true if the value starts with a header of the binary document.
+     */
+    static boolean isBinary(String value) {
+        return !value.isEmpty() && (value.charAt(0) == DEFLATE_HEADER || value.charAt(0) == BINARY_HEADER);
+    }
+
+    private String encode(byte[] data) {
+        if (compression == Compression.DEFLATE && data.length >= threshold) {
+            return DEFLATE_HEADER + new String(deflate(data), StandardCharsets.ISO_8859_1);
+        }
+        if (format == Format.SMILE) {
+            return BINARY_HEADER + new String(data, StandardCharsets.ISO_8859_1);
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private <T> T decode(String value, Class<T> valueType) throws JsonProcessingException {
+        if (value.isEmpty() || value.charAt(0) > BINARY_HEADER) {
+            return objectMapper.readValue(value, valueType);
+        }
+        byte[] data;
+        if (value.charAt(0) == BINARY_HEADER) {
+            data = value.substring(1).getBytes(StandardCharsets.ISO_8859_1);
+        } else if (value.charAt(0) == DEFLATE_HEADER) {
+            data = inflate(value.substring(1).getBytes(StandardCharsets.ISO_8859_1));
+        } else if (value.charAt(0) == BASE64_DEFLATE_HEADER) {
+            data = inflate(Base64.getDecoder().decode(value.substring(1)));
+        } else {
+            data = Base64.getDecoder().decode(value.substring(1));
+        }
+        try {
+            return (isSmile(data) ? smileMapper : objectMapper).readValue(data, valueType);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isSmile(byte[] data) {
+        return data.length >= SMILE_HEADER.length
+                && Arrays.equals(data, 0, SMILE_HEADER.length, SMILE_HEADER, 0, SMILE_HEADER.length);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 4 + 16);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsDictionary()) {
+                    inflater.setDictionary(DICTIONARY);
+                } else if (count == 0 && inflater.needsInput()) {
+                    throw new DataFormatException("Unexpected end of the compressed document");
+                }
+                output.write(buffer, 0, count);
+            }
+            return output.toByteArray();
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw new JsonParseException("Unable to decompress the stored document: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Format of the written documents.
+     */
+    public enum Format {
+        JSON,
+        SMILE
+    }
+
+    /**
+     * Compression of the written documents.
+     */
+    public enum Compression {
+        NONE,
+        DEFLATE
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds the Redis calls, which hurt the storage: logs the calls slower than the threshold together with
+ * the project, the number of the read entries and the payload size, and counts the calls per project key
+ * to tell the hot keys. Slow calls are logged at most the configured number of times a minute,
+ * the rest of them are only counted and reported with the next logged one.
+ * Calls are counted on this instance since its start, the least used keys are dropped first once
+ * the number of the counted keys reaches the limit.
+ */
+@Slf4j
+public class StorageDiagnostics {
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(1);
+
+    private final long thresholdNanos;
+    private final int logsPerMinute;
+    private final Cache<KeyAccess, LongAdder> accesses;
+    private final Instant countedSince = Instant.now();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger logged = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * Creates the diagnostics.
+     *
+     * @param threshold     minimal duration of a logged call, zero to log none of them.
+     * @param logsPerMinute maximal number of the logged calls a minute.
+     * @param trackedKeys   maximal number of the counted project keys, zero to count none of them.
+     */
+    public StorageDiagnostics(Duration threshold, int logsPerMinute, long trackedKeys) {
+        this.thresholdNanos = threshold.toNanos();
+        this.logsPerMinute = logsPerMinute;
+        this.accesses = trackedKeys > 0 ? Caffeine.newBuilder().maximumSize(trackedKeys).build() : null;
+    }
+
+    /**
+     * Creates the diagnostics, which neither log nor count anything.
+     *
+     * @return disabled diagnostics.
+     */
+    public static StorageDiagnostics disabled() {
+        return new StorageDiagnostics(Duration.ZERO, 0, 0);
+    }
+
+    /**
+     * Records the Redis call.
+     *
+     * @param entity    entity type.
+     * @param operation storage operation.
+     * @param projectId project ID.
+     * @param nanos     duration of the call in nanoseconds.
+     * @param result    result of the call.
+     * @param payload   data sent to Redis, {@code null} if it isn't of interest.
+     */
+    public void record(String entity, String operation, String projectId, long nanos, Object result,
+                       Object payload) {
+        if (accesses != null) {
+            accesses.get(new KeyAccess(entity, projectId), key -> new LongAdder()).increment();
+        }
+        if (thresholdNanos > 0 && nanos >= thresholdNanos) {
+            logSlow(entity, operation, projectId, nanos, result, payload);
+        }
+    }
+
+    private void logSlow(String entity, String operation, String projectId, long nanos, Object result,
+                         Object payload) {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW && windowStart.compareAndSet(start, now)) {
+            logged.set(0);
+        }
+        if (logged.incrementAndGet() > logsPerMinute) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        LOGGER.warn("Slow Redis call {} {} in project '{}': {} ms, {} entries, {} bytes, {} slow calls suppressed",
+                entity, operation, projectId, TimeUnit.NANOSECONDS.toMillis(nanos), countEntries(result),
+                countBytes(result) + countBytes(payload), suppressed.getAndSet(0));
+    }
+
+    /**
+     * Gets the most frequently used project keys.
+     *
+     * @param limit maximal number of the keys.
+     * @return keys with the number of the calls, the most used first.
+     */
+    public List<KeyAccess> getHottest(int limit) {
+        if (accesses == null) {
+            return List.of();
+        }
+        return accesses.asMap().entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<KeyAccess, LongAdder> entry) -> entry.getValue().sum())
+                        .reversed())
+                .limit(limit)
+                .map(entry -> entry.getKey().withCount(entry.getValue().sum()))
+                .toList();
+    }
+
+    public Instant getCountedSince() {
+        return countedSince;
+    }
+
+    private static long countEntries(Object result) {
+        if (result instanceof Collection<?> values) {
+            return values.size();
+        }
+        if (result instanceof Map<?, ?> values) {
+            return values.size();
+        }
+        return result == null ? 0 : 1;
+    }
+
+    /**
+     * Estimates the size of the data exchanged with Redis by the length of its strings.
+     *
+     * @param value result or arguments of the call.
+     * @return size in bytes, exact for ASCII strings.
+     */
+    private static long countBytes(Object value) {
+        if (value instanceof String string) {
+            return string.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (value instanceof Object[] values) {
+            return countBytes(List.of(values));
+        }
+        if (value instanceof Collection<?> values) {
+            return values.stream().mapToLong(StorageDiagnostics::countBytes).sum();
+        }
+        if (value instanceof Map<?, ?> values) {
+            return countBytes(values.keySet()) + countBytes(values.values());
+        }
+        return 0;
+    }
+
+    /**
+     * Project key, which has been used by the calls of the entity's storage operations.
+     *
+     * @param entity    entity type.
+     * @param projectId project ID.
+     * @param count     number of the calls.
+     */
+    public record KeyAccess(String entity, String projectId, long count) {
+        KeyAccess(String entity, String projectId) {
+            this(entity, projectId, 0);
+        }
+
+        KeyAccess withCount(long calls) {
+            return new KeyAccess(entity, projectId, calls);
+        }
+    }
+}
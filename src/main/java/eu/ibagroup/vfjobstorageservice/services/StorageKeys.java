@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.JOB_KEY_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.JOB_NAME_INDEX_SUFFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.JOB_OVERVIEW_SUFFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PIPELINE_IDS_SUFFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PIPELINE_KEY_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_CONNECTION_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_KEY_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.VERSIONS_SUFFIX;
+
+/**
+ * Builds the Redis keys of the projects in the configured layout.
+ * In the cluster layout the project ID is wrapped into a hash tag, e.g. {@code project:{projectId}:versions},
+ * so all the keys of a project are stored in one hash slot and the Lua scripts can change them atomically
+ * in Redis Cluster. Hash fields, cached document keys and invalidation messages do not depend on the layout.
+ * If the keys are moved to the cluster layout on a single Redis node, the keys of a project are moved
+ * before its first change, so the project stays writable while {@link StorageMigrationService} moves all of them.
+ * The project is moved before it is read as well, so a project, which has not been changed or migrated yet,
+ * does not read as empty. The keys are moved by a script, which does not declare the keys of the single documents,
+ * so the migration must be completed on the single node before switching to Redis Cluster: with a cluster-aware
+ * connection the keys are not moved and {@link StorageMigrationService} refuses to start while plain keys remain.
+ * <p>
+ * In the key document layout every job and pipeline is stored under its own key, e.g. {@code project:X:job:ID},
+ * instead of being a field of the project hash, and pipeline IDs are kept in a set. Job IDs are already
+ * the fields of the job overviews. Documents not moved out of the project hashes yet are still read from there.
+ */
+public class StorageKeys {
+    private static final String TAG_START = "{";
+    private static final String TAG_END = "}";
+    private static final int MAX_MOVED_PROJECTS = 10_000;
+    private final Layout layout;
+    private final DocumentLayout documentLayout;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<String, CompletableFuture<Long>> movedProjects = Caffeine.newBuilder()
+            .maximumSize(MAX_MOVED_PROJECTS)
+            .<String, CompletableFuture<Long>>build()
+            .asMap();
+
+    /**
+     * Creates the keys, which are used as is.
+     *
+     * @param layout key layout.
+     */
+    public StorageKeys(Layout layout) {
+        this(layout, DocumentLayout.HASH, null);
+    }
+
+    /**
+     * Creates the keys, which move the project's keys from the plain layout before its first change.
+     *
+     * @param layout         key layout.
+     * @param documentLayout document layout.
+     * @param redisTemplate  template to move the keys with, {@code null} if the keys are not moved.
+     */
+    public StorageKeys(Layout layout, DocumentLayout documentLayout, RedisTemplate<String, String> redisTemplate) {
+        this.layout = layout;
+        this.documentLayout = documentLayout;
+        this.redisTemplate = layout == Layout.PLAIN ? null : redisTemplate;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public DocumentLayout getDocumentLayout() {
+        return documentLayout;
+    }
+
+    /**
+     * Checks whether the project keys are moved from the plain layout on the first access.
+     *
+     * @return whether the keys are moved.
+     */
+    public boolean isMovingProjects() {
+        return redisTemplate != null;
+    }
+
+    public boolean isKeyPerDocument() {
+        return documentLayout == DocumentLayout.KEY;
+    }
+
+    public String getJobsKey(String projectId) {
+        return PROJECT_KEY_PREFIX + toProjectTag(projectId);
+    }
+
+    public String getJobNamesKey(String projectId) {
+        return getJobsKey(projectId) + JOB_NAME_INDEX_SUFFIX;
+    }
+
+    public String getJobOverviewsKey(String projectId) {
+        return getJobsKey(projectId) + JOB_OVERVIEW_SUFFIX;
+    }
+
+    public String getVersionsKey(String projectId) {
+        return getJobsKey(projectId) + VERSIONS_SUFFIX;
+    }
+
+    public String getPipelinesKey(String projectId) {
+        return getJobsKey(projectId) + PIPELINE_KEY_PREFIX;
+    }
+
+    public String getConnectionsKey(String projectId) {
+        return PROJECT_CONNECTION_PREFIX + toProjectTag(projectId);
+    }
+
+    public String getPipelineIdsKey(String projectId) {
+        return getJobsKey(projectId) + PIPELINE_IDS_SUFFIX;
+    }
+
+    /**
+     * Builds the key of the job in the key document layout.
+     *
+     * @param projectId project ID.
+     * @param jobId     job ID.
+     * @return job's key.
+     */
+    public String getJobKey(String projectId, String jobId) {
+        return getJobsKey(projectId) + JOB_KEY_PREFIX + jobId;
+    }
+
+    /**
+     * Builds the key of the pipeline in the key document layout.
+     *
+     * @param projectId  project ID.
+     * @param pipelineId pipeline ID.
+     * @return pipeline's key.
+     */
+    public String getPipelineKey(String projectId, String pipelineId) {
+        return getPipelinesKey(projectId) + pipelineId;
+    }
+
+    /**
+     * Builds the hash field of the job, which is also the key of the cached job.
+     *
+     * @param projectId project ID.
+     * @param jobId     job ID.
+     * @return job's hash field.
+     */
+    public static String getJobField(String projectId, String jobId) {
+        return PROJECT_KEY_PREFIX + projectId + JOB_KEY_PREFIX + jobId;
+    }
+
+    /**
+     * Builds the hash field of the pipeline, which is also the key of the cached pipeline.
+     *
+     * @param projectId  project ID.
+     * @param pipelineId pipeline ID.
+     * @return pipeline's hash field.
+     */
+    public static String getPipelineField(String projectId, String pipelineId) {
+        return PROJECT_KEY_PREFIX + projectId + PIPELINE_KEY_PREFIX + pipelineId;
+    }
+
+    /**
+     * Moves the keys of the project from the plain layout, unless they have been recently moved by this instance.
+     * Must be called before reading or changing the project. The keys are moved by one script, so other instances
+     * see either all or none of them moved. Only the recently moved projects are remembered, since moving them
+     * again changes nothing.
+     * Concurrent requests to the same project wait for the move outside of the map's locks, so the waiting
+     * virtual threads do not pin their carriers.
+     *
+     * @param projectId project ID.
+     * @return number of the moved keys.
+     */
+    public long moveProject(String projectId) {
+        if (redisTemplate == null) {
+            return 0;
+        }
+        CompletableFuture<Long> move = new CompletableFuture<>();
+        CompletableFuture<Long> previous = movedProjects.putIfAbsent(projectId, move);
+        if (previous != null) {
+            previous.join();
+            return 0;
+        }
+        try {
+            String tag = TAG_START + projectId + TAG_END;
+            List<String> keys = Stream.concat(getProjectKeys(projectId).stream(), getProjectKeys(tag).stream())
+                    .toList();
+            long moved = Objects.requireNonNullElse(redisTemplate.execute(RedisScripts.MOVE_KEYS, keys,
+                    PROJECT_KEY_PREFIX + projectId + JOB_KEY_PREFIX, PROJECT_KEY_PREFIX + tag + JOB_KEY_PREFIX,
+                    PROJECT_KEY_PREFIX + projectId + PIPELINE_KEY_PREFIX,
+                    PROJECT_KEY_PREFIX + tag + PIPELINE_KEY_PREFIX), 0L);
+            move.complete(moved);
+            return moved;
+        } catch (RuntimeException e) {
+            movedProjects.remove(projectId, move);
+            move.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static List<String> getProjectKeys(String project) {
+        String jobsKey = PROJECT_KEY_PREFIX + project;
+        return List.of(jobsKey, jobsKey + JOB_NAME_INDEX_SUFFIX, jobsKey + JOB_OVERVIEW_SUFFIX,
+                jobsKey + VERSIONS_SUFFIX, jobsKey + PIPELINE_KEY_PREFIX, PROJECT_CONNECTION_PREFIX + project,
+                jobsKey + PIPELINE_IDS_SUFFIX);
+    }
+
+    /**
+     * Gets the project ID from the key of a project in any layout.
+     *
+     * @param key Redis key.
+     * @return project ID, {@code null} if the key does not belong to a project.
+     */
+    public static String getProjectId(String key) {
+        String prefix;
+        if (key.startsWith(PROJECT_KEY_PREFIX)) {
+            prefix = PROJECT_KEY_PREFIX;
+        } else if (key.startsWith(PROJECT_CONNECTION_PREFIX)) {
+            prefix = PROJECT_CONNECTION_PREFIX;
+        } else {
+            return null;
+        }
+        if (key.startsWith(TAG_START, prefix.length())) {
+            int end = key.indexOf(TAG_END, prefix.length());
+            return end < 0 ? null : key.substring(prefix.length() + 1, end);
+        }
+        int separator = key.indexOf(':', prefix.length());
+        return separator < 0 ? key.substring(prefix.length()) : key.substring(prefix.length(), separator);
+    }
+
+    /**
+     * Checks whether the key in any layout belongs to a hash of jobs, pipelines or connections,
+     * rather than to an index.
+     *
+     * @param key Redis key.
+     * @return whether the hash holds documents.
+     */
+    public static boolean isDocumentHash(String key) {
+        String plainKey = toPlainKey(key);
+        if (plainKey.startsWith(PROJECT_CONNECTION_PREFIX)) {
+            return plainKey.indexOf(':', PROJECT_CONNECTION_PREFIX.length()) < 0;
+        }
+        int separator = plainKey.indexOf(':', PROJECT_KEY_PREFIX.length());
+        return separator < 0 || PIPELINE_KEY_PREFIX.equals(plainKey.substring(separator));
+    }
+
+    /**
+     * Checks whether the key in any layout belongs to a single job or pipeline in the key document layout.
+     *
+     * @param key Redis key.
+     * @return whether the key holds a document.
+     */
+    public static boolean isDocumentKey(String key) {
+        String plainKey = toPlainKey(key);
+        if (!plainKey.startsWith(PROJECT_KEY_PREFIX)) {
+            return false;
+        }
+        int separator = plainKey.indexOf(':', PROJECT_KEY_PREFIX.length());
+        if (separator < 0) {
+            return false;
+        }
+        String suffix = plainKey.substring(separator);
+        return suffix.length() > JOB_KEY_PREFIX.length() && suffix.startsWith(JOB_KEY_PREFIX)
+                || suffix.length() > PIPELINE_KEY_PREFIX.length() && suffix.startsWith(PIPELINE_KEY_PREFIX);
+    }
+
+    /**
+     * Converts the key in any layout to the plain one, which the hash fields and the cached documents start with.
+     *
+     * @param key Redis key.
+     * @return key in the plain layout.
+     */
+    public static String toPlainKey(String key) {
+        int start = key.indexOf(TAG_START);
+        int end = key.indexOf(TAG_END, start + 1);
+        if (start < 0 || end < 0) {
+            return key;
+        }
+        return key.substring(0, start) + key.substring(start + 1, end) + key.substring(end + 1);
+    }
+
+    private String toProjectTag(String projectId) {
+        return layout == Layout.CLUSTER ? TAG_START + projectId + TAG_END : projectId;
+    }
+
+    /**
+     * Layout of the project keys.
+     */
+    public enum Layout {
+        PLAIN, CLUSTER
+    }
+
+    /**
+     * Layout of the job and pipeline documents: fields of the project hashes or a key per document.
+     */
+    public enum DocumentLayout {
+        HASH, KEY
+    }
+}
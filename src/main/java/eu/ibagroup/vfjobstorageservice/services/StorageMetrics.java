@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of the storage, which tell the time spent in Redis from the time spent in JSON:
+ * <ul>
+ *     <li>{@value #REDIS} - latency of the Redis calls per entity and operation;</li>
+ *     <li>{@value #SERIALIZATION} - serialization and deserialization time per document type;</li>
+ *     <li>{@value #DOCUMENT_SIZE} - size of the written and read documents per document type;</li>
+ *     <li>{@value #ENTRIES} - number of the entries read by a listing per entity and operation.</li>
+ * </ul>
+ * Latency of every Redis command, including the network, is recorded by Lettuce itself.
+ * The Redis calls are observed, so they are also traced as spans with the Redis commands inside them,
+ * as well as the methods of the storage services ({@value #SERVICE}).
+ * The Redis calls are also passed to {@link StorageDiagnostics}, which logs the slow ones and counts the hot keys.
+ */
+@Component
+public class StorageMetrics {
+    public static final String REDIS = "storage.redis";
+    public static final String SERIALIZATION = "storage.serialization";
+    public static final String DOCUMENT_SIZE = "storage.document.size";
+    public static final String ENTRIES = "storage.entries";
+    public static final String SERVICE = "storage.service";
+    public static final String JOB = "job";
+    public static final String PIPELINE = "pipeline";
+    public static final String CONNECTION = "connection";
+    private static final String ENTITY_TAG = "entity";
+    private static final String OPERATION_TAG = "operation";
+    private static final String TYPE_TAG = "type";
+    private static final String ACTION_TAG = "action";
+    private static final String READ = "read";
+    private static final String WRITE = "write";
+
+    private final MeterRegistry registry;
+    private final ObservationRegistry observationRegistry;
+    private final StorageDiagnostics diagnostics;
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StorageMetrics(MeterRegistry registry, ObservationRegistry observationRegistry,
+                          StorageDiagnostics diagnostics) {
+        this.registry = registry;
+        this.observationRegistry = observationRegistry;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Creates metrics, which observe the Redis calls only to time them in the registry.
+     *
+     * @param registry meter registry.
+     */
+    public StorageMetrics(MeterRegistry registry) {
+        this(registry, ObservationRegistry.create(), StorageDiagnostics.disabled());
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(registry));
+    }
+
+    /**
+     * Creates metrics, which are not published anywhere.
+     *
+     * @return metrics without a registry.
+     */
+    public static StorageMetrics disabled() {
+        return new StorageMetrics(new CompositeMeterRegistry(), ObservationRegistry.NOOP,
+                StorageDiagnostics.disabled());
+    }
+
+    /**
+     * Executes the Redis call within an observation, which records its latency.
+     *
+     * @param entity    entity type.
+     * @param operation storage operation.
+     * @param projectId project ID.
+     * @param call      Redis call.
+     * @param <T>       result type.
+     * @return result of the call.
+     */
+    public <T> T recordRedis(String entity, String operation, String projectId, Supplier<T> call) {
+        return recordRedis(entity, operation, projectId, null, call);
+    }
+
+    /**
+     * Executes the Redis call, which sends data to Redis, within an observation, which records its latency.
+     *
+     * @param entity    entity type.
+     * @param operation storage operation.
+     * @param projectId project ID.
+     * @param payload   sent data to report if the call is slow.
+     * @param call      Redis call.
+     * @param <T>       result type.
+     * @return result of the call.
+     */
+    public <T> T recordRedis(String entity, String operation, String projectId, Object payload, Supplier<T> call) {
+        long start = System.nanoTime();
+        T result = Observation.createNotStarted(REDIS, observationRegistry)
+                .contextualName(entity + " " + operation)
+                .lowCardinalityKeyValue(ENTITY_TAG, entity)
+                .lowCardinalityKeyValue(OPERATION_TAG, operation)
+                .observe(call);
+        diagnostics.record(entity, operation, projectId, System.nanoTime() - start, result, payload);
+        return result;
+    }
+
+    /**
+     * Executes the Redis call without a result and records its latency.
+     *
+     * @param entity    entity type.
+     * @param operation storage operation.
+     * @param projectId project ID.
+     * @param payload   sent data to report if the call is slow.
+     * @param call      Redis call.
+     */
+    public void recordRedis(String entity, String operation, String projectId, Object payload, Runnable call) {
+        recordRedis(entity, operation, projectId, payload, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records the number of the entries read by a listing.
+     *
+     * @param entity    entity type.
+     * @param operation storage operation.
+     * @param entries   number of the entries.
+     */
+    public void recordEntries(String entity, String operation, int entries) {
+        summaries.computeIfAbsent(new MeterKey(ENTRIES, entity, operation), key -> DistributionSummary
+                        .builder(ENTRIES)
+                        .description("Number of the entries read from Redis per request")
+                        .tag(ENTITY_TAG, entity)
+                        .tag(OPERATION_TAG, operation)
+                        .register(registry))
+                .record(entries);
+    }
+
+    /**
+     * Records deserialization of a document.
+     *
+     * @param type  document class.
+     * @param size  stored size of the document.
+     * @param nanos deserialization time in nanoseconds.
+     */
+    public void recordRead(Class<?> type, int size, long nanos) {
+        record(type.getSimpleName(), READ, size, nanos);
+    }
+
+    /**
+     * Records serialization of a document.
+     *
+     * @param type  document class.
+     * @param size  stored size of the document.
+     * @param nanos serialization time in nanoseconds.
+     */
+    public void recordWrite(Class<?> type, int size, long nanos) {
+        record(type.getSimpleName(), WRITE, size, nanos);
+    }
+
+    private void record(String type, String action, int size, long nanos) {
+        timers.computeIfAbsent(new MeterKey(SERIALIZATION, type, action), key -> Timer.builder(SERIALIZATION)
+                        .description("Time of the stored documents' serialization and deserialization")
+                        .tag(TYPE_TAG, type)
+                        .tag(ACTION_TAG, action)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        summaries.computeIfAbsent(new MeterKey(DOCUMENT_SIZE, type, action), key -> DistributionSummary
+                        .builder(DOCUMENT_SIZE)
+                        .description("Size of the stored documents in characters, one per byte for the binary ones")
+                        .baseUnit("bytes")
+                        .tag(TYPE_TAG, type)
+                        .tag(ACTION_TAG, action)
+                        .register(registry))
+                .record(size);
+    }
+
+    private record MeterKey(String name, String first, String second) {
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import eu.ibagroup.vfjobstorageservice.dto.StorageMigrationDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.ConfigurationException;
+import eu.ibagroup.vfjobstorageservice.exceptions.ConflictException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.JOB_KEY_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.KEY_LAYOUT_KEY;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PIPELINE_KEY_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_CONNECTION_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_KEY_PREFIX;
+
+/**
+ * Moves the project keys to the layout configured for {@link StorageKeys} and rewrites the stored jobs,
+ * pipelines and connections in the format and compression configured for {@link StorageCodec}.
+ * All the keys of a project are moved at once. The documents are rewritten in the background, hash by hash,
+ * and a document is replaced only if it has not been changed since it was read, so the migration runs safely
+ * alongside regular requests. In the key document layout jobs and pipelines are moved out of the project hashes
+ * to their own keys the same way. The job overviews and the name index of a project, which was created before
+ * they were introduced, are built before its jobs are moved, since the jobs without overviews are not listed.
+ * Versions of the documents are kept, since their content does not change.
+ * A completed move to the cluster layout is recorded, so the service can be switched to Redis Cluster,
+ * where the projects cannot be moved.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageMigrationService {
+    private static final int SCAN_COUNT = 100;
+    private static final List<String> PLAIN_KEY_PATTERNS = List.of(PROJECT_KEY_PREFIX + "[^{]*",
+            PROJECT_CONNECTION_PREFIX + "[^{]*");
+    private final RedisTemplate<String, String> redisTemplate;
+    private final StorageCodec storageCodec;
+    private final StorageKeys storageKeys;
+    private final JobStorageService jobService;
+    private final TaskExecutor taskExecutor;
+    private final AtomicReference<Migration> lastMigration = new AtomicReference<>();
+
+    /**
+     * Starts the migration in the background.
+     *
+     * @return status of the started migration.
+     */
+    public StorageMigrationDto start() {
+        Migration previous = lastMigration.get();
+        Migration migration = new Migration();
+        if ((previous != null && previous.finishedAt == null) || !lastMigration.compareAndSet(previous, migration)) {
+            throw new ConflictException("Storage migration is already running");
+        }
+        LOGGER.info("Starting storage migration to {} key layout, {} document layout, {} format with {} compression",
+                storageKeys.getLayout(), storageKeys.getDocumentLayout(), storageCodec.getFormat(),
+                storageCodec.getCompression());
+        taskExecutor.execute(() -> migrate(migration));
+        return migration.toDto();
+    }
+
+    /**
+     * Gets the status of the last migration.
+     *
+     * @return status of the last migration, {@code null} if there has been no migration yet.
+     */
+    public StorageMigrationDto getStatus() {
+        Migration migration = lastMigration.get();
+        return migration == null ? null : migration.toDto();
+    }
+
+    /**
+     * Checks that the projects do not need to be moved to the cluster layout, when they cannot be moved,
+     * i.e. with a Redis Cluster connection. Otherwise the projects left in the plain layout would read as empty.
+     * The check passes if a completed move has been recorded or there are no keys in the plain layout,
+     * which is recorded as well.
+     *
+     * @throws ConfigurationException if there are keys in the plain layout.
+     */
+    @PostConstruct
+    public void checkKeyLayout() {
+        if (storageKeys.getLayout() != StorageKeys.Layout.CLUSTER || storageKeys.isMovingProjects()
+                || StorageKeys.Layout.CLUSTER.name().equals(redisTemplate.opsForValue().get(KEY_LAYOUT_KEY))) {
+            return;
+        }
+        if (Boolean.TRUE.equals(redisTemplate.execute((RedisCallback<Boolean>) this::hasPlainKeys))) {
+            throw new ConfigurationException("Projects are stored in the plain key layout. They must be moved "
+                    + "to the cluster key layout by the storage migration on a single Redis node first");
+        }
+        redisTemplate.opsForValue().set(KEY_LAYOUT_KEY, StorageKeys.Layout.CLUSTER.name());
+    }
+
+    private boolean hasPlainKeys(RedisConnection connection) {
+        for (String pattern : PLAIN_KEY_PATTERNS) {
+            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+            if (connection instanceof RedisClusterConnection cluster) {
+                for (RedisClusterNode node : cluster.clusterGetNodes()) {
+                    if (node.isMaster() && hasNext(cluster.scan(node, options))) {
+                        return true;
+                    }
+                }
+            } else if (hasNext(connection.keyCommands().scan(options))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasNext(Cursor<byte[]> keys) {
+        try (keys) {
+            return keys.hasNext();
+        }
+    }
+
+    private void migrate(Migration migration) {
+        try {
+            if (storageKeys.getLayout() != StorageKeys.Layout.PLAIN) {
+                moveProjects(PROJECT_KEY_PREFIX + "*", migration);
+                moveProjects(PROJECT_CONNECTION_PREFIX + "*", migration);
+            }
+            migrateHashes(PROJECT_KEY_PREFIX + "*", migration);
+            migrateHashes(PROJECT_CONNECTION_PREFIX + "*", migration);
+            if (storageKeys.getLayout() == StorageKeys.Layout.CLUSTER) {
+                redisTemplate.opsForValue().set(KEY_LAYOUT_KEY, StorageKeys.Layout.CLUSTER.name());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Storage migration has failed: {}", e.getMessage(), e);
+            migration.error = e.getMessage();
+        } finally {
+            migration.finishedAt = Instant.now().toString();
+            LOGGER.info("Storage migration has finished: {}", migration.toDto());
+        }
+    }
+
+    private void moveProjects(String pattern, Migration migration) {
+        Set<String> projectIds = new HashSet<>();
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                String projectId = StorageKeys.getProjectId(key);
+                if (projectId != null && key.equals(StorageKeys.toPlainKey(key)) && projectIds.add(projectId)
+                        && storageKeys.moveProject(projectId) > 0) {
+                    migration.projects.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void migrateHashes(String pattern, Migration migration) {
+        List<Rewrite> rewrites = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (StorageKeys.isDocumentHash(key)) {
+                    migrateHash(key, migration);
+                    migration.hashes.incrementAndGet();
+                } else if (StorageKeys.isDocumentKey(key)) {
+                    migrateDocument(key, rewrites, migration);
+                }
+            }
+        }
+        if (!rewrites.isEmpty()) {
+            replace(rewrites, migration);
+        }
+    }
+
+    private void migrateHash(String key, Migration migration) {
+        String plainKey = StorageKeys.toPlainKey(key);
+        boolean split = storageKeys.isKeyPerDocument() && plainKey.startsWith(PROJECT_KEY_PREFIX);
+        if (split && !plainKey.endsWith(PIPELINE_KEY_PREFIX)) {
+            ensureIndexes(key, migration);
+        }
+        List<Rewrite> rewrites = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().count(SCAN_COUNT).build();
+        try (Cursor<Map.Entry<Object, Object>> entries = redisTemplate.opsForHash().scan(key, options)) {
+            while (entries.hasNext()) {
+                Map.Entry<Object, Object> entry = entries.next();
+                String value = entry.getValue().toString();
+                try {
+                    String rewritten = storageCodec.rewrite(value);
+                    if (split) {
+                        rewrites.add(toSplit(key, plainKey.endsWith(PIPELINE_KEY_PREFIX), entry.getKey().toString(),
+                                value, rewritten));
+                    } else if (!rewritten.equals(value)) {
+                        rewrites.add(new Rewrite(RedisScripts.REWRITE_VALUE, List.of(key),
+                                new Object[]{entry.getKey(), value, rewritten}));
+                    }
+                } catch (JsonProcessingException e) {
+                    LOGGER.warn("Unable to migrate '{}' in '{}': {}", entry.getKey(), key, e.getOriginalMessage());
+                    migration.failed.incrementAndGet();
+                }
+                if (rewrites.size() == SCAN_COUNT) {
+                    replace(rewrites, migration);
+                }
+            }
+        }
+        if (!rewrites.isEmpty()) {
+            replace(rewrites, migration);
+        }
+    }
+
+    /**
+     * Builds the rewrite, which moves a job or pipeline from the project hash to its own key.
+     *
+     * @param key       project jobs or pipelines hash.
+     * @param pipelines whether the hash holds pipelines.
+     * @param field     document's hash field.
+     * @param value     document read from the hash.
+     * @param rewritten document in the configured format.
+     * @return rewrite.
+     */
+    private Rewrite toSplit(String key, boolean pipelines, String field, String value, String rewritten) {
+        String projectId = StorageKeys.getProjectId(key);
+        Object[] args;
+        List<String> keys;
+        if (pipelines) {
+            String id = field.substring(StorageKeys.getPipelineField(projectId, "").length());
+            args = new Object[]{field, value, rewritten, id};
+            keys = List.of(key, storageKeys.getPipelineKey(projectId, id), storageKeys.getPipelineIdsKey(projectId));
+        } else {
+            String id = field.substring(StorageKeys.getJobField(projectId, "").length());
+            args = new Object[]{field, value, rewritten, id};
+            keys = List.of(key, storageKeys.getJobKey(projectId, id));
+        }
+        return new Rewrite(RedisScripts.SPLIT_DOCUMENT, keys, args);
+    }
+
+    private void migrateDocument(String key, List<Rewrite> rewrites, Migration migration) {
+        if (StorageKeys.toPlainKey(key).contains(JOB_KEY_PREFIX)) {
+            ensureIndexes(key, migration);
+        }
+        String value = redisTemplate.opsForValue().get(key);
+        if (value == null) {
+            return;
+        }
+        try {
+            String rewritten = storageCodec.rewrite(value);
+            if (!rewritten.equals(value)) {
+                rewrites.add(new Rewrite(RedisScripts.REWRITE_VALUE, List.of(key), new Object[]{"", value, rewritten}));
+            }
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("Unable to migrate '{}': {}", key, e.getOriginalMessage());
+            migration.failed.incrementAndGet();
+        }
+        if (rewrites.size() == SCAN_COUNT) {
+            replace(rewrites, migration);
+        }
+    }
+
+    /**
+     * Builds the job indexes of the project once per migration, including the projects, whose jobs have already
+     * been moved to their own keys without them.
+     *
+     * @param key       key of the project's jobs.
+     * @param migration current migration.
+     */
+    private void ensureIndexes(String key, Migration migration) {
+        String projectId = StorageKeys.getProjectId(key);
+        if (migration.indexedProjects.add(projectId)) {
+            jobService.ensureIndexes(projectId);
+        }
+    }
+
+    private void replace(List<Rewrite> rewrites, Migration migration) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Rewrite rewrite : rewrites) {
+                RedisScripts.evalInPipeline(connection, rewrite.script(), rewrite.keys(), rewrite.args());
+            }
+            return null;
+        });
+        for (int i = 0; i < results.size(); i++) {
+            if (!Objects.equals(results.get(i), RedisScripts.SCRIPT_SUCCESS)) {
+                migration.changed.incrementAndGet();
+            } else if (rewrites.get(i).script() == RedisScripts.SPLIT_DOCUMENT) {
+                migration.split.incrementAndGet();
+            } else {
+                migration.rewritten.incrementAndGet();
+            }
+        }
+        rewrites.clear();
+    }
+
+    /**
+     * Script call, which replaces a single document.
+     *
+     * @param script script to execute.
+     * @param keys   script keys.
+     * @param args   script arguments.
+     */
+    private record Rewrite(RedisScript<Long> script, List<String> keys, Object[] args) {
+    }
+
+    /**
+     * Progress of a single migration.
+     */
+    private class Migration {
+        private final String startedAt = Instant.now().toString();
+        private final AtomicLong projects = new AtomicLong();
+        private final AtomicLong hashes = new AtomicLong();
+        private final AtomicLong rewritten = new AtomicLong();
+        private final AtomicLong split = new AtomicLong();
+        private final AtomicLong changed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final Set<String> indexedProjects = new HashSet<>();
+        private volatile String finishedAt;
+        private volatile String error;
+
+        private StorageMigrationDto toDto() {
+            return StorageMigrationDto.builder()
+                    .keyLayout(storageKeys.getLayout().name())
+                    .documentLayout(storageKeys.getDocumentLayout().name())
+                    .format(storageCodec.getFormat().name())
+                    .compression(storageCodec.getCompression().name())
+                    .running(finishedAt == null)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .projects(projects.get())
+                    .hashes(hashes.get())
+                    .rewritten(rewritten.get())
+                    .split(split.get())
+                    .changed(changed.get())
+                    .failed(failed.get())
+                    .error(error)
+                    .build();
+        }
+    }
+}
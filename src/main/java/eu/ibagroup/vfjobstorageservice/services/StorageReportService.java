@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package eu.ibagroup.vfjobstorageservice.services;
+
+import eu.ibagroup.vfjobstorageservice.dto.StorageKeyDto;
+import eu.ibagroup.vfjobstorageservice.dto.StorageKeyReportDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_CONNECTION_PREFIX;
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.PROJECT_KEY_PREFIX;
+
+/**
+ * Reports the project keys, which are the first to look at when the storage is slow: the largest hashes
+ * of jobs, pipelines and connections, which are read whole by the listings, and the keys used most often.
+ * The hashes are measured on a replica, if the reads from the replicas are enabled.
+ */
+@Slf4j
+@Service
+public class StorageReportService {
+    private static final int SCAN_COUNT = 100;
+    private static final byte[] USAGE = "USAGE".getBytes(StandardCharsets.UTF_8);
+    private static final Comparator<StorageKeyDto> BY_LENGTH = Comparator.comparingLong(StorageKeyDto::getLength);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final StorageKeys storageKeys;
+    private final StorageDiagnostics storageDiagnostics;
+
+    public StorageReportService(@Qualifier("replicaRedisTemplate") RedisTemplate<String, String> redisTemplate,
+                                StorageKeys storageKeys, StorageDiagnostics storageDiagnostics) {
+        this.redisTemplate = redisTemplate;
+        this.storageKeys = storageKeys;
+        this.storageDiagnostics = storageDiagnostics;
+    }
+
+    /**
+     * Gets the largest project hashes and the most frequently used project keys.
+     *
+     * @param limit maximal number of the keys in each list.
+     * @return report of the keys.
+     */
+    public StorageKeyReportDto getKeys(int limit) {
+        if (limit <= 0) {
+            throw new BadRequestException("Number of the keys must be positive, but was %d", limit);
+        }
+        PriorityQueue<StorageKeyDto> largest = new PriorityQueue<>(BY_LENGTH);
+        scanHashes(PROJECT_KEY_PREFIX + "*", limit, largest);
+        scanHashes(PROJECT_CONNECTION_PREFIX + "*", limit, largest);
+        List<StorageKeyDto> hottest = storageDiagnostics.getHottest(limit).stream()
+                .map(access -> StorageKeyDto.builder()
+                        .key(getKey(access.entity(), access.projectId()))
+                        .projectId(access.projectId())
+                        .entity(access.entity())
+                        .accesses(access.count())
+                        .build())
+                .toList();
+        return StorageKeyReportDto.builder()
+                .largest(addMemory(largest.stream().sorted(BY_LENGTH.reversed()).toList()))
+                .hottest(hottest)
+                .countedSince(storageDiagnostics.getCountedSince().toString())
+                .build();
+    }
+
+    private void scanHashes(String pattern, int limit, PriorityQueue<StorageKeyDto> largest) {
+        List<String> batch = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (StorageKeys.isDocumentHash(key)) {
+                    batch.add(key);
+                }
+                if (batch.size() == SCAN_COUNT) {
+                    measure(batch, limit, largest);
+                    batch.clear();
+                }
+            }
+        }
+        measure(batch, limit, largest);
+    }
+
+    private void measure(List<String> keys, int limit, PriorityQueue<StorageKeyDto> largest) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<Object> lengths = pipeline(keys, (connection, key) -> connection.hashCommands().hLen(key));
+        for (int i = 0; i < keys.size(); i++) {
+            long length = lengths.get(i) instanceof Long value ? value : 0;
+            if (largest.size() < limit || length > largest.peek().getLength()) {
+                largest.add(StorageKeyDto.builder()
+                        .key(keys.get(i))
+                        .projectId(StorageKeys.getProjectId(keys.get(i)))
+                        .length(length)
+                        .build());
+                if (largest.size() > limit) {
+                    largest.poll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the memory usage to the largest hashes only, since Redis samples a hash to estimate it.
+     * Some Redis compatible servers don't support it, so the hashes are reported without it then.
+     */
+    private List<StorageKeyDto> addMemory(List<StorageKeyDto> hashes) {
+        List<Object> memory;
+        try {
+            memory = pipeline(hashes.stream().map(StorageKeyDto::getKey).toList(),
+                    (connection, key) -> connection.execute("MEMORY", USAGE, key));
+        } catch (DataAccessException e) {
+            LOGGER.warn("Memory usage of the project hashes cannot be read: {}", e.getMessage());
+            return hashes;
+        }
+        List<StorageKeyDto> result = new ArrayList<>(hashes.size());
+        for (int i = 0; i < hashes.size(); i++) {
+            StorageKeyDto hash = hashes.get(i);
+            result.add(StorageKeyDto.builder()
+                    .key(hash.getKey())
+                    .projectId(hash.getProjectId())
+                    .length(hash.getLength())
+                    .memory(memory.get(i) instanceof Long value ? value : null)
+                    .build());
+        }
+        return result;
+    }
+
+    private List<Object> pipeline(List<String> keys, BiConsumer<RedisConnection, byte[]> command) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            keys.forEach(key -> command.accept(connection, key.getBytes(StandardCharsets.UTF_8)));
+            return null;
+        });
+    }
+
+    private String getKey(String entity, String projectId) {
+        return switch (entity) {
+            case StorageMetrics.PIPELINE -> storageKeys.getPipelinesKey(projectId);
+            case StorageMetrics.CONNECTION -> storageKeys.getConnectionsKey(projectId);
+            default -> storageKeys.getJobsKey(projectId);
+        };
+    }
+}
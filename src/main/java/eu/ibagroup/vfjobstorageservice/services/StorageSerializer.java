@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.ibagroup.vfjobstorageservice.services;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializer of the stored values, which keeps the binary documents written by {@link StorageCodec} as raw bytes.
+ * A binary document is a string of the characters up to U+00FF starting with a binary header, it is written
+ * as {@link #BINARY_MARKER} followed by one byte per character. Any other string is written as UTF-8, where the
+ * marker byte never occurs, so every string is read back exactly as it was written.
+ */
+public class StorageSerializer implements RedisSerializer<String> {
+    static final byte BINARY_MARKER = (byte) 0xFF;
+    private static final char MAX_BINARY_CHAR = '\u00FF';
+
+    @Override
+    public byte[] serialize(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (!StorageCodec.isBinary(value) || !isLatin1(value)) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[value.length() + 1];
+        bytes[0] = BINARY_MARKER;
+        for (int i = 0; i < value.length(); i++) {
+            bytes[i + 1] = (byte) value.charAt(i);
+        }
+        return bytes;
+    }
+
+    @Override
+    public String deserialize(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length > 0 && bytes[0] == BINARY_MARKER) {
+            return new String(bytes, 1, bytes.length - 1, StandardCharsets.ISO_8859_1);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return String.class;
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > MAX_BINARY_CHAR) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
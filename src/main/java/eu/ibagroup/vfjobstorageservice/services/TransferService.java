@@ -18,34 +18,67 @@
  */
 package eu.ibagroup.vfjobstorageservice.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.BundleEntryDto;
 import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportRequestDto;
 import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportResponseDto;
 import eu.ibagroup.vfjobstorageservice.dto.importing.ImportResponseDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
 import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.JsonParseException;
+import io.micrometer.observation.annotation.Observed;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.TRANSFER_BATCH_SIZE;
+
 @Service
+@Observed(name = StorageMetrics.SERVICE)
 @RequiredArgsConstructor
 public class TransferService {
 
     private static final String JOB_ID_PROPERTY = "jobId";
     private static final String PIPELINE_ID_PROPERTY = "pipelineId";
+    private static final String GRAPH_PROPERTY = "graph";
+    private static final String VERTEX_PROPERTY = "vertex";
+    private static final String VALUE_PROPERTY = "value";
     private final JobStorageService jobService;
     private final PipelineService pipelineService;
+    private final StorageKeys storageKeys;
+    private final ObjectMapper objectMapper;
 
     /**
      * Export jobs and pipelines.
+     * Pipelines with related entities are expanded level by level, each level of nested pipelines
+     * is read in batches and every pipeline is read only once, even if it is referenced many times or in a cycle.
+     * All the jobs are read at once in the end.
      *
      * @param projectId        project id
      * @param jobIds           job ids for import
@@ -55,53 +88,175 @@ public class TransferService {
     public ExportResponseDto exporting(String projectId, Set<String> jobIds,
                                        Collection<ExportRequestDto.PipelineRequest> pipelineRequests) {
         ExportResponseDto result = new ExportResponseDto();
-        insertNestedEntities(projectId, pipelineService.getByIds(projectId, pipelineRequests.stream()
-                .filter(ExportRequestDto.PipelineRequest::isWithRelatedEntities)
-                .map(ExportRequestDto.PipelineRequest::getPipelineId)
-                .collect(Collectors.toSet())), result);
-        result.getPipelines().addAll(pipelineService.export(projectId, pipelineRequests.stream()
-                .map(ExportRequestDto.PipelineRequest::getPipelineId)
-                .collect(Collectors.toSet())));
-        result.getJobs().addAll(jobService.export(projectId, jobIds));
+        Set<String> visitedJobIds = new HashSet<>(jobIds);
+        walkPipelines(projectId, pipelineRequests, visitedJobIds, result.getPipelines()::add);
+        jobService.getByIds(projectId, visitedJobIds).stream()
+                .filter(Objects::nonNull)
+                .forEach(result.getJobs()::add);
         return result;
     }
 
     /**
-     * Secondary method for inserting all nested entities from the required pipelines.
+     * Writes the exported jobs and pipelines into the stream as NDJSON, one {@link BundleEntryDto} per line.
+     * Only the IDs of the exported entities are kept in memory, the entities are read and written in batches.
+     * Jobs are written first and pipelines are written starting from the deepest nested ones,
+     * so the bundle can be imported line by line.
      *
-     * @param projectId          is a project ID.
-     * @param pipelinesToProcess pipelines with nested entities.
-     * @param exportResult       is a result of exporting.
+     * @param projectId        project id
+     * @param jobIds           job ids for export
+     * @param pipelineRequests pipelines ids and flag with jobs
+     * @param outputStream     response stream
+     * @throws IOException if the response cannot be written.
      */
-    private void insertNestedEntities(String projectId, List<PipelineDto> pipelinesToProcess,
-                                      ExportResponseDto exportResult) {
-        pipelinesToProcess.forEach((PipelineDto pipeline) -> {
-            exportResult.getJobs().addAll(jobService.getByIds(projectId,
-                    getNestedEntityIds(pipeline, JOB_ID_PROPERTY)));
-            List<PipelineDto> nestedPipelines = pipelineService.getByIds(projectId,
-                    getNestedEntityIds(pipeline, PIPELINE_ID_PROPERTY));
-            exportResult.getPipelines().addAll(nestedPipelines);
-            insertNestedEntities(projectId, nestedPipelines, exportResult);
-        });
+    public void streamExport(String projectId, Set<String> jobIds,
+                             Collection<ExportRequestDto.PipelineRequest> pipelineRequests,
+                             OutputStream outputStream) throws IOException {
+        ExportedIds exportedIds = collectExportedIds(projectId, jobIds, pipelineRequests);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            for (Set<String> chunk : toChunks(exportedIds.getJobIds())) {
+                for (JobDto job : jobService.getByIds(projectId, chunk)) {
+                    if (job != null) {
+                        writeEntry(generator, writer, new BundleEntryDto(job, null));
+                    }
+                }
+            }
+            for (Set<String> chunk : toChunks(exportedIds.getPipelineIds())) {
+                for (PipelineDto pipeline : pipelineService.getByIds(projectId, chunk)) {
+                    if (pipeline != null) {
+                        writeEntry(generator, writer, new BundleEntryDto(null, pipeline));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the IDs of the exported jobs and pipelines in the order of the streamed export.
+     *
+     * @param projectId        project id
+     * @param jobIds           job ids for export
+     * @param pipelineRequests pipelines ids and flag with jobs
+     * @return IDs of the jobs and of the pipelines starting from the deepest nested ones
+     */
+    public ExportedIds collectExportedIds(String projectId, Set<String> jobIds,
+                                         Collection<ExportRequestDto.PipelineRequest> pipelineRequests) {
+        Set<String> exportedJobIds = new LinkedHashSet<>(jobIds);
+        List<String> exportedPipelineIds = new ArrayList<>();
+        walkPipelines(projectId, pipelineRequests, exportedJobIds,
+                pipeline -> exportedPipelineIds.add(pipeline.getId()));
+        Collections.reverse(exportedPipelineIds);
+        return new ExportedIds(exportedJobIds, exportedPipelineIds);
+    }
+
+    private static void writeEntry(JsonGenerator generator, ObjectWriter writer, BundleEntryDto entry)
+            throws IOException {
+        writer.writeValue(generator, entry);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Reads the requested pipelines and their nested pipelines level by level.
+     * Nested pipelines are expanded only for the pipelines requested with related entities and for the pipelines
+     * referenced by the expanded ones. The IDs of the nested jobs are added to the given job IDs.
+     * Every pipeline is read once: a requested pipeline, which is referenced after it has been read
+     * without expanding, is expanded from the read one.
+     *
+     * @param projectId        project id
+     * @param pipelineRequests pipelines ids and flag with jobs
+     * @param jobIds           collected IDs of nested jobs
+     * @param visitor          consumer of every exported pipeline, called once per pipeline
+     */
+    private void walkPipelines(String projectId, Collection<ExportRequestDto.PipelineRequest> pipelineRequests,
+                               Set<String> jobIds, Consumer<PipelineDto> visitor) {
+        Set<String> visitedIds = new HashSet<>();
+        Set<String> expandedIds = new HashSet<>();
+        Map<String, PipelineDto> notExpanded = new HashMap<>();
+        Set<String> level = pipelineRequests.stream()
+                .map(ExportRequestDto.PipelineRequest::getPipelineId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> notExpandedIds = new HashSet<>();
+        visitedIds.addAll(level);
+        notExpandedIds.addAll(level);
+        pipelineRequests.stream()
+                .filter(ExportRequestDto.PipelineRequest::isWithRelatedEntities)
+                .forEach(request -> notExpandedIds.remove(request.getPipelineId()));
+        while (!level.isEmpty()) {
+            Set<String> nextLevel = new LinkedHashSet<>();
+            for (Set<String> chunk : toChunks(level)) {
+                for (PipelineDto pipeline : pipelineService.getByIds(projectId, chunk)) {
+                    if (pipeline == null || notExpanded.containsKey(pipeline.getId())
+                            || expandedIds.contains(pipeline.getId())) {
+                        continue;
+                    }
+                    visitor.accept(pipeline);
+                    if (notExpandedIds.contains(pipeline.getId())) {
+                        notExpanded.put(pipeline.getId(), pipeline);
+                        continue;
+                    }
+                    Deque<PipelineDto> toExpand = new ArrayDeque<>(List.of(pipeline));
+                    while (!toExpand.isEmpty()) {
+                        PipelineDto expanded = toExpand.poll();
+                        expandedIds.add(expanded.getId());
+                        Set<String> nestedPipelineIds = new HashSet<>();
+                        collectNestedEntityIds(expanded, jobIds, nestedPipelineIds);
+                        for (String pipelineId : nestedPipelineIds) {
+                            if (visitedIds.add(pipelineId)) {
+                                nextLevel.add(pipelineId);
+                            } else if (notExpandedIds.remove(pipelineId) && notExpanded.containsKey(pipelineId)) {
+                                toExpand.add(notExpanded.remove(pipelineId));
+                            }
+                        }
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+    }
+
+    private static List<Set<String>> toChunks(Collection<String> ids) {
+        List<Set<String>> chunks = new ArrayList<>();
+        Set<String> chunk = new LinkedHashSet<>();
+        for (String id : ids) {
+            chunk.add(id);
+            if (chunk.size() == TRANSFER_BATCH_SIZE) {
+                chunks.add(chunk);
+                chunk = new LinkedHashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
     }
 
     /**
      * Secondary method for finding all nested entities' IDs.
+     * Goes through the vertices of the pipeline's graph once and reads job and pipeline IDs from their values.
      *
-     * @param pipeline  pipeline with nested entities.
-     * @param fieldName job or pipeline nested entity type.
-     * @return all nested entities' IDs.
+     * @param pipeline    pipeline with nested entities.
+     * @param jobIds      collected IDs of nested jobs.
+     * @param pipelineIds collected IDs of nested pipelines.
      */
-    private static Set<String> getNestedEntityIds(PipelineDto pipeline, String fieldName) {
-        Set<String> entityIds = new HashSet<>();
-        String rawData = pipeline.getDefinition().toPrettyString();
-        String rawDataSearch = String.format(".*\"%s\" : \"(.*)\".*", fieldName);
-        Pattern rawDataPattern = Pattern.compile(rawDataSearch, Pattern.CASE_INSENSITIVE);
-        Matcher rawDataMatcher = rawDataPattern.matcher(rawData);
-        while (rawDataMatcher.find()) {
-            entityIds.add(rawDataMatcher.group(1));
+    static void collectNestedEntityIds(PipelineDto pipeline, Set<String> jobIds, Set<String> pipelineIds) {
+        JsonNode definition = pipeline.getDefinition();
+        if (definition == null) {
+            return;
+        }
+        for (JsonNode stage : definition.path(GRAPH_PROPERTY)) {
+            if (stage.path(VERTEX_PROPERTY).asBoolean()) {
+                JsonNode value = stage.path(VALUE_PROPERTY);
+                addNestedEntityId(value.path(JOB_ID_PROPERTY), jobIds);
+                addNestedEntityId(value.path(PIPELINE_ID_PROPERTY), pipelineIds);
+            }
+        }
+    }
+
+    private static void addNestedEntityId(JsonNode id, Set<String> entityIds) {
+        if (id.isTextual() && !id.asText().isEmpty()) {
+            entityIds.add(id.asText());
         }
-        return entityIds;
     }
 
     /**
@@ -113,6 +268,7 @@ public class TransferService {
      * @return importing result.
      */
     public ImportResponseDto importing(String projectId, List<JobDto> jobs, List<PipelineDto> pipelines) {
+        storageKeys.moveProject(projectId);
         ImportResponseDto result = new ImportResponseDto();
         if (!CollectionUtils.isEmpty(jobs)) {
             jobService.importAll(projectId, jobs, result);
@@ -122,4 +278,85 @@ public class TransferService {
         }
         return result;
     }
+
+    /**
+     * Imports the NDJSON bundle written by {@link #streamExport}, one {@link BundleEntryDto} per line.
+     * Entities are parsed one by one and imported in batches, so only a single batch is kept in memory.
+     * Pending jobs are imported before the next pipelines, so pipelines can reference the jobs above them.
+     *
+     * @param projectId   project ID.
+     * @param inputStream request stream.
+     * @return importing result.
+     * @throws IOException if the request cannot be read.
+     */
+    public ImportResponseDto streamImport(String projectId, InputStream inputStream) throws IOException {
+        storageKeys.moveProject(projectId);
+        ImportResponseDto result = new ImportResponseDto();
+        List<JobDto> jobs = new ArrayList<>();
+        List<PipelineDto> pipelines = new ArrayList<>();
+        Map<String, String> jobIds = null;
+        Map<String, String> pipelineIds = null;
+        try (MappingIterator<BundleEntryDto> entries = objectMapper.readerFor(BundleEntryDto.class)
+                .readValues(inputStream)) {
+            while (entries.hasNextValue()) {
+                BundleEntryDto entry = entries.nextValue();
+                if (entry.getJob() != null) {
+                    if (!pipelines.isEmpty()) {
+                        importPipelines(projectId, pipelines, result, jobIds, pipelineIds);
+                    }
+                    jobs.add(entry.getJob());
+                    if (jobs.size() == TRANSFER_BATCH_SIZE) {
+                        importJobs(projectId, jobs, result);
+                        jobIds = null;
+                    }
+                }
+                if (entry.getPipeline() != null) {
+                    if (!jobs.isEmpty()) {
+                        importJobs(projectId, jobs, result);
+                        jobIds = null;
+                    }
+                    if (jobIds == null) {
+                        jobIds = jobService.getIdsByNames(projectId);
+                    }
+                    if (pipelineIds == null) {
+                        pipelineIds = pipelineService.getIdsByNames(projectId);
+                    }
+                    pipelines.add(entry.getPipeline());
+                    if (pipelines.size() == TRANSFER_BATCH_SIZE) {
+                        importPipelines(projectId, pipelines, result, jobIds, pipelineIds);
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new JsonParseException("Unable to parse the imported bundle: " + e.getOriginalMessage(), e);
+        }
+        if (!jobs.isEmpty()) {
+            importJobs(projectId, jobs, result);
+        }
+        if (!pipelines.isEmpty()) {
+            importPipelines(projectId, pipelines, result, jobIds, pipelineIds);
+        }
+        return result;
+    }
+
+    private void importJobs(String projectId, List<JobDto> jobs, ImportResponseDto result) {
+        jobService.importAll(projectId, List.copyOf(jobs), result);
+        jobs.clear();
+    }
+
+    private void importPipelines(String projectId, List<PipelineDto> pipelines, ImportResponseDto result,
+                                 Map<String, String> jobIds, Map<String, String> pipelineIds) {
+        pipelineService.importAll(projectId, List.copyOf(pipelines), result, jobIds, pipelineIds);
+        pipelines.clear();
+    }
+
+    /**
+     * IDs of the exported jobs and pipelines.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ExportedIds {
+        private final Set<String> jobIds;
+        private final List<String> pipelineIds;
+    }
 }
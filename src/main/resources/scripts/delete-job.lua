@@ -0,0 +1,41 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Deletes a job document together with its overview, name index entry and version.
+-- The changed hash field is published to the 'job-storage:invalidations' channel for the replicas' caches.
+--
+-- KEYS[1] - project jobs hash
+-- KEYS[2] - project job name index (name -> job id)
+-- KEYS[3] - project job overviews (job id -> overview JSON)
+-- KEYS[4] - project entity versions (entity hash field -> version)
+-- KEYS[5] - job key in the key document layout (absent in the hash layout)
+-- ARGV[1] - job hash field
+-- ARGV[2] - job id
+-- ARGV[3] - job name ('' if the job has no name)
+redis.call('HDEL', KEYS[1], ARGV[1])
+if KEYS[5] then
+    redis.call('DEL', KEYS[5])
+end
+redis.call('HDEL', KEYS[3], ARGV[2])
+redis.call('HDEL', KEYS[4], ARGV[1])
+if ARGV[3] ~= '' and redis.call('HGET', KEYS[2], ARGV[3]) == ARGV[2] then
+    redis.call('HDEL', KEYS[2], ARGV[3])
+end
+redis.call('PUBLISH', 'job-storage:invalidations', ARGV[1])
+return 1
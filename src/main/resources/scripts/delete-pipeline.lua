@@ -0,0 +1,36 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Deletes a pipeline together with its version.
+-- The changed hash field is published to the 'job-storage:invalidations' channel for the replicas' caches.
+--
+-- KEYS[1] - project pipelines hash
+-- KEYS[2] - project entity versions (entity hash field -> version)
+-- KEYS[3] - pipeline key in the key document layout (absent in the hash layout)
+-- KEYS[4] - project pipeline IDs in the key document layout (absent in the hash layout)
+-- ARGV[1] - pipeline hash field
+-- ARGV[2] - pipeline id
+redis.call('HDEL', KEYS[1], ARGV[1])
+if KEYS[3] then
+    redis.call('DEL', KEYS[3])
+    redis.call('SREM', KEYS[4], ARGV[2])
+end
+redis.call('HDEL', KEYS[2], ARGV[1])
+redis.call('PUBLISH', 'job-storage:invalidations', ARGV[1])
+return 1
@@ -0,0 +1,42 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+
+-- Reads a job or a pipeline together with its version as one snapshot.
+--
+-- KEYS[1] - project documents hash
+-- KEYS[2] - project entity versions (entity hash field -> version)
+-- KEYS[3] - project job overviews for a job, the entity versions again for a pipeline
+-- KEYS[4] - document key in the key document layout (absent in the hash layout)
+-- ARGV[1] - document hash field
+-- ARGV[2] - job id ('' for a pipeline)
+--
+-- Returns the document, its version and the job's overview, false for the missing ones.
+local document = false
+if KEYS[4] then
+    document = redis.call('GET', KEYS[4])
+end
+if not document then
+    document = redis.call('HGET', KEYS[1], ARGV[1])
+end
+local overview = false
+if ARGV[2] ~= '' then
+    overview = redis.call('HGET', KEYS[3], ARGV[2])
+end
+return {document, redis.call('HGET', KEYS[2], ARGV[1]), overview}
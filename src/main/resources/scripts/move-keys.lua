@@ -0,0 +1,66 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Moves the keys of a project to another layout. A key, which already exists in the new layout,
+-- receives the fields or members it does not have yet. Jobs and pipelines stored under their own keys
+-- are moved afterwards using the job overviews and the pipeline IDs in the new layout. These keys are
+-- not declared, so the script only runs on a standalone server: all projects must be moved there
+-- before switching to Redis Cluster.
+-- KEYS[1..n] - project keys in the previous layout: jobs hash, job name index, job overviews,
+--              versions, pipelines hash, connections hash and pipeline IDs
+-- KEYS[n+1..2n] - the same keys in the new layout
+-- ARGV[1] - job key prefix in the previous layout
+-- ARGV[2] - job key prefix in the new layout
+-- ARGV[3] - pipeline key prefix in the previous layout
+-- ARGV[4] - pipeline key prefix in the new layout
+-- Returns number of the moved keys.
+local count = #KEYS / 2
+local moved = 0
+local function move(source, target)
+    if redis.call('EXISTS', source) == 0 then
+        return
+    end
+    if redis.call('EXISTS', target) == 0 then
+        redis.call('RENAME', source, target)
+    elseif redis.call('TYPE', source).ok == 'set' then
+        redis.call('SUNIONSTORE', target, target, source)
+        redis.call('DEL', source)
+    elseif redis.call('TYPE', source).ok == 'hash' then
+        local entries = redis.call('HGETALL', source)
+        for j = 1, #entries, 2 do
+            redis.call('HSETNX', target, entries[j], entries[j + 1])
+        end
+        redis.call('DEL', source)
+    else
+        redis.call('DEL', source)
+    end
+    moved = moved + 1
+end
+for i = 1, count do
+    move(KEYS[i], KEYS[i + count])
+end
+if ARGV[1] and ARGV[1] ~= ARGV[2] then
+    for _, id in ipairs(redis.call('HKEYS', KEYS[count + 3])) do
+        move(ARGV[1] .. id, ARGV[2] .. id)
+    end
+    for _, id in ipairs(redis.call('SMEMBERS', KEYS[count * 2])) do
+        move(ARGV[3] .. id, ARGV[4] .. id)
+    end
+end
+return moved
@@ -0,0 +1,45 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Adds the job overviews and the name index entries built from the stored jobs of a project, which was created
+-- before they were introduced. An overview stored meanwhile by a concurrent save is kept together with the job's
+-- name index entry, and a job deleted meanwhile is not added back, so a concurrent change always wins.
+--
+-- KEYS[1] - project jobs hash
+-- KEYS[2] - project job name index (name -> job id)
+-- KEYS[3] - project job overviews (job id -> overview JSON)
+-- KEYS[4..n] - job keys in the key document layout in the order of the jobs (absent in the hash layout)
+-- ARGV[4i-3..4i] - job hash field, job id, job name ('' if the job has no name) and overview JSON of the i-th job
+--
+-- Returns number of the added overviews.
+local added = 0
+for i = 1, #ARGV / 4 do
+    local field = ARGV[4 * i - 3]
+    local id = ARGV[4 * i - 2]
+    local name = ARGV[4 * i - 1]
+    local exists = redis.call('HEXISTS', KEYS[1], field) == 1
+            or KEYS[3 + i] ~= nil and redis.call('EXISTS', KEYS[3 + i]) == 1
+    if exists and redis.call('HSETNX', KEYS[3], id, ARGV[4 * i]) == 1 then
+        added = added + 1
+        if name ~= '' then
+            redis.call('HSETNX', KEYS[2], name, id)
+        end
+    end
+end
+return added
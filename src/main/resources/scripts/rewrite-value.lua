@@ -0,0 +1,37 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Replaces a hash value or a string value, unless it has been changed or deleted since it was read.
+-- KEYS[1] - hash or string key
+-- ARGV[1] - hash field ('' for a string key)
+-- ARGV[2] - value read before
+-- ARGV[3] - new value
+-- Returns 1 if the value is replaced, 0 if it has been changed in the meantime.
+if ARGV[1] == '' then
+    if redis.call('GET', KEYS[1]) ~= ARGV[2] then
+        return 0
+    end
+    redis.call('SET', KEYS[1], ARGV[3])
+    return 1
+end
+if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[2] then
+    return 0
+end
+redis.call('HSET', KEYS[1], ARGV[1], ARGV[3])
+return 1
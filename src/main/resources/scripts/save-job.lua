@@ -0,0 +1,84 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Saves a job document together with its overview, keeps
+-- the project's job name index in sync and increments the job's version.
+--
+-- KEYS[1] - project jobs hash
+-- KEYS[2] - project job name index (name -> job id)
+-- KEYS[3] - project job overviews (job id -> overview JSON)
+-- KEYS[4] - project entity versions (entity hash field -> version)
+-- KEYS[5] - job key in the key document layout (absent in the hash layout)
+-- ARGV[1] - job hash field
+-- ARGV[2] - job id
+-- ARGV[3] - job name ('' if the job has no name)
+-- ARGV[4] - job JSON
+-- ARGV[5] - job overview JSON
+-- ARGV[6] - previous job name ('' for a new job)
+-- ARGV[7] - '1' if the indexes have just been rebuilt and must not be checked again
+-- ARGV[8] - '1' to keep the runtime state (status, run id, start and finish time) of the stored overview
+-- ARGV[9] - expected version of the job ('' to save it regardless of the version)
+--
+-- The changed hash field is published to the 'job-storage:invalidations' channel for the replicas' caches.
+-- Returns the new version on success, 0 if the name belongs to another job,
+-- -1 if the project has jobs but no indexes yet, -3 if the job has another version.
+if ARGV[7] ~= '1' and redis.call('EXISTS', KEYS[3]) == 0 and redis.call('HLEN', KEYS[1]) > 0 then
+    return -1
+end
+if ARGV[9] ~= '' and (redis.call('HGET', KEYS[4], ARGV[1]) or '0') ~= ARGV[9] then
+    return -3
+end
+if ARGV[3] ~= '' then
+    local owner = redis.call('HGET', KEYS[2], ARGV[3])
+    if owner and owner ~= ARGV[2] then
+        return 0
+    end
+end
+if ARGV[6] ~= '' and ARGV[6] ~= ARGV[3] and redis.call('HGET', KEYS[2], ARGV[6]) == ARGV[2] then
+    redis.call('HDEL', KEYS[2], ARGV[6])
+end
+local overview = ARGV[5]
+if ARGV[8] == '1' then
+    local stored = redis.call('HGET', KEYS[3], ARGV[2])
+    if stored then
+        local current = cjson.decode(stored)
+        local updated = cjson.decode(overview)
+        updated.status = current.status
+        updated.runId = current.runId
+        updated.startedAt = current.startedAt
+        updated.finishedAt = current.finishedAt
+        -- cjson cannot tell an empty array from an empty object
+        if type(updated.tags) == 'table' and next(updated.tags) == nil then
+            updated.tags = nil
+        end
+        overview = cjson.encode(updated)
+    end
+end
+if KEYS[5] then
+    redis.call('SET', KEYS[5], ARGV[4])
+    redis.call('HDEL', KEYS[1], ARGV[1])
+else
+    redis.call('HSET', KEYS[1], ARGV[1], ARGV[4])
+end
+redis.call('HSET', KEYS[3], ARGV[2], overview)
+if ARGV[3] ~= '' then
+    redis.call('HSET', KEYS[2], ARGV[3], ARGV[2])
+end
+redis.call('PUBLISH', 'job-storage:invalidations', ARGV[1])
+return redis.call('HINCRBY', KEYS[4], ARGV[1], 1)
@@ -0,0 +1,50 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Saves a pipeline and increments its version.
+--
+-- KEYS[1] - project pipelines hash
+-- KEYS[2] - project entity versions (entity hash field -> version)
+-- KEYS[3] - pipeline key in the key document layout (absent in the hash layout)
+-- KEYS[4] - project pipeline IDs in the key document layout (absent in the hash layout)
+-- ARGV[1] - pipeline hash field
+-- ARGV[2] - pipeline JSON
+-- ARGV[3] - expected version of the pipeline ('' to save it regardless of the version)
+-- ARGV[4] - '1' if a new pipeline is created and must not exist yet
+-- ARGV[5] - pipeline id
+--
+-- The changed hash field is published to the 'job-storage:invalidations' channel for the replicas' caches.
+-- Returns the new version on success, 0 if the pipeline already exists,
+-- -3 if the pipeline has another version.
+if ARGV[4] == '1' and (redis.call('HEXISTS', KEYS[1], ARGV[1]) == 1
+        or KEYS[3] and redis.call('EXISTS', KEYS[3]) == 1) then
+    return 0
+end
+if ARGV[3] ~= '' and (redis.call('HGET', KEYS[2], ARGV[1]) or '0') ~= ARGV[3] then
+    return -3
+end
+if KEYS[3] then
+    redis.call('SET', KEYS[3], ARGV[2])
+    redis.call('SADD', KEYS[4], ARGV[5])
+    redis.call('HDEL', KEYS[1], ARGV[1])
+else
+    redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+end
+redis.call('PUBLISH', 'job-storage:invalidations', ARGV[1])
+return redis.call('HINCRBY', KEYS[2], ARGV[1], 1)
@@ -0,0 +1,39 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Moves a job or pipeline from the project hash to its own key, unless it has been changed or deleted
+-- since it was read. A document, which already has its own key, is only removed from the hash,
+-- since the key has been written by a newer save.
+-- KEYS[1] - project jobs or pipelines hash
+-- KEYS[2] - document key
+-- KEYS[3] - project pipeline IDs (absent for jobs)
+-- ARGV[1] - hash field
+-- ARGV[2] - value read before
+-- ARGV[3] - value to store under the document key
+-- ARGV[4] - document id
+-- Returns 1 if the document is moved, 0 if it has been changed in the meantime.
+if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[2] then
+    return 0
+end
+redis.call('SET', KEYS[2], ARGV[3], 'NX')
+if KEYS[3] then
+    redis.call('SADD', KEYS[3], ARGV[4])
+end
+redis.call('HDEL', KEYS[1], ARGV[1])
+return 1
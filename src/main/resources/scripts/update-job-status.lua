@@ -0,0 +1,63 @@
+--
+-- Copyright (c) 2021 IBA Group, a.s. All rights reserved.
+--
+-- Licensed to the Apache Software Foundation (ASF) under one or more
+-- contributor license agreements.  See the NOTICE file distributed with
+-- this work for additional information regarding copyright ownership.
+-- The ASF licenses this file to You under the Apache License, Version 2.0
+-- (the "License"); you may not use this file except in compliance with
+-- the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Updates the runtime state of a job in its overview without touching the job document.
+-- The overview is the source of the job's status, so the document is never read or rewritten here.
+-- The job's version is incremented, since the status is a part of the job.
+--
+-- KEYS[1] - project jobs hash
+-- KEYS[2] - project job name index (name -> job id)
+-- KEYS[3] - project job overviews (job id -> overview JSON)
+-- KEYS[4] - project entity versions (entity hash field -> version)
+-- ARGV[1] - job id
+-- ARGV[2] - job status
+-- ARGV[3] - job start time ('' if not set)
+-- ARGV[4] - job finish time ('' if not set)
+-- ARGV[5] - expected run id ('' to update regardless of the current run)
+-- ARGV[6] - job hash field
+--
+-- Returns 1 on success, 0 if the job's run id differs from the expected one,
+-- -1 if the project has jobs but no indexes yet, -2 if there is no such job.
+local stored = redis.call('HGET', KEYS[3], ARGV[1])
+if not stored then
+    if redis.call('EXISTS', KEYS[3]) == 0 and redis.call('HLEN', KEYS[1]) > 0 then
+        return -1
+    end
+    return -2
+end
+local overview = cjson.decode(stored)
+if ARGV[5] ~= '' and tostring(overview.runId or 0) ~= ARGV[5] then
+    return 0
+end
+local function optional(value)
+    if value == '' then
+        return cjson.null
+    end
+    return value
+end
+overview.status = ARGV[2]
+overview.startedAt = optional(ARGV[3])
+overview.finishedAt = optional(ARGV[4])
+-- cjson cannot tell an empty array from an empty object
+if type(overview.tags) == 'table' and next(overview.tags) == nil then
+    overview.tags = nil
+end
+redis.call('HSET', KEYS[3], ARGV[1], cjson.encode(overview))
+redis.call('HINCRBY', KEYS[4], ARGV[6], 1)
+return 1
@@ -24,11 +24,15 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.util.List;
 
+import eu.ibagroup.vfjobstorageservice.dto.OverviewFilterDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobBatchRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobBatchResponseDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewListDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobParams;
 import eu.ibagroup.vfjobstorageservice.services.JobStorageService;
+import eu.ibagroup.vfjobstorageservice.services.Versioned;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,12 +40,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +57,8 @@ import static org.mockito.Mockito.when;
 class JobStorageControllerTest {
     @Mock
     private JobStorageService jobService;
+    @Mock
+    private WebRequest request;
     private JobStorageController controller;
 
     @BeforeEach
@@ -71,13 +81,30 @@ class JobStorageControllerTest {
                 .editable(true)
                 .build());
 
-        JobOverviewListDto response = controller.getAll("project1");
+        JobOverviewListDto response = controller.getAll("project1", null, null, new OverviewFilterDto());
         assertEquals(2, response.getJobs().size(), "Jobs size must be 2");
         assertTrue(response.isEditable(), "Must be true");
 
         verify(jobService).getAll(anyString());
     }
 
+    @Test
+    void testGetPage() {
+        OverviewFilterDto filter = OverviewFilterDto.builder().status("Draft").build();
+        when(jobService.getPage("project1", null, 10, filter)).thenReturn(JobOverviewListDto
+                .builder()
+                .jobs(List.of(JobOverviewDto.builder().build()))
+                .editable(true)
+                .nextCursor("42")
+                .build());
+
+        JobOverviewListDto response = controller.getAll("project1", null, 10, filter);
+        assertEquals(1, response.getJobs().size(), "Jobs size must be 1");
+        assertEquals("42", response.getNextCursor(), "Cursor must be passed through");
+
+        verify(jobService, never()).getAll(anyString());
+    }
+
     @Test
     void testCreate() throws JsonProcessingException {
         JobDto jobDto = JobDto
@@ -103,20 +130,33 @@ class JobStorageControllerTest {
                 .name("newName")
                 .params(JobParams.builder().driverCores("1").build())
                 .build();
-        doNothing().when(jobService).update("projectId", "jobId", jobDto);
+        when(jobService.update("projectId", "jobId", jobDto, 3L)).thenReturn(4L);
 
-        controller.update("projectId", "jobId", jobDto);
+        ResponseEntity<Void> response = controller.update("projectId", "jobId", jobDto, "\"3\"");
 
-        verify(jobService).update(anyString(), anyString(), any());
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode(), "Status must be NO_CONTENT");
+        assertEquals("\"4\"", response.getHeaders().getETag(), "ETag must contain the new version");
+    }
+
+    @Test
+    void testBatch() {
+        JobBatchRequestDto request = new JobBatchRequestDto(List.of(), List.of(), List.of("jobId"));
+        JobBatchResponseDto expected = new JobBatchResponseDto();
+        expected.getDeleted().add("jobId");
+        when(jobService.batch("projectId", request)).thenReturn(expected);
+
+        JobBatchResponseDto response = controller.batch("projectId", request);
+
+        assertEquals(expected, response, "Response must be equal to the service's one");
     }
 
     @Test
     void testUpdateStatus() throws JsonProcessingException {
-        doNothing().when(jobService).updateStatus("projectId", "jobId", "newStatus", JobDto.builder().build());
+        doNothing().when(jobService).updateStatus("projectId", "jobId", "newStatus", JobDto.builder().build(), 1L);
 
-        controller.updateStatus("projectId", "jobId", "newStatus", JobDto.builder().build());
+        controller.updateStatus("projectId", "jobId", "newStatus", JobDto.builder().build(), 1L);
 
-        verify(jobService).updateStatus(anyString(), anyString(), any(), any());
+        verify(jobService).updateStatus(anyString(), anyString(), any(), any(), eq(1L));
 
     }
 
@@ -129,13 +169,26 @@ class JobStorageControllerTest {
                 .name("name")
                 .build();
 
-        when(jobService.get("project1", "jobId")).thenReturn(dto);
+        when(jobService.getVersioned("project1", "jobId")).thenReturn(new Versioned<>(dto, 2L));
+        when(request.checkNotModified("\"2\"")).thenReturn(false);
+
+        ResponseEntity<JobDto> response = controller.get("project1", "jobId", request);
 
-        JobDto response = controller.get("project1", "jobId");
+        assertEquals(dto, response.getBody(), "Response must be equal to dto");
+        assertEquals("\"2\"", response.getHeaders().getETag(), "ETag must contain the version");
+
+        verify(jobService).getVersioned(anyString(), anyString());
+    }
+
+    @Test
+    void testGetNotModified() throws IOException {
+        when(jobService.getVersioned("project1", "jobId")).thenReturn(new Versioned<>(JobDto.builder().build(), 2L));
+        when(request.checkNotModified("\"2\"")).thenReturn(true);
 
-        assertEquals(dto, response, "Response must be equal to dto");
+        ResponseEntity<JobDto> response = controller.get("project1", "jobId", request);
 
-        verify(jobService).get(anyString(), anyString());
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode(), "Status must be NOT_MODIFIED");
+        assertNull(response.getBody(), "Job must not be sent");
     }
 
     @Test
@@ -0,0 +1,49 @@
+package eu.ibagroup.vfjobstorageservice.controllers;
+
+import eu.ibagroup.vfjobstorageservice.dto.exporting.BundleEntryDto;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
+import eu.ibagroup.vfjobstorageservice.services.ReactiveStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveStorageControllerTest {
+    @Mock
+    private ReactiveStorageService reactiveStorageService;
+    private ReactiveStorageController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ReactiveStorageController(reactiveStorageService);
+    }
+
+    @Test
+    void testGetJobs() {
+        when(reactiveStorageService.getJobs("project1")).thenReturn(Flux.just(JobOverviewDto.builder().build(),
+                JobOverviewDto.builder().build()));
+
+        assertEquals(2, controller.getJobs("project1").count().block(), "Jobs size must be 2");
+    }
+
+    @Test
+    void testExport() {
+        ExportRequestDto request = new ExportRequestDto(Set.of("job1"), Set.of());
+        BundleEntryDto entry = new BundleEntryDto(JobDto.builder().id("job1").build(), null);
+        when(reactiveStorageService.export("project1", Set.of("job1"), Set.of())).thenReturn(Flux.just(entry));
+
+        assertEquals(List.of(entry), controller.export("project1", request).collectList().block(),
+                "Exported entries must be passed through");
+    }
+}
@@ -1,21 +1,28 @@
 package eu.ibagroup.vfjobstorageservice.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import eu.ibagroup.vfjobstorageservice.dto.connections.ConnectionDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.JsonParseException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -25,12 +32,17 @@ public class ConnectionServiceTest {
     private RedisTemplate<String, String> redisTemplate;
     @Mock
     private HashOperations hashOperations;
+    @Mock
+    private Cursor<Map.Entry<Object, Object>> cursor;
     private ConnectionService connectionService;
     private static final String PROJECT_ID = "vf-project-name";
 
     @BeforeEach
     void setUp() {
-        connectionService = new ConnectionService(redisTemplate, new ObjectMapper());
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        connectionService = new ConnectionService(redisTemplate, new ObjectMapper(), storageCodec,
+                new DocumentCache(storageCodec), new StorageKeys(StorageKeys.Layout.PLAIN),
+                StorageMetrics.disabled());
     }
 
     @Test
@@ -59,6 +71,36 @@ public class ConnectionServiceTest {
         verify(hashOperations).entries(any());
     }
 
+    @Test
+    void testStreamAll() throws IOException {
+        Path file = Path.of("", "src/test/resources").resolve("connections.json");
+        String jsonConnection = Files.readString(file);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.scan(eq("connection:vf-project-name"), any())).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(Map.entry("51441ddd-53cd-41f4-9dde-371de6e315d6", jsonConnection));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        connectionService.streamAll(PROJECT_ID, outputStream);
+        JsonNode result = new ObjectMapper().readTree(outputStream.toByteArray());
+        assertTrue(result.get("editable").asBoolean(), "Must be true");
+        assertEquals(1, result.get("connections").size(), "Connections size must be 1");
+        assertEquals("51441ddd-53cd-41f4-9dde-371de6e315d6", result.get("connections").get(0).get("key").asText(),
+                "Keys must be equal");
+        verify(cursor).close();
+    }
+
+    @Test
+    void testStreamAllWithInvalidConnection() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.scan(eq("connection:vf-project-name"), any())).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true);
+        when(cursor.next()).thenReturn(Map.entry("connectionId", "{invalid"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertThrows(JsonParseException.class, () -> connectionService.streamAll(PROJECT_ID, outputStream),
+                "Invalid connection must not be skipped");
+        verify(cursor).close();
+    }
+
     @Test
     void testGet() throws IOException {
         Path file = Path.of("", "src/test/resources").resolve("connections.json");
@@ -0,0 +1,47 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DocumentCacheTest {
+    private static final String KEY = "project:projectId:pipeline:pipelineId";
+    private DocumentCache documentCache;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        documentCache = new DocumentCache(new StorageCodec(objectMapper), 10, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testInvalidate() throws IOException {
+        AtomicInteger reads = new AtomicInteger();
+
+        documentCache.read(KEY, () -> "{\"version\":" + reads.incrementAndGet() + "}", JsonNode.class);
+        documentCache.read(KEY, () -> "{\"version\":" + reads.incrementAndGet() + "}", JsonNode.class);
+        documentCache.invalidate(KEY);
+        JsonNode result = documentCache.read(KEY, () -> "{\"version\":" + reads.incrementAndGet() + "}",
+                JsonNode.class);
+
+        assertEquals(2, result.get("version").asInt(), "Document must be read again after invalidation");
+    }
+
+    @Test
+    void testReadDuringInvalidation() throws IOException {
+        documentCache.read(KEY, () -> {
+            documentCache.invalidate(KEY);
+            return "{\"version\":1}";
+        }, JsonNode.class);
+        JsonNode result = documentCache.read(KEY, () -> "{\"version\":2}", JsonNode.class);
+
+        assertEquals(2, result.get("version").asInt(), "Document changed while being read must not be cached");
+    }
+}
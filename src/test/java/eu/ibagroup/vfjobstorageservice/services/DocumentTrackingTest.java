@@ -0,0 +1,69 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.api.push.PushMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentTrackingTest {
+    private static final String JOB_KEY = "project:p1:job:j1";
+    private static final String PIPELINE_KEY = "project:p1:pipeline:pl1";
+    private static final String OTHER_PROJECT_JOB_KEY = "project:p2:job:j1";
+    @Mock
+    private LettuceConnectionFactory connectionFactory;
+    @Mock
+    private PushMessage message;
+    private DocumentCache documentCache;
+    private DocumentTracking documentTracking;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        documentCache = new DocumentCache(new StorageCodec(objectMapper), 10, Duration.ofMinutes(1));
+        documentTracking = new DocumentTracking(connectionFactory, documentCache, true);
+        for (String key : List.of(JOB_KEY, PIPELINE_KEY, OTHER_PROJECT_JOB_KEY)) {
+            read(key, 1);
+        }
+    }
+
+    @Test
+    void testOnPushMessage() throws IOException {
+        when(message.getType()).thenReturn("invalidate");
+        when(message.getContent(any())).thenReturn(List.of("invalidate", List.of("project:p1", "project:p1:versions")));
+
+        documentTracking.onPushMessage(message);
+
+        assertEquals(2, read(JOB_KEY, 2), "Job of the changed hash must be read again");
+        assertEquals(2, read(PIPELINE_KEY, 2), "Pipelines of the project are dropped along with the jobs");
+        assertEquals(1, read(OTHER_PROJECT_JOB_KEY, 2), "Job of another project must stay cached");
+    }
+
+    @Test
+    void testOnPushMessageFlush() throws IOException {
+        when(message.getType()).thenReturn("invalidate");
+        when(message.getContent(any())).thenReturn(Arrays.asList("invalidate", null));
+
+        documentTracking.onPushMessage(message);
+
+        assertEquals(2, read(OTHER_PROJECT_JOB_KEY, 2), "All the documents must be dropped on flush");
+    }
+
+    private int read(String key, int version) throws IOException {
+        return documentCache.read(key, () -> "{\"version\":" + version + "}", JsonNode.class).get("version").asInt();
+    }
+}
@@ -4,20 +4,44 @@ package eu.ibagroup.vfjobstorageservice.services;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import eu.ibagroup.vfjobstorageservice.dto.OverviewFilterDto;
+import eu.ibagroup.vfjobstorageservice.dto.importing.ImportResponseDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobBatchRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobBatchResponseDto;
 import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewListDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.BadRequestException;
+import eu.ibagroup.vfjobstorageservice.exceptions.ConflictException;
+import eu.ibagroup.vfjobstorageservice.exceptions.PreconditionFailedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -27,79 +51,396 @@ public class JobStorageServiceTest {
     @Mock
     private RedisTemplate<String, String> redisTemplate;
 
+    @Mock
+    private RedisTemplate<String, String> replicaRedisTemplate;
+
     @Mock
     private HashOperations hashOperations;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cursor<Map.Entry<Object, Object>> cursor;
 
     private JobStorageService jobStorageService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private static final List<String> INDEX_KEYS =
+            List.of("project:projectId", "project:projectId:job-names", "project:projectId:job-overviews",
+                    "project:projectId:versions");
+    private static final String OVERVIEW_JSON =
+            "{\"id\":\"41b95016-d0fd-4d5f-acbf-45764b6694d1\",\"name\":\"job1\",\"status\":\"Draft\"}";
 
     @BeforeEach
     void setUp() {
-        jobStorageService = new JobStorageService(redisTemplate, new ObjectMapper());
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        jobStorageService = new JobStorageService(redisTemplate, redisTemplate, new ObjectMapper(), storageCodec,
+                new DocumentCache(storageCodec), new StorageKeys(StorageKeys.Layout.PLAIN),
+                new StorageMetrics(meterRegistry));
     }
 
     @Test
     void testCreate() throws JsonProcessingException {
-        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
-        doNothing().when(hashOperations).put(anyString(), anyString(), any());
+        when(redisTemplate.execute(eq(RedisScripts.SAVE_JOB), anyList(), any(Object[].class)))
+                .thenReturn(RedisScripts.SCRIPT_SUCCESS);
         ObjectMapper objectMapper = new ObjectMapper();
         String jsonString = "{\"graph\":[]}";
         JsonNode rootNode = objectMapper.readTree(jsonString);
-        jobStorageService.create("projectId", JobDto.builder().definition(rootNode).build());
-        verify(hashOperations).put(eq("project:projectId"), anyString(), any());
+        jobStorageService.create("projectId", JobDto.builder().name("job").definition(rootNode).build());
+        verify(redisTemplate).execute(eq(RedisScripts.SAVE_JOB),
+                eq(INDEX_KEYS), any(Object[].class));
+    }
+
+    @Test
+    void testCreateWithExistingName() throws JsonProcessingException {
+        when(redisTemplate.execute(eq(RedisScripts.SAVE_JOB), anyList(), any(Object[].class)))
+                .thenReturn(RedisScripts.SCRIPT_NAME_TAKEN);
+        JsonNode rootNode = new ObjectMapper().readTree("{\"graph\":[]}");
+        JobDto jobDto = JobDto.builder().name("job").definition(rootNode).build();
+        assertThrows(BadRequestException.class, () -> jobStorageService.create("projectId", jobDto));
+    }
+
+    @Test
+    void testStreamAll() throws IOException {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.scan(eq("project:projectId:job-overviews"), any())).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(Map.entry("41b95016-d0fd-4d5f-acbf-45764b6694d1", OVERVIEW_JSON));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        jobStorageService.streamAll("projectId", outputStream);
+        JsonNode result = new ObjectMapper().readTree(outputStream.toByteArray());
+        assertTrue(result.get("editable").asBoolean(), "Must be true");
+        assertEquals(1, result.get("jobs").size(), "Jobs size must be 1");
+        assertEquals("job1", result.get("jobs").get(0).get("name").asText(), "Names must be equal");
+        verify(cursor).close();
+    }
+
+    @Test
+    void testGetPage() {
+        when(redisTemplate.execute(eq(RedisScripts.SCAN_HASH), eq(List.of("project:projectId:job-overviews")),
+                eq("0"), eq("10"))).thenReturn(List.of("17", List.of("41b95016-d0fd-4d5f-acbf-45764b6694d1",
+                OVERVIEW_JSON, "468ba0e3-5364-44fa-acbf-f474215715b4",
+                "{\"id\":\"468ba0e3-5364-44fa-acbf-f474215715b4\",\"name\":\"other\"}")));
+        JobOverviewListDto result = jobStorageService.getPage("projectId", null, 1,
+                OverviewFilterDto.builder().namePrefix("job").build());
+        assertEquals(1, result.getJobs().size(), "Only jobs matching the filter must be returned");
+        assertEquals("job1", result.getJobs().get(0).getName(), "Names must be equal");
+        assertEquals("17", result.getNextCursor(), "Cursor of the next page must be returned");
+    }
+
+    @Test
+    void testGetPageWithInvalidCursor() {
+        OverviewFilterDto filter = OverviewFilterDto.builder().build();
+        assertThrows(BadRequestException.class, () -> jobStorageService.getPage("projectId", "abc", 1, filter),
+                "Cursor must be a number");
+        assertThrows(BadRequestException.class, () -> jobStorageService.getPage("projectId",
+                "18446744073709551616", 1, filter), "Cursor must fit into 64 bits");
+        verify(redisTemplate, never()).execute(eq(RedisScripts.SCAN_HASH), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testFindByName() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get("project:projectId:job-names", "job1"))
+                .thenReturn("41b95016-d0fd-4d5f-acbf-45764b6694d1");
+        when(hashOperations.get("project:projectId:job-overviews", "41b95016-d0fd-4d5f-acbf-45764b6694d1"))
+                .thenReturn(OVERVIEW_JSON);
+        Optional<JobOverviewDto> job = jobStorageService.findByName("projectId", "job1");
+        assertTrue(job.isPresent(), "Job must be found by its name");
+        assertEquals("41b95016-d0fd-4d5f-acbf-45764b6694d1", job.get().getId(), "Ids must be equal");
     }
 
     @Test
     void testGet() throws IOException {
         Path file = Path.of("", "src/test/resources").resolve("jobs.json");
-        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
         String jsonJob = Files.readString(file);
-        when(hashOperations.get(any(), any())).thenReturn(jsonJob);
-        jobStorageService.get("projectId", "jobId");
-        verify(hashOperations).get(any(), any());
+        when(redisTemplate.execute(RedisScripts.GET_DOCUMENT, List.of("project:projectId",
+                "project:projectId:versions", "project:projectId:job-overviews"), "project:projectId:job:jobId",
+                "jobId")).thenReturn(Arrays.asList(jsonJob, "5",
+                "{\"id\":\"jobId\",\"name\":\"job1\",\"status\":\"Running\",\"runId\":\"7\"}"));
+        Versioned<JobDto> result = jobStorageService.getVersioned("projectId", "jobId");
+        assertEquals("Running", result.document().getStatus(), "Status must be taken from the overview");
+        assertEquals(7L, result.document().getRunId(), "Run ids must be equal");
+        assertEquals(5L, result.version(), "Version must be read with the job");
+        verifyNoInteractions(hashOperations);
     }
 
     @Test
-    void testGetAll() throws IOException {
+    void testGetWithKeyPerDocument() throws IOException {
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        JobStorageService service = new JobStorageService(redisTemplate, redisTemplate, new ObjectMapper(),
+                storageCodec, new DocumentCache(storageCodec),
+                new StorageKeys(StorageKeys.Layout.PLAIN, StorageKeys.DocumentLayout.KEY, null),
+                StorageMetrics.disabled());
+        when(redisTemplate.execute(RedisScripts.GET_DOCUMENT, List.of("project:projectId",
+                "project:projectId:versions", "project:projectId:job-overviews", "project:projectId:job:jobId"),
+                "project:projectId:job:jobId", "jobId")).thenReturn(Arrays.asList(
+                Files.readString(Path.of("", "src/test/resources").resolve("jobs.json")), null, OVERVIEW_JSON));
+
+        assertEquals("Draft", service.get("projectId", "jobId").getStatus(),
+                "Job must be read together with its key");
+    }
+
+    @Test
+    void testCreateWithKeyPerDocument() throws JsonProcessingException {
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        JobStorageService service = new JobStorageService(redisTemplate, redisTemplate, new ObjectMapper(),
+                storageCodec, new DocumentCache(storageCodec),
+                new StorageKeys(StorageKeys.Layout.PLAIN, StorageKeys.DocumentLayout.KEY, null),
+                StorageMetrics.disabled());
+        when(redisTemplate.execute(eq(RedisScripts.SAVE_JOB), anyList(), any(Object[].class)))
+                .thenReturn(RedisScripts.SCRIPT_SUCCESS);
+        JsonNode rootNode = new ObjectMapper().readTree("{\"graph\":[]}");
+
+        String jobId = service.create("projectId", JobDto.builder().name("job").definition(rootNode).build());
+
+        verify(redisTemplate).execute(eq(RedisScripts.SAVE_JOB), eq(List.of("project:projectId",
+                "project:projectId:job-names", "project:projectId:job-overviews", "project:projectId:versions",
+                "project:projectId:job:" + jobId)), any(Object[].class));
+    }
+
+    @Test
+    void testGetFromCache() throws IOException {
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        jobStorageService = new JobStorageService(redisTemplate, redisTemplate, new ObjectMapper(), storageCodec,
+                new DocumentCache(storageCodec, 10, Duration.ofMinutes(1)),
+                new StorageKeys(StorageKeys.Layout.PLAIN), StorageMetrics.disabled());
         Path file = Path.of("", "src/test/resources").resolve("jobs.json");
+        when(redisTemplate.execute(eq(RedisScripts.GET_DOCUMENT), anyList(), any(Object[].class)))
+                .thenReturn(Arrays.asList(Files.readString(file), "3",
+                        "{\"id\":\"jobId\",\"name\":\"job1\",\"status\":\"Running\",\"runId\":\"7\"}"));
         when(redisTemplate.opsForHash()).thenReturn(hashOperations);
-        String jsonJob = Files.readString(file);
-        when(hashOperations.entries(any())).thenReturn(Map.of("project:project3:job:41b95016-d0fd-4d5f-acbf-45764b6694d1", jsonJob, "project:project3:job:468ba0e3-5364-44fa-acbf-f474215715b4", jsonJob));
-        jobStorageService.getAll("projectId");
-        verify(hashOperations).entries(any());
+        when(hashOperations.get("project:projectId:job-overviews", "jobId"))
+                .thenReturn("{\"id\":\"jobId\",\"name\":\"job1\",\"status\":\"Succeeded\",\"runId\":\"7\"}");
+
+        JobDto first = jobStorageService.get("projectId", "jobId");
+        ((ArrayNode) first.getDefinition().get("graph")).removeAll();
+        Versioned<JobDto> second = jobStorageService.getVersioned("projectId", "jobId");
+
+        assertEquals("Running", first.getStatus(), "Status must be read with the job");
+        assertEquals("Succeeded", second.document().getStatus(), "Status must be taken from the overview");
+        assertEquals(3L, second.version(), "Version must be cached with the job");
+        assertFalse(second.document().getDefinition().get("graph").isEmpty(),
+                "Cached job must not be changed by the callers");
+        verify(redisTemplate).execute(eq(RedisScripts.GET_DOCUMENT), anyList(), any(Object[].class));
+        verify(hashOperations).get("project:projectId:job-overviews", "jobId");
     }
 
     @Test
-    void testUpdate() throws IOException {
+    void testGetAll() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.values("project:projectId:job-overviews")).thenReturn(List.of(OVERVIEW_JSON,
+                "{\"id\":\"468ba0e3-5364-44fa-acbf-f474215715b4\",\"name\":\"job2\",\"runnable\":true}"));
+        JobOverviewListDto result = jobStorageService.getAll("projectId");
+        assertEquals(2, result.getJobs().size(), "Jobs size must be 2");
+        assertEquals("Draft", result.getJobs().get(1).getStatus(), "Missing status must be shown as Draft");
+        verify(hashOperations, never()).values("project:projectId");
+        assertEquals(1, meterRegistry.get(StorageMetrics.REDIS).tag("entity", "job").tag("operation", "getAll")
+                .timer().count(), "Redis call must be timed");
+        assertEquals(2, meterRegistry.get(StorageMetrics.ENTRIES).tag("operation", "getAll").summary()
+                .totalAmount(), "Read entries must be counted");
+        assertEquals(2, meterRegistry.get(StorageMetrics.SERIALIZATION).tag("type", "JobOverview")
+                .tag("action", "read").timer().count(), "Overview reads must be timed");
+    }
+
+    @Test
+    void testGetAllFromReplica() {
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        jobStorageService = new JobStorageService(redisTemplate, replicaRedisTemplate, new ObjectMapper(),
+                storageCodec, new DocumentCache(storageCodec),
+                new StorageKeys(StorageKeys.Layout.PLAIN), StorageMetrics.disabled());
+        when(replicaRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.values("project:projectId:job-overviews")).thenReturn(List.of(OVERVIEW_JSON));
+        JobOverviewListDto result = jobStorageService.getAll("projectId");
+        assertEquals(1, result.getJobs().size(), "Jobs size must be 1");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testGetAllMovesProject() {
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        jobStorageService = new JobStorageService(redisTemplate, replicaRedisTemplate, new ObjectMapper(),
+                storageCodec, new DocumentCache(storageCodec),
+                new StorageKeys(StorageKeys.Layout.CLUSTER, StorageKeys.DocumentLayout.HASH, redisTemplate),
+                StorageMetrics.disabled());
+        when(redisTemplate.execute(eq(RedisScripts.MOVE_KEYS), anyList(), any(Object[].class))).thenReturn(2L);
+        when(replicaRedisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.values("project:{projectId}:job-overviews")).thenReturn(List.of(OVERVIEW_JSON));
+
+        assertEquals(1, jobStorageService.getAll("projectId").getJobs().size(), "Moved jobs must be read");
+        InOrder inOrder = inOrder(redisTemplate, hashOperations);
+        inOrder.verify(redisTemplate).execute(eq(RedisScripts.MOVE_KEYS), anyList(), any(Object[].class));
+        inOrder.verify(hashOperations).values("project:{projectId}:job-overviews");
+    }
+
+    @Test
+    void testGetAllRebuildsIndexes() throws IOException {
         Path file = Path.of("", "src/test/resources").resolve("jobs.json");
         String jsonJob = Files.readString(file);
         when(redisTemplate.opsForHash()).thenReturn(hashOperations);
-        when(hashOperations.get(any(), any())).thenReturn(jsonJob);
-        doNothing().when(hashOperations).put(anyString(), anyString(), any());
+        when(hashOperations.values("project:projectId:job-overviews")).thenReturn(List.of());
+        when(hashOperations.size("project:projectId")).thenReturn(1L);
+        when(redisTemplate.hasKey("project:projectId:job-overviews")).thenReturn(false);
+        when(hashOperations.values("project:projectId")).thenReturn(List.of(jsonJob));
+        JobOverviewListDto result = jobStorageService.getAll("projectId");
+        assertEquals(1, result.getJobs().size(), "Jobs size must be 1");
+        verify(redisTemplate).execute(eq(RedisScripts.REBUILD_INDEXES), eq(List.of("project:projectId",
+                        "project:projectId:job-names", "project:projectId:job-overviews")),
+                eq("project:projectId:job:41b95016-d0fd-4d5f-acbf-45764b6694d1"),
+                eq("41b95016-d0fd-4d5f-acbf-45764b6694d1"), eq("job1"), anyString());
+        verify(hashOperations, never()).putAll(anyString(), anyMap());
+    }
+
+    @Test
+    void testGetAllRebuildsIndexesOfMovedJobs() throws IOException {
+        String jsonJob = Files.readString(Path.of("", "src/test/resources").resolve("jobs.json"));
+        String jobKey = "project:projectId:job:41b95016-d0fd-4d5f-acbf-45764b6694d1";
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        jobStorageService = new JobStorageService(redisTemplate, redisTemplate, new ObjectMapper(), storageCodec,
+                new DocumentCache(storageCodec),
+                new StorageKeys(StorageKeys.Layout.PLAIN, StorageKeys.DocumentLayout.KEY, null),
+                StorageMetrics.disabled());
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(hashOperations.values("project:projectId:job-overviews")).thenReturn(List.of());
+        when(hashOperations.size("project:projectId")).thenReturn(0L);
+        when(redisTemplate.hasKey("project:projectId:job-overviews")).thenReturn(false);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(List.of(jobKey));
+        when(hashOperations.values("project:projectId")).thenReturn(List.of());
+        when(valueOperations.multiGet(List.of(jobKey))).thenReturn(List.of(jsonJob));
+
+        JobOverviewListDto result = jobStorageService.getAll("projectId");
+
+        assertEquals(1, result.getJobs().size(), "Job moved to its own key without overviews must be listed");
+        verify(redisTemplate).execute(eq(RedisScripts.REBUILD_INDEXES), eq(List.of("project:projectId",
+                        "project:projectId:job-names", "project:projectId:job-overviews", jobKey)),
+                eq(jobKey), eq("41b95016-d0fd-4d5f-acbf-45764b6694d1"), eq("job1"), anyString());
+    }
+
+    @Test
+    void testGetAllWithoutJobs() {
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        jobStorageService = new JobStorageService(redisTemplate, redisTemplate, new ObjectMapper(), storageCodec,
+                new DocumentCache(storageCodec),
+                new StorageKeys(StorageKeys.Layout.PLAIN, StorageKeys.DocumentLayout.KEY, null),
+                StorageMetrics.disabled());
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.values("project:projectId:job-overviews")).thenReturn(List.of());
+        when(hashOperations.size("project:projectId")).thenReturn(0L);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(List.of());
+
+        assertTrue(jobStorageService.getAll("projectId").getJobs().isEmpty(), "Empty project must have no jobs");
+        assertTrue(jobStorageService.getAll("projectId").getJobs().isEmpty(), "Empty project must have no jobs");
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    void testUpdate() throws IOException {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get("project:projectId:job-overviews", "jobId")).thenReturn(OVERVIEW_JSON);
+        when(redisTemplate.execute(eq(RedisScripts.SAVE_JOB), anyList(), any(Object[].class)))
+                .thenReturn(3L);
         ObjectMapper objectMapper = new ObjectMapper();
         String jsonString = "{\"graph\":[]}";
         JsonNode rootNode = objectMapper.readTree(jsonString);
-        jobStorageService.update("projectId", "jobId", JobDto.builder().definition(rootNode).build());
-        verify(hashOperations).put(eq("project:projectId"), anyString(), any());
+        long version = jobStorageService.update("projectId", "jobId", JobDto.builder().definition(rootNode).build(),
+                2L);
+        assertEquals(3L, version, "Versions must be equal");
+        verify(redisTemplate).execute(eq(RedisScripts.SAVE_JOB), eq(INDEX_KEYS),
+                eq("project:projectId:job:jobId"), eq("jobId"), eq(""), anyString(), anyString(), eq("job1"),
+                eq("0"), eq("1"), eq("2"));
+        verify(hashOperations, never()).get("project:projectId", "project:projectId:job:jobId");
     }
 
     @Test
-    void testUpdateStatus() throws IOException {
-        Path file = Path.of("", "src/test/resources").resolve("jobs.json");
+    void testUpdateWithAnotherVersion() throws IOException {
         when(redisTemplate.opsForHash()).thenReturn(hashOperations);
-        String jsonJob = Files.readString(file);
-        when(hashOperations.get(any(), any())).thenReturn(jsonJob);
+        when(hashOperations.get("project:projectId:job-overviews", "jobId")).thenReturn(OVERVIEW_JSON);
+        when(redisTemplate.execute(eq(RedisScripts.SAVE_JOB), anyList(), any(Object[].class)))
+                .thenReturn(RedisScripts.SCRIPT_VERSION_MISMATCH);
+        JobDto jobDto = JobDto.builder().definition(new ObjectMapper().readTree("{\"graph\":[]}")).build();
+        assertThrows(PreconditionFailedException.class,
+                () -> jobStorageService.update("projectId", "jobId", jobDto, 2L));
+    }
+
+    @Test
+    void testBatch() throws IOException {
+        JsonNode definition = new ObjectMapper().readTree("{\"graph\":[]}");
+        JobBatchRequestDto request = new JobBatchRequestDto(
+                List.of(JobDto.builder().name("job3").definition(definition).build()),
+                List.of(JobDto.builder().id("jobId").name("job1").definition(definition).build()),
+                List.of("job2"));
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet("project:projectId:job-overviews", List.of("job2", "jobId")))
+                .thenReturn(List.of("{\"id\":\"job2\",\"name\":\"job2\"}", "{\"id\":\"jobId\",\"name\":\"job1\"}"));
+        when(hashOperations.multiGet("project:projectId:job-names", List.of("job3", "job1")))
+                .thenReturn(Arrays.asList(null, "jobId"));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(1L, 2L, 1L));
+        JobBatchResponseDto response = jobStorageService.batch("projectId", request);
+        assertEquals(List.of("job2"), response.getDeleted(), "Deleted jobs must be equal");
+        assertEquals(List.of("jobId"), response.getUpdated(), "Updated jobs must be equal");
+        assertEquals(1, response.getCreated().size(), "One job must be created");
+        assertTrue(response.getErrors().isEmpty(), "There must be no errors");
+    }
+
+    @Test
+    void testBatchWithExistingName() throws IOException {
+        JsonNode definition = new ObjectMapper().readTree("{\"graph\":[]}");
+        JobBatchRequestDto request = new JobBatchRequestDto(
+                List.of(JobDto.builder().name("job1").definition(definition).build()), List.of(), List.of());
         when(redisTemplate.opsForHash()).thenReturn(hashOperations);
-        doNothing().when(hashOperations).put(anyString(), anyString(), any());
-        jobStorageService.updateStatus("projectId", "jobId", "newStatus", JobDto.builder().build());
-        verify(hashOperations).put(eq("project:projectId"), anyString(), any());
+        when(hashOperations.multiGet("project:projectId:job-names", List.of("job1"))).thenReturn(List.of("jobId"));
+        JobBatchResponseDto response = jobStorageService.batch("projectId", request);
+        assertTrue(response.getErrors().containsKey("job1"), "Job with existing name must not be created");
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void testImportAll() throws IOException {
+        JsonNode definition = new ObjectMapper().readTree("{\"graph\":[]}");
+        JobDto existingJob = JobDto.builder().name("job1").definition(definition).build();
+        JobDto newJob = JobDto.builder().name("job3").definition(definition).build();
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet("project:projectId:job-names", List.of("job1", "job3")))
+                .thenReturn(Arrays.asList("jobId", null));
+        when(hashOperations.multiGet("project:projectId:job-overviews", List.of("jobId")))
+                .thenReturn(List.of("{\"id\":\"jobId\",\"name\":\"job1\"}"));
+        when(hashOperations.multiGet("project:projectId:job-names", List.of("job3", "job1")))
+                .thenReturn(Arrays.asList(null, "jobId"));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(2L, 1L));
+        ImportResponseDto importData = new ImportResponseDto();
+        jobStorageService.importAll("projectId", List.of(existingJob, newJob), importData);
+        assertEquals("jobId", existingJob.getId(), "Existing job must be updated");
+        assertTrue(importData.getNotImportedJobs().isEmpty(), "All jobs must be imported");
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void testUpdateStatus() {
+        when(redisTemplate.execute(eq(RedisScripts.UPDATE_JOB_STATUS), anyList(), any(Object[].class)))
+                .thenReturn(RedisScripts.SCRIPT_SUCCESS);
+        jobStorageService.updateStatus("projectId", "jobId", "newStatus",
+                JobDto.builder().startedAt("2024-01-01 10:00:00").build(), null);
+        verify(redisTemplate).execute(eq(RedisScripts.UPDATE_JOB_STATUS), eq(INDEX_KEYS), eq("jobId"),
+                eq("newStatus"), eq("2024-01-01 10:00:00"), eq(""), eq(""), eq("project:projectId:job:jobId"));
+        verify(redisTemplate, never()).opsForHash();
+    }
+
+    @Test
+    void testUpdateStatusOfAnotherRun() {
+        when(redisTemplate.execute(eq(RedisScripts.UPDATE_JOB_STATUS), anyList(), any(Object[].class)))
+                .thenReturn(RedisScripts.SCRIPT_RUN_CHANGED);
+        JobDto jobDto = JobDto.builder().build();
+        assertThrows(ConflictException.class,
+                () -> jobStorageService.updateStatus("projectId", "jobId", "Succeeded", jobDto, 5L));
     }
 
     @Test
     void testDelete() {
         when(redisTemplate.opsForHash()).thenReturn(hashOperations);
-        when(hashOperations.delete(any(), any())).thenReturn(1L);
+        when(hashOperations.get("project:projectId:job-overviews", "jobId")).thenReturn(OVERVIEW_JSON);
         jobStorageService.delete("projectId", "jobId");
-        verify(hashOperations).delete(any(), any());
+        verify(redisTemplate).execute(eq(RedisScripts.DELETE_JOB), eq(INDEX_KEYS),
+                eq("project:projectId:job:jobId"), eq("jobId"), eq("job1"));
     }
 
 }
@@ -0,0 +1,269 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ibagroup.vfjobstorageservice.dto.OverviewFilterDto;
+import eu.ibagroup.vfjobstorageservice.dto.importing.ImportResponseDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewListDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.BadRequestException;
+import eu.ibagroup.vfjobstorageservice.exceptions.PreconditionFailedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static eu.ibagroup.vfjobstorageservice.dto.Constants.TRANSFER_BATCH_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PipelineServiceTest {
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private HashOperations hashOperations;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private SetOperations<String, String> setOperations;
+    @Mock
+    private JobStorageService jobService;
+
+    private static final String PIPELINES_KEY = "project:projectId:pipeline:";
+    private static final String PIPELINE_IDS_KEY = "project:projectId:pipeline-ids";
+
+    private PipelineService createService(StorageKeys.DocumentLayout documentLayout) {
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        return new PipelineService(redisTemplate, redisTemplate, new ObjectMapper(), storageCodec,
+                new DocumentCache(storageCodec),
+                new StorageKeys(StorageKeys.Layout.PLAIN, documentLayout, null), jobService,
+                new StorageMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static String toJson(String id, String name) {
+        return String.format("{\"id\":\"%s\",\"name\":\"%s\",\"status\":\"Draft\"}", id, name);
+    }
+
+    @Test
+    void testUpdate() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.values(PIPELINES_KEY)).thenReturn(List.of(toJson("id1", "pipeline1")));
+        when(redisTemplate.execute(eq(RedisScripts.SAVE_PIPELINE), anyList(), any(Object[].class))).thenReturn(4L);
+        PipelineDto pipeline = new PipelineDto();
+        pipeline.setName("pipeline1");
+
+        assertEquals(4L, createService(StorageKeys.DocumentLayout.HASH).update("projectId", "id1", pipeline, 3L),
+                "New version must be returned");
+        verify(redisTemplate).execute(eq(RedisScripts.SAVE_PIPELINE),
+                eq(List.of(PIPELINES_KEY, "project:projectId:versions")), eq("project:projectId:pipeline:id1"),
+                anyString(), eq("3"), eq("0"), eq("id1"));
+    }
+
+    @Test
+    void testUpdateWithVersionMismatch() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.values(PIPELINES_KEY)).thenReturn(List.of(toJson("id1", "pipeline1")));
+        when(redisTemplate.execute(eq(RedisScripts.SAVE_PIPELINE), anyList(), any(Object[].class)))
+                .thenReturn(RedisScripts.SCRIPT_VERSION_MISMATCH);
+        PipelineService pipelineService = createService(StorageKeys.DocumentLayout.HASH);
+        PipelineDto pipeline = new PipelineDto();
+        pipeline.setName("pipeline1");
+
+        assertThrows(PreconditionFailedException.class, () -> pipelineService.update("projectId", "id1", pipeline,
+                2L), "Pipeline changed since it was read must not be overwritten");
+    }
+
+    @Test
+    void testGetPageAcrossDocumentLayouts() {
+        when(redisTemplate.execute(RedisScripts.SCAN_HASH, List.of(PIPELINES_KEY), "0", "10"))
+                .thenReturn(List.of("0", List.of("project:projectId:pipeline:id1", toJson("id1", "pipeline1"))));
+        when(redisTemplate.execute(RedisScripts.SCAN_SET, List.of(PIPELINE_IDS_KEY), "0", "10"))
+                .thenReturn(List.of("5", List.of("id2")));
+        when(redisTemplate.execute(RedisScripts.SCAN_SET, List.of(PIPELINE_IDS_KEY), "5", "10"))
+                .thenReturn(List.of("0", List.of("id3")));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("project:projectId:pipeline:id2")))
+                .thenReturn(List.of(toJson("id2", "pipeline2")));
+        when(valueOperations.multiGet(List.of("project:projectId:pipeline:id3")))
+                .thenReturn(List.of(toJson("id3", "pipeline3")));
+        PipelineService pipelineService = createService(StorageKeys.DocumentLayout.KEY);
+        OverviewFilterDto filter = OverviewFilterDto.builder().build();
+
+        PipelineOverviewListDto first = pipelineService.getPage("projectId", null, 2, filter);
+        assertEquals(List.of("pipeline1", "pipeline2"),
+                first.getPipelines().stream().map(PipelineOverviewDto::getName).toList(),
+                "Pipelines left in the hash must be followed by the ones stored under their own keys");
+        assertEquals("s5", first.getNextCursor(), "Cursor must continue in the set of pipeline IDs");
+
+        PipelineOverviewListDto second = pipelineService.getPage("projectId", first.getNextCursor(), 2, filter);
+        assertEquals(List.of("pipeline3"),
+                second.getPipelines().stream().map(PipelineOverviewDto::getName).toList(),
+                "Remaining pipelines must be read from their own keys");
+        assertNull(second.getNextCursor(), "Last page must not have a cursor");
+        verify(redisTemplate, times(1)).execute(eq(RedisScripts.SCAN_HASH), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testGetPageSkipsMovedPipelines() {
+        when(redisTemplate.execute(RedisScripts.SCAN_HASH, List.of(PIPELINES_KEY), "0", "10"))
+                .thenReturn(List.of("0", List.of("project:projectId:pipeline:id1", toJson("id1", "pipeline1"))));
+        when(redisTemplate.execute(RedisScripts.SCAN_SET, List.of(PIPELINE_IDS_KEY), "0", "10"))
+                .thenReturn(List.of("0", List.of("id1", "id2")));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("project:projectId:pipeline:id2")))
+                .thenReturn(List.of(toJson("id2", "pipeline2")));
+
+        PipelineOverviewListDto page = createService(StorageKeys.DocumentLayout.KEY)
+                .getPage("projectId", null, 5, OverviewFilterDto.builder().build());
+
+        assertEquals(List.of("pipeline1", "pipeline2"),
+                page.getPipelines().stream().map(PipelineOverviewDto::getName).toList(),
+                "Pipeline moved after it has been read from the hash must not be returned twice");
+    }
+
+    @Test
+    void testGetAllSkipsMovedPipelines() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(hashOperations.entries(PIPELINES_KEY))
+                .thenReturn(Map.of("project:projectId:pipeline:id1", toJson("id1", "pipeline1")));
+        when(setOperations.members(PIPELINE_IDS_KEY)).thenReturn(Set.of("id1"));
+
+        PipelineOverviewListDto pipelines = createService(StorageKeys.DocumentLayout.KEY).getAll("projectId");
+
+        assertEquals(List.of("pipeline1"),
+                pipelines.getPipelines().stream().map(PipelineOverviewDto::getName).toList(),
+                "Pipeline moved after it has been read from the hash must not be returned twice");
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    void testGetPageWithInvalidCursor() {
+        PipelineService pipelineService = createService(StorageKeys.DocumentLayout.KEY);
+        OverviewFilterDto filter = OverviewFilterDto.builder().build();
+
+        assertThrows(BadRequestException.class, () -> pipelineService.getPage("projectId", "s-1", 2, filter),
+                "Cursor of the pipeline IDs must be a number");
+        assertThrows(BadRequestException.class, () -> pipelineService.getPage("projectId", "abc", 2, filter),
+                "Cursor of the hash must be a number");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testGetVersionedFromCache() {
+        when(redisTemplate.execute(RedisScripts.GET_DOCUMENT, List.of(PIPELINES_KEY, "project:projectId:versions",
+                "project:projectId:versions"), "project:projectId:pipeline:id1", ""))
+                .thenReturn(Arrays.asList(toJson("id1", "pipeline1"), "4", null));
+        StorageCodec storageCodec = new StorageCodec(new ObjectMapper());
+        PipelineService pipelineService = new PipelineService(redisTemplate, redisTemplate, new ObjectMapper(),
+                storageCodec, new DocumentCache(storageCodec, 10, Duration.ofMinutes(1)),
+                new StorageKeys(StorageKeys.Layout.PLAIN), jobService, StorageMetrics.disabled());
+
+        Versioned<PipelineDto> first = pipelineService.getVersioned("projectId", "id1");
+        Versioned<PipelineDto> second = pipelineService.getVersioned("projectId", "id1");
+
+        assertEquals("pipeline1", second.document().getName(), "Names must be equal");
+        assertEquals(4L, second.version(), "Version must be cached with the pipeline");
+        assertSame(first.document(), second.document(), "Cached pipeline must not be deserialized again");
+        verify(redisTemplate).execute(eq(RedisScripts.GET_DOCUMENT), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testGetByIdMovedWhileReading() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(valueOperations.get("project:projectId:pipeline:id1")).thenReturn(null, toJson("id1", "pipeline1"));
+        when(hashOperations.get(PIPELINES_KEY, "project:projectId:pipeline:id1")).thenReturn(null);
+
+        PipelineDto pipeline = createService(StorageKeys.DocumentLayout.KEY).getById("projectId", "id1");
+        assertEquals("pipeline1", pipeline.getName(), "Pipeline moved to its own key must be found");
+    }
+
+    @Test
+    void testImportAllInBatches() throws JsonProcessingException {
+        List<PipelineDto> pipelines = new ArrayList<>();
+        for (int i = 0; i <= TRANSFER_BATCH_SIZE; i++) {
+            PipelineDto pipeline = new PipelineDto();
+            pipeline.setName("pipeline" + i);
+            pipeline.setDefinition(new ObjectMapper().readTree("{\"graph\":[]}"));
+            pipelines.add(pipeline);
+        }
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(Collections.nCopies(TRANSFER_BATCH_SIZE, 1L), List.of(RedisScripts.SCRIPT_ALREADY_EXISTS));
+        ImportResponseDto result = new ImportResponseDto();
+
+        createService(StorageKeys.DocumentLayout.HASH).importAll("projectId", pipelines, result, new HashMap<>(),
+                new HashMap<>());
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+        assertEquals(Set.of("pipeline" + TRANSFER_BATCH_SIZE), result.getNotImportedPipelines(),
+                "Pipeline, which is not saved, must be reported");
+        assertTrue(pipelines.stream().allMatch(pipeline -> pipeline.getId() != null),
+                "Every pipeline must get an ID");
+    }
+
+    @Test
+    void testImportAllWithNestedPipeline() throws JsonProcessingException {
+        PipelineDto nested = createPipeline("nested", "{\"graph\":[]}");
+        PipelineDto parent = createPipeline("parent", "{\"graph\":[{\"id\":\"1\",\"vertex\":true," +
+                "\"value\":{\"operation\":\"PIPELINE\",\"pipelineName\":\"nested\",\"pipelineId\":\"old\"}}]}");
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(1L), List.of(1L));
+        Map<String, String> pipelineIds = new HashMap<>();
+
+        createService(StorageKeys.DocumentLayout.HASH).importAll("projectId", List.of(nested, parent),
+                new ImportResponseDto(), new HashMap<>(), pipelineIds);
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+        assertEquals(Map.of("nested", nested.getId(), "parent", parent.getId()), pipelineIds,
+                "Saved pipelines must be added to the names");
+        assertEquals(nested.getId(), parent.getDefinition().at("/graph/0/value/pipelineId").asText(),
+                "Parent must contain the saved nested pipeline");
+    }
+
+    @Test
+    void testImportAllWithFailedNestedPipeline() throws JsonProcessingException {
+        PipelineDto nested = createPipeline("nested", "{\"graph\":[]}");
+        PipelineDto parent = createPipeline("parent", "{\"graph\":[{\"id\":\"1\",\"vertex\":true," +
+                "\"value\":{\"operation\":\"PIPELINE\",\"pipelineName\":\"nested\",\"pipelineId\":\"old\"}}]}");
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(RedisScripts.SCRIPT_ALREADY_EXISTS));
+        ImportResponseDto result = new ImportResponseDto();
+        Map<String, String> pipelineIds = new HashMap<>();
+
+        createService(StorageKeys.DocumentLayout.HASH).importAll("projectId", List.of(nested, parent), result,
+                new HashMap<>(), pipelineIds);
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        assertTrue(pipelineIds.isEmpty(), "Pipeline, which is not saved, must not be added to the names");
+        assertEquals(Set.of("nested", "parent"), result.getNotImportedPipelines(),
+                "Pipeline containing the one, which is not saved, must not be imported");
+        assertEquals(List.of("Pipeline with id " + nested.getId() + " already exists"),
+                result.getErrorsInPipelines().get("nested"), "Error must contain the pipeline's ID");
+    }
+
+    private static PipelineDto createPipeline(String name, String definition) throws JsonProcessingException {
+        PipelineDto pipeline = new PipelineDto();
+        pipeline.setName(name);
+        pipeline.setDefinition(new ObjectMapper().readTree(definition));
+        return pipeline;
+    }
+}
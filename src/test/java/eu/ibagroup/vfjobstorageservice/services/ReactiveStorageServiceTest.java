@@ -0,0 +1,118 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.BundleEntryDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobOverviewDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineOverviewDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveSetOperations;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveStorageServiceTest {
+    private static final String PIPELINE_JSON = "{\"id\":\"id1\",\"name\":\"pipeline1\",\"status\":\"Draft\"}";
+    @Mock
+    private ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    @Mock
+    private ReactiveHashOperations<String, String, String> hashOperations;
+    @Mock
+    private ReactiveSetOperations<String, String> setOperations;
+    @Mock
+    private ReactiveValueOperations<String, String> valueOperations;
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private TransferService transferService;
+    private StorageCodec storageCodec;
+    private JobStorageService jobService;
+
+    @BeforeEach
+    void setUp() {
+        storageCodec = new StorageCodec(new ObjectMapper());
+        jobService = new JobStorageService(redisTemplate, redisTemplate, new ObjectMapper(), storageCodec,
+                new DocumentCache(storageCodec), new StorageKeys(StorageKeys.Layout.PLAIN),
+                StorageMetrics.disabled());
+    }
+
+    private ReactiveStorageService createService(StorageKeys.DocumentLayout documentLayout) {
+        return new ReactiveStorageService(reactiveRedisTemplate, jobService, transferService, storageCodec,
+                new StorageKeys(StorageKeys.Layout.PLAIN, documentLayout, null));
+    }
+
+    @Test
+    void testGetJobs() {
+        when(reactiveRedisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.scan(eq("project:projectId:job-overviews"), any())).thenReturn(Flux.just(
+                Map.entry("job1", "{\"id\":\"job1\",\"name\":\"job1\",\"status\":\"Running\"}")));
+
+        List<JobOverviewDto> jobs = createService(StorageKeys.DocumentLayout.HASH).getJobs("projectId")
+                .collectList().block();
+
+        assertEquals(1, jobs.size(), "Jobs size must be 1");
+        assertEquals("Running", jobs.get(0).getStatus(), "Status must be taken from the overview");
+    }
+
+    @Test
+    void testGetPipelinesWithKeyPerDocument() {
+        when(reactiveRedisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(reactiveRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(reactiveRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(hashOperations.scan(eq("project:projectId:pipeline:"), any())).thenReturn(Flux.just(
+                Map.entry("project:projectId:pipeline:id0", PIPELINE_JSON.replace("id1", "id0"))));
+        when(setOperations.scan(eq("project:projectId:pipeline-ids"), any())).thenReturn(Flux.just("id0", "id1"));
+        when(valueOperations.multiGet(List.of("project:projectId:pipeline:id0", "project:projectId:pipeline:id1")))
+                .thenReturn(Mono.just(List.of(PIPELINE_JSON.replace("id1", "id0"), PIPELINE_JSON)));
+
+        List<PipelineOverviewDto> pipelines = createService(StorageKeys.DocumentLayout.KEY)
+                .getPipelines("projectId").collectList().block();
+
+        assertEquals(List.of("id0", "id1"), pipelines.stream().map(PipelineOverviewDto::getId).toList(),
+                "Pipelines of the hash and of their own keys must be read once");
+    }
+
+    @Test
+    void testExport() throws IOException {
+        String jobJson = Files.readString(Path.of("", "src/test/resources").resolve("jobs.json"));
+        String jobId = "41b95016-d0fd-4d5f-acbf-45764b6694d1";
+        when(transferService.collectExportedIds("projectId", Set.of(jobId), Set.of()))
+                .thenReturn(new TransferService.ExportedIds(Set.of(jobId, "missing"), List.of("id1")));
+        when(reactiveRedisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(eq("project:projectId"), any())).thenReturn(Mono.just(
+                Arrays.asList(jobJson, null)));
+        when(hashOperations.multiGet(eq("project:projectId:job-overviews"), any())).thenReturn(Mono.just(
+                Arrays.asList("{\"id\":\"" + jobId + "\",\"status\":\"Failed\"}", null)));
+        when(hashOperations.multiGet("project:projectId:pipeline:", List.of("project:projectId:pipeline:id1")))
+                .thenReturn(Mono.just(List.of(PIPELINE_JSON)));
+
+        List<BundleEntryDto> entries = createService(StorageKeys.DocumentLayout.HASH)
+                .export("projectId", Set.of(jobId), Set.of()).collectList().block();
+
+        assertEquals(2, entries.size(), "Missing job must be skipped");
+        assertEquals("Failed", entries.get(0).getJob().getStatus(), "Job must have its runtime state");
+        assertNull(entries.get(1).getJob(), "Pipelines must follow the jobs");
+        assertEquals("id1", entries.get(1).getPipeline().getId(), "Pipeline must be exported");
+    }
+}
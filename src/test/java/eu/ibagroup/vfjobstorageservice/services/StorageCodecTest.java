@@ -0,0 +1,164 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import eu.ibagroup.vfjobstorageservice.exceptions.JsonParseException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageCodecTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testWriteCompressed() throws IOException {
+        JsonNode job = objectMapper.readTree(Files.readString(Path.of("", "src/test/resources").resolve("jobs.json")));
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.JSON,
+                StorageCodec.Compression.DEFLATE, 0);
+
+        String value = codec.write(job);
+
+        assertEquals(StorageCodec.DEFLATE_HEADER, value.charAt(0), "Value must start with the header");
+        assertTrue(value.length() < objectMapper.writeValueAsString(job).length(), "Value must be compressed");
+        assertEquals(job, codec.read(value, JsonNode.class), "Read value must be equal to the written one");
+    }
+
+    @Test
+    void testCompressedSize() throws IOException {
+        JsonNode job = objectMapper.readTree(Files.readString(Path.of("", "src/test/resources").resolve("jobs.json")));
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.JSON,
+                StorageCodec.Compression.DEFLATE, 0);
+
+        byte[] stored = new StorageSerializer().serialize(codec.write(job));
+
+        assertTrue(stored.length * 5 < objectMapper.writeValueAsBytes(job).length,
+                "Definition must be stored in less than a fifth of its JSON");
+    }
+
+    @Test
+    void testReadBase64Compressed() throws IOException {
+        JsonNode job = objectMapper.readTree(Files.readString(Path.of("", "src/test/resources").resolve("jobs.json")));
+        String value = new StorageCodec(objectMapper, StorageCodec.Format.JSON, StorageCodec.Compression.DEFLATE, 0)
+                .write(job);
+        String base64 = StorageCodec.BASE64_DEFLATE_HEADER + Base64.getEncoder()
+                .encodeToString(value.substring(1).getBytes(StandardCharsets.ISO_8859_1));
+
+        assertEquals(job, new StorageCodec(objectMapper).read(base64, JsonNode.class),
+                "Compressed document written in Base64 before must be read");
+    }
+
+    @Test
+    void testWriteBelowThreshold() throws IOException {
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.JSON,
+                StorageCodec.Compression.DEFLATE, 512);
+
+        String value = codec.write(objectMapper.readTree("{\"key\":\"value\"}"));
+
+        assertEquals("{\"key\":\"value\"}", value, "Small values must be stored as plain JSON");
+    }
+
+    @Test
+    void testReadPlain() throws IOException {
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.JSON,
+                StorageCodec.Compression.DEFLATE, 0);
+
+        JsonNode value = codec.read("{\"key\":\"value\"}", JsonNode.class);
+
+        assertEquals("value", value.get("key").asText(), "Plain JSON must be read as is");
+    }
+
+    @Test
+    void testReadCorrupted() {
+        StorageCodec codec = new StorageCodec(objectMapper);
+
+        assertThrows(JsonParseException.class, () -> codec.read(StorageCodec.DEFLATE_HEADER + "AAAA", JsonNode.class),
+                "Corrupted value must not be read");
+    }
+
+    @Test
+    void testWriteSmile() throws IOException {
+        JsonNode job = objectMapper.readTree(Files.readString(Path.of("", "src/test/resources").resolve("jobs.json")));
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.SMILE,
+                StorageCodec.Compression.DEFLATE, 0);
+
+        String value = codec.write(job);
+
+        assertEquals(StorageCodec.DEFLATE_HEADER, value.charAt(0), "Value must start with the header");
+        assertTrue(value.length() < new StorageCodec(objectMapper).write(job).length(),
+                "Smile document must be smaller than JSON");
+        assertEquals(job, new StorageCodec(objectMapper).read(value, JsonNode.class),
+                "Smile must be read regardless of the configured format");
+    }
+
+    @Test
+    void testWriteSmileBelowThreshold() throws IOException {
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.SMILE,
+                StorageCodec.Compression.DEFLATE, 512);
+        JsonNode value = objectMapper.readTree("{\"key\":\"value\"}");
+
+        String stored = codec.write(value);
+
+        assertEquals(StorageCodec.BINARY_HEADER, stored.charAt(0), "Small values must be stored as Smile");
+        assertEquals(value, codec.read(stored, JsonNode.class), "Read value must be equal to the written one");
+    }
+
+    @Test
+    void testWriteUncompressedSmile() throws IOException {
+        JsonNode job = objectMapper.readTree(Files.readString(Path.of("", "src/test/resources").resolve("jobs.json")));
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.SMILE,
+                StorageCodec.Compression.NONE, 0);
+
+        byte[] stored = new StorageSerializer().serialize(codec.write(job));
+
+        assertTrue(stored.length < objectMapper.writeValueAsBytes(job).length,
+                "Smile document must be smaller than JSON");
+        assertEquals(job, new StorageCodec(objectMapper).read(codec.write(job), JsonNode.class),
+                "Smile must be read regardless of the configured format");
+    }
+
+    @Test
+    void testReadUncompressedSmile() throws IOException {
+        JsonNode job = objectMapper.readTree("{\"key\":\"value\"}");
+        String value = StorageCodec.BASE64_HEADER + Base64.getEncoder()
+                .encodeToString(objectMapper.copyWith(new SmileFactory()).writeValueAsBytes(job));
+
+        assertEquals(job, new StorageCodec(objectMapper).read(value, JsonNode.class),
+                "Uncompressed Smile written before must be read");
+    }
+
+    @Test
+    void testRewrite() throws IOException {
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.SMILE,
+                StorageCodec.Compression.DEFLATE, 0);
+
+        String value = codec.rewrite("{\"key\":\"value\"}");
+
+        assertEquals(StorageCodec.DEFLATE_HEADER, value.charAt(0), "Value must be rewritten");
+        assertEquals(value, codec.rewrite(value), "Rewritten value must not change anymore");
+    }
+
+    @Test
+    void testMetrics() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StorageCodec codec = new StorageCodec(objectMapper, StorageCodec.Format.JSON,
+                StorageCodec.Compression.NONE, 0, new StorageMetrics(registry));
+
+        codec.read(codec.write(objectMapper.readTree("{\"key\":\"value\"}")), JsonNode.class);
+
+        DistributionSummary written = registry.get(StorageMetrics.DOCUMENT_SIZE).tag("action", "write").summary();
+        assertEquals(15, written.totalAmount(), "Written size must be recorded");
+        assertEquals(1, registry.get(StorageMetrics.SERIALIZATION).tag("action", "read").timer().count(),
+                "Read must be timed");
+    }
+}
@@ -0,0 +1,76 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageDiagnosticsTest {
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+    private final Logger logger = (Logger) LoggerFactory.getLogger(StorageDiagnostics.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void testRecordSlow() {
+        StorageDiagnostics diagnostics = new StorageDiagnostics(Duration.ofMillis(500), 2, 10);
+
+        diagnostics.record(StorageMetrics.JOB, "getAll", "project", 1000, List.of("{}"), null);
+        diagnostics.record(StorageMetrics.JOB, "getAll", "project", SLOW, List.of("{}", "{\"a\":1}"), null);
+        diagnostics.record(StorageMetrics.JOB, "save", "project", SLOW, 1L, new Object[]{"key", "{}"});
+        diagnostics.record(StorageMetrics.JOB, "save", "project", SLOW, 1L, null);
+
+        assertEquals(2, appender.list.size(), "Only the slow calls within the limit must be logged");
+        assertEquals("Slow Redis call job getAll in project 'project': 1000 ms, 2 entries, 9 bytes, "
+                + "0 slow calls suppressed", appender.list.get(0).getFormattedMessage(), "Slow call must be logged");
+        assertTrue(appender.list.get(1).getFormattedMessage().contains("1 entries, 5 bytes"),
+                "Payload size must be logged");
+    }
+
+    @Test
+    void testGetHottest() {
+        StorageDiagnostics diagnostics = new StorageDiagnostics(Duration.ZERO, 0, 10);
+
+        Map.of("p1", 1, "p2", 3, "p3", 2).forEach((projectId, calls) -> {
+            for (int i = 0; i < calls; i++) {
+                diagnostics.record(StorageMetrics.PIPELINE, "get", projectId, SLOW, null, null);
+            }
+        });
+
+        assertEquals(List.of(new StorageDiagnostics.KeyAccess(StorageMetrics.PIPELINE, "p2", 3),
+                        new StorageDiagnostics.KeyAccess(StorageMetrics.PIPELINE, "p3", 2)),
+                diagnostics.getHottest(2), "Most used keys must be reported first");
+        assertTrue(appender.list.isEmpty(), "Slow calls must not be logged with zero threshold");
+    }
+
+    @Test
+    void testDisabled() {
+        StorageDiagnostics diagnostics = StorageDiagnostics.disabled();
+
+        diagnostics.record(StorageMetrics.CONNECTION, "get", "project", SLOW, "{}", null);
+
+        assertTrue(diagnostics.getHottest(10).isEmpty(), "Calls must not be counted");
+        assertTrue(appender.list.isEmpty(), "Calls must not be logged");
+    }
+}
@@ -0,0 +1,116 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StorageKeysTest {
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Test
+    void testPlainLayout() {
+        StorageKeys storageKeys = new StorageKeys(StorageKeys.Layout.PLAIN, StorageKeys.DocumentLayout.HASH,
+                redisTemplate);
+
+        assertEquals("project:p1", storageKeys.getJobsKey("p1"), "Jobs key must be plain");
+        assertEquals("project:p1:pipeline:", storageKeys.getPipelinesKey("p1"), "Pipelines key must be plain");
+        assertEquals("connection:p1", storageKeys.getConnectionsKey("p1"), "Connections key must be plain");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testClusterLayout() {
+        when(redisTemplate.execute(eq(RedisScripts.MOVE_KEYS), anyList(), any(Object[].class))).thenReturn(2L);
+        StorageKeys storageKeys = new StorageKeys(StorageKeys.Layout.CLUSTER, StorageKeys.DocumentLayout.HASH,
+                redisTemplate);
+
+        assertEquals("project:{p1}:job-names", storageKeys.getJobNamesKey("p1"), "Project ID must be a hash tag");
+        assertEquals("project:{p1}:versions", storageKeys.getVersionsKey("p1"), "Project ID must be a hash tag");
+        assertEquals("connection:{p1}", storageKeys.getConnectionsKey("p1"), "Project ID must be a hash tag");
+        assertEquals("project:p1:job:j1", StorageKeys.getJobField("p1", "j1"), "Fields must not depend on layout");
+        verify(redisTemplate, never()).execute(eq(RedisScripts.MOVE_KEYS), anyList(), any(Object[].class));
+
+        assertEquals(2, storageKeys.moveProject("p1"), "Project keys must be moved");
+        assertEquals(0, storageKeys.moveProject("p1"), "Moved project must not be moved again");
+        verify(redisTemplate, times(1)).execute(RedisScripts.MOVE_KEYS, List.of("project:p1",
+                "project:p1:job-names", "project:p1:job-overviews", "project:p1:versions", "project:p1:pipeline:",
+                "connection:p1", "project:p1:pipeline-ids", "project:{p1}", "project:{p1}:job-names",
+                "project:{p1}:job-overviews", "project:{p1}:versions", "project:{p1}:pipeline:", "connection:{p1}",
+                "project:{p1}:pipeline-ids"), "project:p1:job:", "project:{p1}:job:", "project:p1:pipeline:",
+                "project:{p1}:pipeline:");
+    }
+
+    @Test
+    void testMoveProjectAfterFailure() {
+        when(redisTemplate.execute(eq(RedisScripts.MOVE_KEYS), anyList(), any(Object[].class)))
+                .thenThrow(new RedisSystemException("Connection lost", null))
+                .thenReturn(1L);
+        StorageKeys storageKeys = new StorageKeys(StorageKeys.Layout.CLUSTER, StorageKeys.DocumentLayout.HASH,
+                redisTemplate);
+
+        assertThrows(RedisSystemException.class, () -> storageKeys.moveProject("p1"), "Failed move must be thrown");
+        assertEquals(1, storageKeys.moveProject("p1"), "Failed move must be retried");
+        assertEquals(0, storageKeys.moveProject("p1"), "Moved project must not be moved again");
+        verify(redisTemplate, times(2)).execute(eq(RedisScripts.MOVE_KEYS), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void testKeyPerDocument() {
+        StorageKeys storageKeys = new StorageKeys(StorageKeys.Layout.CLUSTER, StorageKeys.DocumentLayout.KEY, null);
+
+        assertTrue(storageKeys.isKeyPerDocument(), "Documents must be stored under their own keys");
+        assertEquals("project:{p1}:job:j1", storageKeys.getJobKey("p1", "j1"), "Job key must have a hash tag");
+        assertEquals("project:{p1}:pipeline:id1", storageKeys.getPipelineKey("p1", "id1"),
+                "Pipeline key must have a hash tag");
+        assertEquals("project:{p1}:pipeline-ids", storageKeys.getPipelineIdsKey("p1"),
+                "Pipeline IDs key must have a hash tag");
+    }
+
+    @Test
+    void testIsDocumentKey() {
+        assertTrue(StorageKeys.isDocumentKey("project:p1:job:j1"), "Job key holds a document");
+        assertTrue(StorageKeys.isDocumentKey("project:{p1}:pipeline:id1"), "Pipeline key holds a document");
+        assertFalse(StorageKeys.isDocumentKey("project:p1:pipeline:"), "Pipelines hash is not a document");
+        assertFalse(StorageKeys.isDocumentKey("project:p1:pipeline-ids"), "Pipeline IDs are not a document");
+        assertFalse(StorageKeys.isDocumentKey("connection:p1"), "Connections hash is not a document");
+    }
+
+    @Test
+    void testGetProjectId() {
+        assertEquals("p1", StorageKeys.getProjectId("project:p1:job-overviews"), "Plain key has project ID");
+        assertEquals("p1", StorageKeys.getProjectId("project:{p1}:pipeline:"), "Tagged key has project ID");
+        assertEquals("p1", StorageKeys.getProjectId("connection:p1"), "Connections key has project ID");
+        assertNull(StorageKeys.getProjectId("job-storage:invalidations"), "Key must belong to a project");
+    }
+
+    @Test
+    void testIsDocumentHash() {
+        assertTrue(StorageKeys.isDocumentHash("project:p1"), "Jobs hash holds documents");
+        assertTrue(StorageKeys.isDocumentHash("project:{p1}"), "Tagged jobs hash holds documents");
+        assertTrue(StorageKeys.isDocumentHash("project:p1:pipeline:"), "Pipelines hash holds documents");
+        assertTrue(StorageKeys.isDocumentHash("connection:{p1}"), "Connections hash holds documents");
+        assertFalse(StorageKeys.isDocumentHash("project:p1:job-names"), "Name index is not migrated");
+        assertFalse(StorageKeys.isDocumentHash("project:{p1}:versions"), "Versions are not migrated");
+    }
+}
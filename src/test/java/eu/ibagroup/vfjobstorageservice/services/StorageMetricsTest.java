@@ -0,0 +1,68 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class StorageMetricsTest {
+
+    @Test
+    void testRecordRedis() {
+        List<Observation.Context> stopped = new ArrayList<>();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        StorageMetrics metrics = new StorageMetrics(new SimpleMeterRegistry(), observationRegistry,
+                StorageDiagnostics.disabled());
+
+        Observation current = metrics.recordRedis(StorageMetrics.PIPELINE, "getAll", "project",
+                observationRegistry::getCurrentObservation);
+
+        assertNotNull(current, "Redis call must run within the observation");
+        assertEquals(1, stopped.size(), "Observation must be stopped");
+        assertEquals("pipeline getAll", stopped.get(0).getContextualName(), "Span must be named by the operation");
+        assertEquals("getAll", stopped.get(0).getLowCardinalityKeyValue("operation").getValue(),
+                "Operation must be tagged");
+    }
+
+    @Test
+    void testRecordRedisTimer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StorageMetrics metrics = new StorageMetrics(registry);
+
+        metrics.recordRedis(StorageMetrics.CONNECTION, "delete", "project", null, () -> {
+        });
+
+        assertEquals(1, registry.get(StorageMetrics.REDIS).tag("entity", "connection").tag("operation", "delete")
+                .timer().count(), "Redis call must be timed");
+    }
+
+    @Test
+    void testRecordRedisDiagnostics() {
+        StorageDiagnostics diagnostics = new StorageDiagnostics(Duration.ZERO, 0, 10);
+        StorageMetrics metrics = new StorageMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP, diagnostics);
+
+        metrics.recordRedis(StorageMetrics.JOB, "save", "project", "{}", () -> 1L);
+
+        assertEquals(List.of(new StorageDiagnostics.KeyAccess(StorageMetrics.JOB, "project", 1)),
+                diagnostics.getHottest(10), "Redis call must be counted");
+    }
+}
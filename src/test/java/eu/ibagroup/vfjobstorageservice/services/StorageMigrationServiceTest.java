@@ -0,0 +1,196 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import eu.ibagroup.vfjobstorageservice.dto.StorageMigrationDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.ConfigurationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StorageMigrationServiceTest {
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private JobStorageService jobService;
+    @Mock
+    private Cursor<String> projectKeys;
+    @Mock
+    private Cursor<String> connectionKeys;
+    @Mock
+    private Cursor<Map.Entry<Object, Object>> entries;
+    private StorageMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() {
+        StorageCodec codec = new StorageCodec(new ObjectMapper(), StorageCodec.Format.JSON,
+                StorageCodec.Compression.DEFLATE, 0);
+        migrationService = new StorageMigrationService(redisTemplate, codec, new StorageKeys(StorageKeys.Layout.PLAIN),
+                jobService, Runnable::run);
+    }
+
+    @Test
+    void testStart() {
+        when(redisTemplate.scan(argThat(options -> options != null && "project:*".equals(options.getPattern()))))
+                .thenReturn(projectKeys);
+        when(redisTemplate.scan(argThat(options -> options != null && "connection:*".equals(options.getPattern()))))
+                .thenReturn(connectionKeys);
+        when(projectKeys.hasNext()).thenReturn(true, true, false);
+        when(projectKeys.next()).thenReturn("project:p1", "project:p1:job-overviews");
+        when(connectionKeys.hasNext()).thenReturn(false);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.scan(eq("project:p1"), any())).thenReturn(entries);
+        when(entries.hasNext()).thenReturn(true, false);
+        when(entries.next()).thenReturn(Map.entry("project:p1:job:job1", "{\"id\":\"job1\"}"));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(1L));
+
+        migrationService.start();
+        StorageMigrationDto status = migrationService.getStatus();
+
+        assertFalse(status.isRunning(), "Migration must be finished");
+        assertEquals(1, status.getHashes(), "Only the jobs hash must be migrated");
+        assertEquals(1, status.getRewritten(), "Job must be rewritten");
+        verify(hashOperations, never()).scan(eq("project:p1:job-overviews"), any());
+        verify(entries).close();
+    }
+
+    @Test
+    void testStartWithKeyPerDocument() {
+        migrationService = new StorageMigrationService(redisTemplate, new StorageCodec(new ObjectMapper()),
+                new StorageKeys(StorageKeys.Layout.PLAIN, StorageKeys.DocumentLayout.KEY, null), jobService,
+                Runnable::run);
+        when(redisTemplate.scan(argThat(options -> options != null && "project:*".equals(options.getPattern()))))
+                .thenReturn(projectKeys);
+        when(redisTemplate.scan(argThat(options -> options != null && "connection:*".equals(options.getPattern()))))
+                .thenReturn(connectionKeys);
+        when(projectKeys.hasNext()).thenReturn(true, false);
+        when(projectKeys.next()).thenReturn("project:p1:pipeline:");
+        when(connectionKeys.hasNext()).thenReturn(false);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.scan(eq("project:p1:pipeline:"), any())).thenReturn(entries);
+        when(entries.hasNext()).thenReturn(true, false);
+        when(entries.next()).thenReturn(Map.entry("project:p1:pipeline:id1", "{\"id\":\"id1\"}"));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(1L));
+
+        migrationService.start();
+        StorageMigrationDto status = migrationService.getStatus();
+
+        assertEquals("KEY", status.getDocumentLayout(), "Document layout must be reported");
+        assertEquals(1, status.getSplit(), "Pipeline must be moved to its own key");
+        assertEquals(0, status.getRewritten(), "Pipeline in the same format must not be counted as rewritten");
+    }
+
+    @Test
+    void testCheckKeyLayoutWithPlainKeys() {
+        migrationService = clusterMigrationService();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(true);
+
+        assertThrows(ConfigurationException.class, migrationService::checkKeyLayout,
+                "Plain keys must not be left unreadable in Redis Cluster");
+        verify(valueOperations, never()).set(any(), any());
+    }
+
+    @Test
+    void testCheckKeyLayoutWithoutPlainKeys() {
+        migrationService = clusterMigrationService();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(false);
+
+        migrationService.checkKeyLayout();
+
+        verify(valueOperations).set("storage:key-layout", "CLUSTER");
+    }
+
+    @Test
+    void testCheckKeyLayoutAfterMigration() {
+        migrationService = clusterMigrationService();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("storage:key-layout")).thenReturn("CLUSTER");
+
+        migrationService.checkKeyLayout();
+
+        verify(redisTemplate, never()).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    void testStartRecordsClusterLayout() {
+        migrationService = new StorageMigrationService(redisTemplate, new StorageCodec(new ObjectMapper()),
+                new StorageKeys(StorageKeys.Layout.CLUSTER, StorageKeys.DocumentLayout.HASH, redisTemplate),
+                jobService, Runnable::run);
+        when(redisTemplate.scan(any())).thenReturn(projectKeys, connectionKeys, projectKeys, connectionKeys);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        migrationService.start();
+
+        assertNull(migrationService.getStatus().getError(), "Migration must succeed");
+        verify(valueOperations).set("storage:key-layout", "CLUSTER");
+    }
+
+    private StorageMigrationService clusterMigrationService() {
+        return new StorageMigrationService(redisTemplate, new StorageCodec(new ObjectMapper()),
+                new StorageKeys(StorageKeys.Layout.CLUSTER, StorageKeys.DocumentLayout.HASH, null), jobService,
+                Runnable::run);
+    }
+
+    @Test
+    void testStartWithKeyPerDocumentBuildsIndexes() {
+        migrationService = new StorageMigrationService(redisTemplate, new StorageCodec(new ObjectMapper()),
+                new StorageKeys(StorageKeys.Layout.PLAIN, StorageKeys.DocumentLayout.KEY, null), jobService,
+                Runnable::run);
+        when(redisTemplate.scan(argThat(options -> options != null && "project:*".equals(options.getPattern()))))
+                .thenReturn(projectKeys);
+        when(redisTemplate.scan(argThat(options -> options != null && "connection:*".equals(options.getPattern()))))
+                .thenReturn(connectionKeys);
+        when(projectKeys.hasNext()).thenReturn(true, true, false);
+        when(projectKeys.next()).thenReturn("project:p1", "project:p1:job:job2");
+        when(connectionKeys.hasNext()).thenReturn(false);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(hashOperations.scan(eq("project:p1"), any())).thenReturn(entries);
+        when(entries.hasNext()).thenReturn(true, false);
+        when(entries.next()).thenReturn(Map.entry("project:p1:job:job1", "{\"id\":\"job1\"}"));
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(1L));
+
+        migrationService.start();
+
+        assertEquals(1, migrationService.getStatus().getSplit(), "Job must be moved to its own key");
+        InOrder inOrder = inOrder(jobService, redisTemplate);
+        inOrder.verify(jobService).ensureIndexes("p1");
+        inOrder.verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(jobService, times(1)).ensureIndexes(any());
+    }
+
+    @Test
+    void testGetStatusWithoutMigration() {
+        assertNull(migrationService.getStatus(), "There must be no status before the first migration");
+    }
+}
@@ -0,0 +1,95 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import eu.ibagroup.vfjobstorageservice.dto.StorageKeyDto;
+import eu.ibagroup.vfjobstorageservice.dto.StorageKeyReportDto;
+import eu.ibagroup.vfjobstorageservice.exceptions.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StorageReportServiceTest {
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private Cursor<String> projectKeys;
+    @Mock
+    private Cursor<String> connectionKeys;
+    private StorageDiagnostics diagnostics;
+    private StorageReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        diagnostics = new StorageDiagnostics(Duration.ZERO, 0, 10);
+        reportService = new StorageReportService(redisTemplate, new StorageKeys(StorageKeys.Layout.PLAIN),
+                diagnostics);
+    }
+
+    private void mockScan() {
+        when(redisTemplate.scan(argThat(options -> options != null && "project:*".equals(options.getPattern()))))
+                .thenReturn(projectKeys);
+        when(redisTemplate.scan(argThat(options -> options != null && "connection:*".equals(options.getPattern()))))
+                .thenReturn(connectionKeys);
+        when(projectKeys.hasNext()).thenReturn(true, true, true, true, false);
+        when(projectKeys.next()).thenReturn("project:p1", "project:p1:job-overviews", "project:p1:pipeline:",
+                "project:p2");
+        when(connectionKeys.hasNext()).thenReturn(true, false);
+        when(connectionKeys.next()).thenReturn("connection:p1");
+    }
+
+    @Test
+    void testGetKeys() {
+        mockScan();
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(5L, 7L, 1L), List.of(3L), List.of(700L, 500L));
+        diagnostics.record(StorageMetrics.PIPELINE, "get", "p1", 0, null, null);
+
+        StorageKeyReportDto report = reportService.getKeys(2);
+
+        assertEquals(List.of(
+                StorageKeyDto.builder().key("project:p1:pipeline:").projectId("p1").length(7L).memory(700L).build(),
+                StorageKeyDto.builder().key("project:p1").projectId("p1").length(5L).memory(500L).build()),
+                report.getLargest(), "Largest document hashes must be reported first");
+        assertEquals(List.of(StorageKeyDto.builder().key("project:p1:pipeline:").projectId("p1")
+                        .entity(StorageMetrics.PIPELINE).accesses(1L).build()), report.getHottest(),
+                "Used key must be reported");
+        verify(projectKeys).close();
+        verify(connectionKeys).close();
+    }
+
+    @Test
+    void testGetKeysWithoutMemoryUsage() {
+        mockScan();
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of(5L, 7L, 1L), List.of(3L))
+                .thenThrow(new RedisSystemException("unknown command 'MEMORY'", null));
+
+        StorageKeyReportDto report = reportService.getKeys(1);
+
+        assertEquals(1, report.getLargest().size(), "Only the largest hash must be reported");
+        assertEquals(7L, report.getLargest().get(0).getLength(), "Hash length must be reported");
+        assertNull(report.getLargest().get(0).getMemory(), "Memory usage must be skipped");
+    }
+
+    @Test
+    void testGetKeysWithInvalidLimit() {
+        assertThrows(BadRequestException.class, () -> reportService.getKeys(0), "Limit must be positive");
+    }
+}
@@ -0,0 +1,48 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StorageSerializerTest {
+    private final StorageSerializer serializer = new StorageSerializer();
+
+    @Test
+    void testSerializeBinary() {
+        String value = StorageCodec.DEFLATE_HEADER + "\u0000\u0080\u00FF";
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertArrayEquals(new byte[]{StorageSerializer.BINARY_MARKER, 3, 0, (byte) 0x80, (byte) 0xFF}, bytes,
+                "Binary document must be stored as raw bytes");
+        assertEquals(value, serializer.deserialize(bytes), "Binary document must be read as it was written");
+    }
+
+    @Test
+    void testSerializeText() {
+        String value = "{\"name\":\"\u00E9\u4E2D\"}";
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), bytes, "Text must be stored as UTF-8");
+        assertEquals(value, serializer.deserialize(bytes), "Text must be read as it was written");
+    }
+
+    @Test
+    void testSerializeTextWithHeader() {
+        String value = StorageCodec.DEFLATE_HEADER + "\u4E2D";
+
+        assertEquals(value, serializer.deserialize(serializer.serialize(value)),
+                "Text starting with the header must be read as it was written");
+    }
+
+    @Test
+    void testSerializeNull() {
+        assertNull(serializer.serialize(null), "Null must not be serialized");
+        assertNull(serializer.deserialize(null), "Null must not be deserialized");
+    }
+}
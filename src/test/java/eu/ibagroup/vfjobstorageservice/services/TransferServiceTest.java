@@ -0,0 +1,169 @@
+package eu.ibagroup.vfjobstorageservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportRequestDto;
+import eu.ibagroup.vfjobstorageservice.dto.exporting.ExportResponseDto;
+import eu.ibagroup.vfjobstorageservice.dto.importing.ImportResponseDto;
+import eu.ibagroup.vfjobstorageservice.dto.jobs.JobDto;
+import eu.ibagroup.vfjobstorageservice.dto.pipelines.PipelineDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransferServiceTest {
+    @Mock
+    private JobStorageService jobService;
+    @Mock
+    private PipelineService pipelineService;
+    private TransferService transferService;
+
+    @BeforeEach
+    void setUp() {
+        transferService = new TransferService(jobService, pipelineService, new StorageKeys(StorageKeys.Layout.PLAIN),
+                new ObjectMapper().registerModule(new ParameterNamesModule()));
+    }
+
+    @Test
+    void testExportingWithCycle() throws IOException {
+        PipelineDto pipeline1 = createPipeline("p1", "{\"graph\":[" +
+                "{\"id\":\"1\",\"vertex\":true,\"value\":{\"jobId\":\"job1\"}}," +
+                "{\"id\":\"2\",\"vertex\":true,\"value\":{\"pipelineId\":\"p2\"}}]}");
+        PipelineDto pipeline2 = createPipeline("p2", "{\"graph\":[" +
+                "{\"id\":\"1\",\"vertex\":true,\"value\":{\"jobId\":\"job2\"}}," +
+                "{\"id\":\"2\",\"vertex\":true,\"value\":{\"pipelineId\":\"p1\"}}]}");
+        when(pipelineService.getByIds("projectId", Set.of("p1"))).thenReturn(List.of(pipeline1));
+        when(pipelineService.getByIds("projectId", Set.of("p2"))).thenReturn(List.of(pipeline2));
+        when(jobService.getByIds("projectId", Set.of("job1", "job2"))).thenReturn(List.of(
+                JobDto.builder().id("job1").build(), JobDto.builder().id("job2").build()));
+
+        ExportResponseDto result = transferService.exporting("projectId", Set.of(),
+                List.of(new ExportRequestDto.PipelineRequest("p1", true)));
+
+        assertEquals(Set.of(pipeline1, pipeline2), result.getPipelines(), "Both pipelines must be exported");
+        assertEquals(2, result.getJobs().size(), "Jobs of both pipelines must be exported");
+        verify(pipelineService).getByIds("projectId", Set.of("p2"));
+    }
+
+    @Test
+    void testExportingReadsPipelinesOnce() throws IOException {
+        PipelineDto pipeline1 = createPipeline("p1", "{\"graph\":[" +
+                "{\"id\":\"1\",\"vertex\":true,\"value\":{\"pipelineId\":\"p2\"}}]}");
+        PipelineDto pipeline2 = createPipeline("p2", "{\"graph\":[" +
+                "{\"id\":\"1\",\"vertex\":true,\"value\":{\"pipelineId\":\"p3\"}}]}");
+        PipelineDto pipeline3 = createPipeline("p3", "{\"graph\":[]}");
+        when(pipelineService.getByIds("projectId", Set.of("p1", "p2"))).thenReturn(List.of(pipeline2, pipeline1));
+        when(pipelineService.getByIds("projectId", Set.of("p3"))).thenReturn(List.of(pipeline3));
+
+        ExportResponseDto result = transferService.exporting("projectId", Set.of(),
+                List.of(new ExportRequestDto.PipelineRequest("p1", true),
+                        new ExportRequestDto.PipelineRequest("p2", false)));
+
+        assertEquals(Set.of(pipeline1, pipeline2, pipeline3), result.getPipelines(),
+                "Pipeline nested into the read one must be exported");
+        verify(pipelineService, times(2)).getByIds(eq("projectId"), any());
+    }
+
+    @Test
+    void testStreamExport() throws IOException {
+        PipelineDto pipeline1 = createPipeline("p1", "{\"graph\":[" +
+                "{\"id\":\"1\",\"vertex\":true,\"value\":{\"jobId\":\"job1\"}}," +
+                "{\"id\":\"2\",\"vertex\":true,\"value\":{\"pipelineId\":\"p2\"}}]}");
+        PipelineDto pipeline2 = createPipeline("p2", "{\"graph\":[]}");
+        when(pipelineService.getByIds("projectId", Set.of("p1"))).thenReturn(List.of(pipeline1));
+        when(pipelineService.getByIds("projectId", Set.of("p2"))).thenReturn(List.of(pipeline2));
+        when(pipelineService.getByIds("projectId", Set.of("p1", "p2"))).thenReturn(List.of(pipeline2, pipeline1));
+        when(jobService.getByIds("projectId", Set.of("job1"))).thenReturn(List.of(
+                JobDto.builder().id("job1").name("job1").build()));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        transferService.streamExport("projectId", Set.of(),
+                List.of(new ExportRequestDto.PipelineRequest("p1", true)), outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length, "Every entity must be written on its own line");
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals("job1", mapper.readTree(lines[0]).get("job").get("id").asText(), "Jobs must go first");
+        assertEquals("p2", mapper.readTree(lines[1]).get("pipeline").get("id").asText(),
+                "Nested pipelines must go before their parents");
+        assertEquals("p1", mapper.readTree(lines[2]).get("pipeline").get("id").asText(),
+                "Requested pipeline must go last");
+    }
+
+    @Test
+    void testStreamImport() throws IOException {
+        String bundle = "{\"job\":{\"name\":\"job1\"}}\n" +
+                "{\"pipeline\":{\"name\":\"p1\"}}\n" +
+                "{\"pipeline\":{\"name\":\"p2\"}}\n";
+        Map<String, String> jobIds = Map.of("job1", "id1");
+        Map<String, String> pipelineIds = new HashMap<>();
+        when(jobService.getIdsByNames("projectId")).thenReturn(jobIds);
+        when(pipelineService.getIdsByNames("projectId")).thenReturn(pipelineIds);
+
+        ImportResponseDto result = transferService.streamImport("projectId",
+                new ByteArrayInputStream(bundle.getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(result.getNotImportedJobs().isEmpty(), "All jobs must be imported");
+        verify(jobService).importAll(eq("projectId"), argThat(jobs -> jobs.size() == 1), eq(result));
+        verify(pipelineService).importAll(eq("projectId"), argThat(pipelines -> pipelines.size() == 2), eq(result),
+                eq(jobIds), eq(pipelineIds));
+    }
+
+    private static PipelineDto createPipeline(String id, String definition) throws IOException {
+        PipelineDto pipeline = new PipelineDto();
+        pipeline.setId(id);
+        pipeline.setName(id);
+        pipeline.setDefinition(new ObjectMapper().readTree(definition));
+        return pipeline;
+    }
+
+    @Test
+    void testCollectNestedEntityIds() throws IOException {
+        PipelineDto pipeline = new PipelineDto();
+        pipeline.setDefinition(new ObjectMapper().readTree("{\"graph\":[" +
+                "{\"id\":\"1\",\"vertex\":true,\"value\":{\"operation\":\"JOB\",\"jobId\":\"job1\"}}," +
+                "{\"id\":\"2\",\"vertex\":true,\"value\":{\"operation\":\"PIPELINE\",\"pipelineId\":\"pipeline1\"}}," +
+                "{\"id\":\"3\",\"vertex\":true,\"value\":{\"operation\":\"JOB\",\"jobId\":\"job2\"}}," +
+                "{\"id\":\"4\",\"vertex\":true,\"value\":{\"operation\":\"JOB\",\"jobId\":\"\"}}," +
+                "{\"id\":\"5\",\"edge\":true,\"value\":{\"jobId\":\"edge\"},\"source\":\"1\",\"target\":\"3\"}]}"));
+        Set<String> jobIds = new HashSet<>();
+        Set<String> pipelineIds = new HashSet<>();
+
+        TransferService.collectNestedEntityIds(pipeline, jobIds, pipelineIds);
+
+        assertEquals(Set.of("job1", "job2"), jobIds, "Job ids must be taken from the vertices");
+        assertEquals(Set.of("pipeline1"), pipelineIds, "Pipeline ids must be taken from the vertices");
+    }
+
+    @Test
+    void testCollectNestedEntityIdsWithoutDefinition() {
+        Set<String> jobIds = new HashSet<>();
+        Set<String> pipelineIds = new HashSet<>();
+
+        TransferService.collectNestedEntityIds(new PipelineDto(), jobIds, pipelineIds);
+
+        assertTrue(jobIds.isEmpty() && pipelineIds.isEmpty(), "There must be no nested entities");
+    }
+}